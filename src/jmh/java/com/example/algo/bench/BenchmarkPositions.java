@@ -0,0 +1,100 @@
+package com.example.algo.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.setup.BoardFactory;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.Piece;
+
+/**
+ * The fixed positions every benchmark runs on. Opening and midgame come from
+ * seeded random play, so they are the same on every run; the endgame is laid
+ * out by hand with pieces on the special cells 26..30 and effects pending.
+ */
+public final class BenchmarkPositions {
+	public static final String OPENING = "opening";
+	public static final String MIDGAME = "midgame";
+	public static final String ENDGAME = "endgame";
+
+	private static final long SEED = 20240101L;
+
+	private BenchmarkPositions() {
+	}
+
+	public static GameState position(String name) {
+		switch (name) {
+			case OPENING:
+				return afterRandomPlies(4);
+			case MIDGAME:
+				return afterRandomPlies(60);
+			case ENDGAME:
+				return endgame();
+			default:
+				throw new IllegalArgumentException("unknown position: " + name);
+		}
+	}
+
+	/**
+	 * White: 20, 25, 27 (Three Truths pending), 29 (Horus pending), 30 and one
+	 * borne off. Black: 22, 23, 24, 28 (Re-Atoum pending) and one borne off.
+	 * White to move.
+	 */
+	public static GameState endgame() {
+		Player[] players = newPlayers();
+		List<Piece> pieces = new ArrayList<>();
+		int[] white = { 20, 25, 27, 29, 30, 33 };
+		int[] black = { 22, 23, 24, 28, 31 };
+		for (int position : white) {
+			pieces.add(new Piece(players[0], position));
+		}
+		for (int position : black) {
+			pieces.add(new Piece(players[1], position));
+		}
+		GameState state = new GameState(new BoardFactory().createBoard(), pieces, players);
+		state.markThreeTruthsPiece(state.getPieceAtIndex(27), 0);
+		state.markHorusPiece(state.getPieceAtIndex(29), 0);
+		state.markAtoumPiece(state.getPieceAtIndex(28), 1);
+		return state;
+	}
+
+	/**
+	 * Legal moves of the player with the stick, in piece order.
+	 */
+	public static List<MovePiece> legalMoves(GameState state, Player player, int stick) {
+		List<MovePiece> moves = new ArrayList<>();
+		for (Piece piece : state.getPiecesFor(player)) {
+			if (piece.getPosition() > 30) {
+				continue;
+			}
+			MovePiece move = new MovePiece(piece, piece.getPosition() + stick);
+			if (RuleEngine.isLegal(move, state)) {
+				moves.add(move);
+			}
+		}
+		return moves;
+	}
+
+	private static GameState afterRandomPlies(int plies) {
+		Random random = new Random(SEED);
+		GameState state = new GameInitializer().createNewGame(newPlayers());
+		for (int i = 0; i < plies; i++) {
+			int sum = Integer.bitCount(random.nextInt(16));
+			List<MovePiece> moves = legalMoves(state, state.getCurrentPlayer(), sum == 0 ? 5 : sum);
+			if (!moves.isEmpty()) {
+				moves.get(random.nextInt(moves.size())).execute(state);
+			}
+			state.switchPlayer();
+		}
+		return state;
+	}
+
+	private static Player[] newPlayers() {
+		return new Player[] { new Player("White", null), new Player("Black", null) };
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.algo.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.algo.state.GameState;
+import com.example.algo.state.Piece;
+
+/**
+ * The GameState accessors the search and the rules call on every move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+	@Param({ BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME, BenchmarkPositions.ENDGAME })
+	public String position;
+
+	private GameState state;
+
+	@Setup
+	public void setUp() {
+		state = BenchmarkPositions.position(position);
+	}
+
+	@Benchmark
+	public GameState cloneState() {
+		return state.clone();
+	}
+
+	@Benchmark
+	public List<Piece> piecesFor() {
+		return state.getPiecesFor(state.getCurrentPlayer());
+	}
+
+	/**
+	 * Looks up every cell once, as a board scan does.
+	 */
+	@Benchmark
+	public void pieceAtIndex(Blackhole blackhole) {
+		for (int index = 0; index < state.board.length; index++) {
+			blackhole.consume(state.getPieceAtIndex(index));
+		}
+	}
+}
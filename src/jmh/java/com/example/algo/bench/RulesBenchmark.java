@@ -0,0 +1,117 @@
+package com.example.algo.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.state.GameState;
+import com.example.algo.state.Piece;
+
+/**
+ * Legality checks and move execution. Executing a move changes the state, so
+ * the execute benchmarks play on a fresh clone each time; compare them with
+ * GameStateBenchmark.cloneState to see the cost of the move itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark {
+	@Param({ BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME, BenchmarkPositions.ENDGAME })
+	public String position;
+
+	private GameState state;
+	private MovePiece[] candidates;
+	private int[] legalFrom;
+	private int[] legalTo;
+	private GameState endgame;
+
+	@Setup
+	public void setUp() {
+		state = BenchmarkPositions.position(position);
+		Player player = state.getCurrentPlayer();
+		List<Piece> pieces = state.getPiecesFor(player);
+		candidates = new MovePiece[pieces.size() * 5];
+		int count = 0;
+		for (Piece piece : pieces) {
+			for (int stick = 1; stick <= 5; stick++) {
+				candidates[count++] = new MovePiece(piece, piece.getPosition() + stick);
+			}
+		}
+
+		int legal = 0;
+		legalFrom = new int[candidates.length];
+		legalTo = new int[candidates.length];
+		for (MovePiece move : candidates) {
+			if (move.getPiece().getPosition() <= 30 && RuleEngine.isLegal(move, state)) {
+				legalFrom[legal] = move.getPiece().getPosition();
+				legalTo[legal] = move.getTargetIndex();
+				legal++;
+			}
+		}
+		legalFrom = java.util.Arrays.copyOf(legalFrom, legal);
+		legalTo = java.util.Arrays.copyOf(legalTo, legal);
+		endgame = BenchmarkPositions.endgame();
+	}
+
+	/**
+	 * Every piece of the side to move with every stick, as move generation
+	 * does.
+	 */
+	@Benchmark
+	public void isLegal(Blackhole blackhole) {
+		for (MovePiece move : candidates) {
+			blackhole.consume(RuleEngine.isLegal(move, state));
+		}
+	}
+
+	/**
+	 * Plays every legal move of the side to move, each on its own clone.
+	 */
+	@Benchmark
+	public void cloneAndExecute(Blackhole blackhole) {
+		for (int i = 0; i < legalFrom.length; i++) {
+			blackhole.consume(play(state, legalFrom[i], legalTo[i]));
+		}
+	}
+
+	/**
+	 * 25 -> 26: the House of Water sends the piece back to rebirth.
+	 */
+	@Benchmark
+	public GameState cloneAndExecuteWater() {
+		return play(endgame, 25, 26);
+	}
+
+	/**
+	 * 24 -> 27: swaps with the piece on the House of Three Truths and moves
+	 * its pending mark.
+	 */
+	@Benchmark
+	public GameState cloneAndExecuteThreeTruths() {
+		return play(endgame, 24, 27);
+	}
+
+	private static GameState play(GameState state, int from, int to) {
+		GameState copy = state.clone();
+		new MovePiece(copy.getPieceAtIndex(from), to).execute(copy);
+		return copy;
+	}
+}
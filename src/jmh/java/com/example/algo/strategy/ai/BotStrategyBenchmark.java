@@ -0,0 +1,96 @@
+package com.example.algo.strategy.ai;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.algo.bench.BenchmarkPositions;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+
+/**
+ * The bot's static evaluation and whole move decisions. Lives in the bot's
+ * package to reach evaluate().
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BotStrategyBenchmark {
+
+	@State(Scope.Thread)
+	public static class Position {
+		@Param({ BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME, BenchmarkPositions.ENDGAME })
+		public String position;
+
+		GameState state;
+		Player player;
+		BotStrategy bot;
+
+		@Setup
+		public void setUp() {
+			state = BenchmarkPositions.position(position);
+			player = state.getCurrentPlayer();
+			bot = new BotStrategy();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Packed {
+		PackedState state;
+		int me;
+
+		@Setup
+		public void setUp(Position position) {
+			state = BotStrategy.pack(position.state);
+			me = position.state.currentPlayerIndex;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Search {
+		@Param({ "2", "3", "4" })
+		public int depth;
+
+		@Param({ "3" })
+		public int stick;
+
+		@Setup
+		public void setUp(Position position) {
+			position.bot.setMaxDepth(depth);
+		}
+
+		/**
+		 * Every decision starts from an empty table, like the first move of a
+		 * game, instead of finding the previous run's results.
+		 */
+		@Setup(Level.Invocation)
+		public void clearTable(Position position) {
+			position.bot.clearTable();
+		}
+	}
+
+	@Benchmark
+	public int evaluate(Position position, Packed packed) {
+		return position.bot.evaluate(packed.state, packed.me);
+	}
+
+	@Benchmark
+	public MovePiece chooseMove(Position position, Search search) {
+		return position.bot.chooseMove(position.state, position.player, search.stick);
+	}
+}
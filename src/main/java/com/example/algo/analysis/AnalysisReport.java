@@ -0,0 +1,303 @@
+package com.example.algo.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import com.example.algo.state.PackedState;
+import com.example.algo.state.PendingEffect;
+
+/**
+ * Totals over a batch of journaled games. Each fork of the analysis fills
+ * its own report, which are then merged.
+ */
+public class AnalysisReport {
+	/**
+	 * Board indices of the special cells: rebirth (15), happiness (26),
+	 * water (27), three truths (28), Re-Atoum (29) and Horus (30).
+	 */
+	static final int[] SPECIAL_CELLS = { 14, 25, 26, 27, 28, 29 };
+	private static final String[] SPECIAL_NAMES = { "Rebirth", "Happiness", "Water", "Three Truths", "Re-Atoum",
+			"Horus" };
+
+	private final int topCount;
+	int games;
+	int finished;
+	int firstPlayerWins;
+	long turns;
+	long moves;
+	long passes;
+	long swaps;
+	long borneOff;
+	long waterRebirths;
+	// games by length in turns
+	long[] lengths = new long[256];
+	int minLength = Integer.MAX_VALUE;
+	int maxLength;
+	// pieces of each player on each cell, summed over the positions before every turn
+	final long[][] occupancy = new long[PackedState.PLAYER_COUNT][PackedState.BOARD_SIZE];
+	final long[] landings = new long[PackedState.BOARD_SIZE];
+	final long[] effectsRemoved = new long[PendingEffect.values().length];
+	final long[] effectsReborn = new long[PendingEffect.values().length];
+	long scoredMoves;
+	long blunders;
+	long totalLoss;
+	final List<Blunder> worst = new ArrayList<>();
+	long cacheHits;
+	long cacheMisses;
+	long elapsedNanos;
+
+	AnalysisReport(int topCount) {
+		this.topCount = topCount;
+	}
+
+	void gameLength(int length) {
+		if (length >= lengths.length) {
+			lengths = Arrays.copyOf(lengths, Math.max(length + 1, lengths.length * 2));
+		}
+		lengths[length]++;
+		minLength = Math.min(minLength, length);
+		maxLength = Math.max(maxLength, length);
+	}
+
+	void blunder(Blunder blunder) {
+		worst.add(blunder);
+		if (worst.size() > 2 * topCount) {
+			trimWorst();
+		}
+	}
+
+	void merge(AnalysisReport other) {
+		games += other.games;
+		finished += other.finished;
+		firstPlayerWins += other.firstPlayerWins;
+		turns += other.turns;
+		moves += other.moves;
+		passes += other.passes;
+		swaps += other.swaps;
+		borneOff += other.borneOff;
+		waterRebirths += other.waterRebirths;
+		if (other.lengths.length > lengths.length) {
+			lengths = Arrays.copyOf(lengths, other.lengths.length);
+		}
+		for (int i = 0; i < other.lengths.length; i++) {
+			lengths[i] += other.lengths[i];
+		}
+		minLength = Math.min(minLength, other.minLength);
+		maxLength = Math.max(maxLength, other.maxLength);
+		for (int player = 0; player < occupancy.length; player++) {
+			add(occupancy[player], other.occupancy[player]);
+		}
+		add(landings, other.landings);
+		add(effectsRemoved, other.effectsRemoved);
+		add(effectsReborn, other.effectsReborn);
+		scoredMoves += other.scoredMoves;
+		blunders += other.blunders;
+		totalLoss += other.totalLoss;
+		worst.addAll(other.worst);
+		trimWorst();
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return games that ended with a winner rather than at the turn limit
+	 */
+	public int getFinished() {
+		return finished;
+	}
+
+	public int getFirstPlayerWins() {
+		return firstPlayerWins;
+	}
+
+	public long getTurns() {
+		return turns;
+	}
+
+	public long getPasses() {
+		return passes;
+	}
+
+	public double getAverageLength() {
+		return games == 0 ? 0 : (double) turns / games;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the length in turns that the given share of the games did not
+	 *         exceed
+	 */
+	public int lengthPercentile(double percentile) {
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * games));
+		long seen = 0;
+		for (int length = 0; length < lengths.length; length++) {
+			seen += lengths[length];
+			if (seen >= rank) {
+				return length;
+			}
+		}
+		return maxLength;
+	}
+
+	/**
+	 * Average number of the player's pieces on the board index before a turn.
+	 */
+	public double getOccupancy(int player, int cell) {
+		return turns == 0 ? 0 : (double) occupancy[player][cell] / turns;
+	}
+
+	/**
+	 * Moves that ended on the board index, before the Water sent any back.
+	 */
+	public long getLandings(int cell) {
+		return landings[cell];
+	}
+
+	public long getEffectsRemoved(PendingEffect effect) {
+		return effectsRemoved[effect.ordinal()];
+	}
+
+	public long getEffectsReborn(PendingEffect effect) {
+		return effectsReborn[effect.ordinal()];
+	}
+
+	public long getWaterRebirths() {
+		return waterRebirths;
+	}
+
+	/**
+	 * @return moves that were compared against the other legal moves
+	 */
+	public long getScoredMoves() {
+		return scoredMoves;
+	}
+
+	public long getBlunders() {
+		return blunders;
+	}
+
+	/**
+	 * @return the worst moves found, worst first
+	 */
+	public List<Blunder> getWorst() {
+		return worst;
+	}
+
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		out.append(String.format(Locale.ROOT, "Games: %d in %.2f s (%.1f games/s), %d finished, first player won %.1f%%%n",
+				games, elapsedNanos / 1e9, elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos, finished,
+				finished == 0 ? 0 : 100.0 * firstPlayerWins / finished));
+		out.append(String.format(Locale.ROOT, "Length (turns): mean %.1f  min %d  p50 %d  p90 %d  p99 %d  max %d%n",
+				getAverageLength(), games == 0 ? 0 : minLength, lengthPercentile(50), lengthPercentile(90),
+				lengthPercentile(99), maxLength));
+		out.append(String.format(Locale.ROOT, "Turns: %d moves, %d passes, %d swaps, %d pieces borne off%n", moves,
+				passes, swaps, borneOff));
+
+		out.append(String.format("Special cells:%n"));
+		for (int i = 0; i < SPECIAL_CELLS.length; i++) {
+			int cell = SPECIAL_CELLS[i];
+			out.append(String.format(Locale.ROOT, "  %2d %-13s %10d landings", cell + 1, SPECIAL_NAMES[i],
+					landings[cell]));
+			if (cell == PackedState.WATER_CELL) {
+				out.append(String.format(Locale.ROOT, ", %d sent to rebirth", waterRebirths));
+			}
+			for (PendingEffect effect : PendingEffect.values()) {
+				if (cell == PackedState.THREE_TRUTHS_CELL + effect.ordinal()) {
+					out.append(String.format(Locale.ROOT, ", then %d removed, %d sent to rebirth",
+							effectsRemoved[effect.ordinal()], effectsReborn[effect.ordinal()]));
+				}
+			}
+			out.append(String.format("%n"));
+		}
+
+		out.append(String.format("Occupancy (pieces per turn):%n"));
+		for (int row = 0; row < 3; row++) {
+			for (int player = 0; player < occupancy.length; player++) {
+				out.append(String.format(Locale.ROOT, "  P%d ", player + 1));
+				for (int column = 0; column < 10; column++) {
+					// the board snakes: the middle row runs right to left
+					int cell = row * 10 + (row == 1 ? 9 - column : column);
+					out.append(String.format(Locale.ROOT, " %2d:%4.2f", cell + 1, getOccupancy(player, cell)));
+				}
+				out.append(String.format("%n"));
+			}
+		}
+
+		if (scoredMoves > 0) {
+			out.append(String.format(Locale.ROOT, "Scored moves: %d, %d blunders (%.2f%%), mean loss %.1f%n",
+					scoredMoves, blunders, 100.0 * blunders / scoredMoves, (double) totalLoss / scoredMoves));
+			out.append(String.format(Locale.ROOT, "Position cache: %d hits, %d searches (%.1f%% hits)%n", cacheHits,
+					cacheMisses, cacheHits + cacheMisses == 0 ? 0 : 100.0 * cacheHits / (cacheHits + cacheMisses)));
+			for (Blunder blunder : worst) {
+				out.append("  ").append(blunder).append(String.format("%n"));
+			}
+		}
+		return out.toString();
+	}
+
+	void trimWorst() {
+		worst.sort(Blunder.WORST_FIRST);
+		while (worst.size() > topCount) {
+			worst.remove(worst.size() - 1);
+		}
+	}
+
+	private static void add(long[] into, long[] from) {
+		for (int i = 0; i < into.length; i++) {
+			into[i] += from[i];
+		}
+	}
+
+	/**
+	 * A move that was worth less than the best move of its turn.
+	 */
+	public static final class Blunder {
+		static final Comparator<Blunder> WORST_FIRST = Comparator.comparingInt((Blunder b) -> -b.loss)
+				.thenComparingLong(b -> b.gameId).thenComparingInt(b -> b.turn);
+
+		private final long gameId;
+		private final int turn;
+		private final int loss;
+
+		Blunder(long gameId, int turn, int loss) {
+			this.gameId = gameId;
+			this.turn = turn;
+			this.loss = loss;
+		}
+
+		public long getGameId() {
+			return gameId;
+		}
+
+		/**
+		 * @return turns played before the move, as GameJournalReader counts them
+		 */
+		public int getTurn() {
+			return turn;
+		}
+
+		public int getLoss() {
+			return loss;
+		}
+
+		@Override
+		public String toString() {
+			return "game " + gameId + " turn " + turn + ": " + loss + " below the best move";
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package com.example.algo.analysis;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.example.algo.journal.GameJournal;
+import com.example.algo.journal.GameJournalReader;
+import com.example.algo.journal.GameReplay;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.state.Piece;
+import com.example.algo.strategy.ai.BotStrategy;
+
+/**
+ * Analyzes every game of a journal at once: how long the games last, where
+ * the pieces stand, how often the special cells come into play, and, with a
+ * search depth, which moves were blunders.
+ *
+ * The games are split into ranges that a fork-join pool works through, each
+ * range replaying its games from the mapped journal into its own report; the
+ * reports are merged in game order, so the totals do not depend on the
+ * number of threads. To score a move the analyzer searches every legal move
+ * of that turn with a BotStrategy of the worker thread and takes how far the
+ * played move falls short of the best one. The values are shared between
+ * threads in a {@link PositionCache} keyed by the position after the move,
+ * so the opening positions that many games go through are searched once.
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.analysis.BatchAnalyzer
+ * -Dexec.args="journal --depth 2"
+ */
+public class BatchAnalyzer {
+	public static final int DEFAULT_DEPTH = 1;
+	public static final int DEFAULT_BLUNDER_LOSS = 100;
+	public static final int DEFAULT_TOP = 10;
+
+	// games a fork replays without splitting further
+	private static final int GAMES_PER_TASK = 64;
+	// transposition table of each worker's bot
+	private static final long BOT_TABLE_BYTES = 4L * 1024 * 1024;
+	// mixed into the cache key, so values of different depths never meet
+	private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+	private final GameJournalReader reader;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int depth = DEFAULT_DEPTH;
+	private int blunderLoss = DEFAULT_BLUNDER_LOSS;
+	private int top = DEFAULT_TOP;
+	private PositionCache cache = new PositionCache();
+	// searchers of the current run, one per worker thread
+	private ThreadLocal<BotStrategy> bots;
+
+	public BatchAnalyzer(GameJournalReader reader) {
+		this.reader = reader;
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1: " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Depth of the search that scores the moves, 0 to score none.
+	 */
+	public void setDepth(int depth) {
+		if (depth < 0) {
+			throw new IllegalArgumentException("depth must not be negative: " + depth);
+		}
+		this.depth = depth;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * How far below the best move a move has to score to count as a blunder.
+	 */
+	public void setBlunderLoss(int blunderLoss) {
+		if (blunderLoss < 1) {
+			throw new IllegalArgumentException("blunder loss must be at least 1: " + blunderLoss);
+		}
+		this.blunderLoss = blunderLoss;
+	}
+
+	/**
+	 * Number of the worst moves the report lists.
+	 */
+	public void setTop(int top) {
+		if (top < 0) {
+			throw new IllegalArgumentException("top must not be negative: " + top);
+		}
+		this.top = top;
+	}
+
+	/**
+	 * Cache the move values are shared through; one cache may serve several
+	 * analyzers of the same depth.
+	 */
+	public void setCache(PositionCache cache) {
+		this.cache = cache;
+	}
+
+	public AnalysisReport run() {
+		long start = System.nanoTime();
+		long hits = cache.getHits();
+		long misses = cache.getMisses();
+		bots = ThreadLocal.withInitial(this::newBot);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			AnalysisReport report = pool.invoke(new Analysis(0, reader.getGameCount()));
+			report.trimWorst();
+			report.cacheHits = cache.getHits() - hits;
+			report.cacheMisses = cache.getMisses() - misses;
+			report.elapsedNanos = System.nanoTime() - start;
+			return report;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Replays the games with the given indices, first to last.
+	 */
+	private class Analysis extends RecursiveTask<AnalysisReport> {
+		private static final long serialVersionUID = 1L;
+
+		private final int first;
+		private final int end;
+
+		Analysis(int first, int end) {
+			this.first = first;
+			this.end = end;
+		}
+
+		@Override
+		protected AnalysisReport compute() {
+			if (end - first <= GAMES_PER_TASK) {
+				AnalysisReport report = new AnalysisReport(top);
+				for (int game = first; game < end; game++) {
+					analyze(reader.getGameId(game), report);
+				}
+				return report;
+			}
+			int middle = (first + end) >>> 1;
+			Analysis later = new Analysis(middle, end);
+			later.fork();
+			AnalysisReport report = new Analysis(first, middle).compute();
+			report.merge(later.join());
+			return report;
+		}
+	}
+
+	private void analyze(long gameId, AnalysisReport report) {
+		Player[] players = { new Player("Player 1", null), new Player("Player 2", null) };
+		GameReplay replay = reader.replayer(gameId, players);
+		GameState state = replay.getState();
+		while (replay.hasNext()) {
+			for (Piece piece : state.pieces) {
+				if (piece.getPosition() < PackedState.BOARD_SIZE) {
+					report.occupancy[state.players[0] == piece.getOwner() ? 0 : 1][piece.getPosition()]++;
+				}
+			}
+			switch (replay.kind()) {
+				case GameJournal.MOVE:
+					report.moves++;
+					if (replay.to() < PackedState.BOARD_SIZE) {
+						report.landings[replay.to()]++;
+					} else {
+						report.borneOff++;
+					}
+					if (replay.to() == PackedState.WATER_CELL && replay.landed() != replay.to()) {
+						report.waterRebirths++;
+					}
+					if (replay.detail() == GameJournal.SWAPPED) {
+						report.swaps++;
+					}
+					if (depth > 0) {
+						score(replay, report);
+					}
+					break;
+				case GameJournal.PASS:
+					report.passes++;
+					break;
+				case GameJournal.REMOVED:
+					report.effectsRemoved[replay.detail()]++;
+					break;
+				case GameJournal.REBIRTH:
+					report.effectsReborn[replay.detail()]++;
+					break;
+				default:
+					break;
+			}
+			replay.next();
+		}
+
+		int winner = reader.getWinner(gameId);
+		report.games++;
+		report.turns += replay.getTurns();
+		report.gameLength(replay.getTurns());
+		if (winner >= 0) {
+			report.finished++;
+			if (winner == 0) {
+				report.firstPlayerWins++;
+			}
+		}
+	}
+
+	/**
+	 * Compares the move about to be replayed with the other moves of its
+	 * turn.
+	 */
+	private void score(GameReplay replay, AnalysisReport report) {
+		GameState state = replay.getState();
+		Player player = state.players[replay.player()];
+		List<MovePiece> moves = RuleEngine.legalMoves(state, player, replay.stick());
+		if (moves.size() < 2) {
+			return;
+		}
+		PackedState packed = PackedState.fromGameState(state);
+		int best = Integer.MIN_VALUE;
+		int played = Integer.MIN_VALUE;
+		for (MovePiece move : moves) {
+			int from = move.getPiece().getPosition();
+			int value = value(state, packed, player, move);
+			best = Math.max(best, value);
+			if (from == replay.from() && move.getTargetIndex() == replay.to()) {
+				played = value;
+			}
+		}
+		if (played == Integer.MIN_VALUE) {
+			throw new IllegalStateException("game " + replay.getGameId() + ", turn " + replay.getTurn()
+					+ ": the move from " + replay.from() + " was not legal");
+		}
+		int loss = best - played;
+		report.scoredMoves++;
+		report.totalLoss += loss;
+		if (loss >= blunderLoss) {
+			report.blunders++;
+			report.blunder(new AnalysisReport.Blunder(replay.getGameId(), replay.getTurn(), loss));
+		}
+	}
+
+	private int value(GameState state, PackedState packed, Player player, MovePiece move) {
+		int me = replayIndex(state, player);
+		long undo = packed.makeMove(me, move.getPiece().getPosition(), move.getTargetIndex());
+		packed.switchPlayer();
+		long key = packed.hash() ^ depth * DEPTH_KEY;
+		packed.switchPlayer();
+		packed.unmakeMove(undo);
+
+		int value = cache.get(key);
+		if (value == PositionCache.MISS) {
+			value = bots.get().evaluateMove(state, player, move);
+			cache.put(key, value);
+		}
+		return value;
+	}
+
+	private static int replayIndex(GameState state, Player player) {
+		return state.players[0] == player ? 0 : 1;
+	}
+
+	private BotStrategy newBot() {
+		BotStrategy bot = new BotStrategy(BOT_TABLE_BYTES);
+		bot.setMaxDepth(Math.max(1, depth));
+		return bot;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args[0].startsWith("--")) {
+			usage();
+			return;
+		}
+		BatchAnalyzer analyzer = new BatchAnalyzer(GameJournalReader.open(Paths.get(args[0])));
+		for (int i = 1; i < args.length; i++) {
+			switch (args[i]) {
+				case "--depth":
+					analyzer.setDepth(Integer.parseInt(args[++i]));
+					break;
+				case "--threads":
+					analyzer.setThreads(Integer.parseInt(args[++i]));
+					break;
+				case "--blunder":
+					analyzer.setBlunderLoss(Integer.parseInt(args[++i]));
+					break;
+				case "--top":
+					analyzer.setTop(Integer.parseInt(args[++i]));
+					break;
+				default:
+					usage();
+					return;
+			}
+		}
+		System.out.print(analyzer.run());
+	}
+
+	private static void usage() {
+		System.out.println("usage: BatchAnalyzer DIR [--depth N] [--threads N] [--blunder LOSS] [--top N]");
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.algo.analysis;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search values shared by all the analysis threads, so a position reached in
+ * many games is searched once.
+ *
+ * Direct-mapped and lossy: each slot holds the upper half of one key next to
+ * its value in a single long, written and read atomically without locks. A
+ * newer position takes the slot of an older one; two keys that share both
+ * the slot and the upper half would be confused, which with 64-bit keys
+ * happens too rarely to change a report.
+ */
+public class PositionCache {
+	public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+	public static final int MISS = Integer.MIN_VALUE;
+
+	private final AtomicLongArray slots;
+	private final int mask;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public PositionCache() {
+		this(DEFAULT_BUDGET_BYTES);
+	}
+
+	public PositionCache(long budgetBytes) {
+		long entries = Math.max(1, budgetBytes / Long.BYTES);
+		int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+		this.slots = new AtomicLongArray(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * @return the value stored for the key, or MISS
+	 */
+	public int get(long key) {
+		long slot = slots.get(index(key));
+		if (slot != 0 && (int) (slot >>> 32) == tag(key)) {
+			hits.increment();
+			return (int) slot;
+		}
+		misses.increment();
+		return MISS;
+	}
+
+	public void put(long key, int value) {
+		slots.set(index(key), (long) tag(key) << 32 | (value & 0xFFFFFFFFL));
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	private int index(long key) {
+		return (int) key & mask;
+	}
+
+	private static int tag(long key) {
+		// never 0, so an empty slot matches no key
+		return (int) (key >>> 32) | 1;
+	}
+}
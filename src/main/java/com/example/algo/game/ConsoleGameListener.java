@@ -0,0 +1,57 @@
+package com.example.algo.game;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+import com.example.algo.util.GeneralUtil;
+
+/**
+ * Prints the board before every turn and a line for everything that
+ * happens, for games played in the console.
+ */
+public class ConsoleGameListener implements GameListener {
+
+	public void turnStarted(GameState state, Player player, int stick, PendingEffect effect) {
+		GeneralUtil.printBoard(state);
+		if (effect != null) {
+			System.out.println("Resolving " + effect.getDisplayName() + " effect! Stick rolled: " + stick);
+		} else {
+			System.out.println(player.getName() + " rolled: " + stick);
+		}
+	}
+
+	public void effectResolved(GameState state, PendingEffect effect, Piece piece, boolean removed) {
+		if (removed) {
+			System.out.println(piece.getOwner().getName() + "'s piece is removed by " + effect.getDisplayName() + "!");
+		} else {
+			System.out.println(piece.getOwner().getName() + "'s piece is sent to Rebirth!");
+		}
+	}
+
+	public void moved(GameState state, MovePiece move, int from, boolean swapped) {
+		int target = move.getTargetIndex();
+		int actual = move.getPiece().getPosition();
+		if (swapped && actual == target) {
+			System.out.println("  → Moved piece from cell " + from + " to cell " + target + " (swapped with opponent)");
+		} else if (actual != target) {
+			System.out.println("  → Moved piece from cell " + from + " to cell " + target
+					+ " (ended at cell " + actual + " due to special effect)");
+		} else {
+			System.out.println("  → Moved piece from cell " + from + " to cell " + target);
+		}
+	}
+
+	public void noMove(GameState state, Player player) {
+		System.out.println("  → No legal moves available, skipping turn");
+	}
+
+	public void gameOver(GameState state, Player winner) {
+		if (winner != null) {
+			System.out.println("Game over! " + winner.getName() + " has no pieces left.");
+		}
+		GeneralUtil.printBoard(state);
+		System.out.println("game over");
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.algo.game;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+
+/**
+ * What happens during a {@link GameSession}, for whoever wants to show or
+ * record it. Every method does nothing by default.
+ */
+public interface GameListener {
+	GameListener NONE = new GameListener() {
+	};
+
+	/**
+	 * A listener that tells the first listener, then the second.
+	 */
+	static GameListener both(GameListener first, GameListener second) {
+		return new GameListener() {
+			public void turnStarted(GameState state, Player player, int stick, PendingEffect effect) {
+				first.turnStarted(state, player, stick, effect);
+				second.turnStarted(state, player, stick, effect);
+			}
+
+			public void effectResolved(GameState state, PendingEffect effect, Piece piece, boolean removed) {
+				first.effectResolved(state, effect, piece, removed);
+				second.effectResolved(state, effect, piece, removed);
+			}
+
+			public void moved(GameState state, MovePiece move, int from, boolean swapped) {
+				first.moved(state, move, from, swapped);
+				second.moved(state, move, from, swapped);
+			}
+
+			public void noMove(GameState state, Player player) {
+				first.noMove(state, player);
+				second.noMove(state, player);
+			}
+
+			public void gameOver(GameState state, Player winner) {
+				first.gameOver(state, winner);
+				second.gameOver(state, winner);
+			}
+		};
+	}
+
+	/**
+	 * @param effect the pending effect this turn resolves, or null for a
+	 *               normal move
+	 */
+	default void turnStarted(GameState state, Player player, int stick, PendingEffect effect) {
+	}
+
+	/**
+	 * @param removed true when the piece left the game, false when it went
+	 *                back to rebirth
+	 */
+	default void effectResolved(GameState state, PendingEffect effect, Piece piece, boolean removed) {
+	}
+
+	/**
+	 * Called after the move and any cell effect it triggered.
+	 *
+	 * @param from    cell the piece started on
+	 * @param swapped true when the piece swapped places with an opponent
+	 */
+	default void moved(GameState state, MovePiece move, int from, boolean swapped) {
+	}
+
+	default void noMove(GameState state, Player player) {
+	}
+
+	/**
+	 * @param winner null when the game was stopped at the turn limit
+	 */
+	default void gameOver(GameState state, Player winner) {
+	}
+}
@@ -0,0 +1,146 @@
+package com.example.algo.game;
+
+import java.util.function.IntSupplier;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+import com.example.algo.util.GeneralUtil;
+import com.example.algo.util.StickThrow;
+
+/**
+ * One game, turn by turn: throws the sticks, lets the current player's
+ * strategy resolve a pending effect or move, and switches players. It prints
+ * nothing; a {@link GameListener} sees every step.
+ */
+public class GameSession {
+	private final GameState state;
+	private final IntSupplier sticks;
+	private final GameListener listener;
+	private int turns;
+	private boolean over;
+	private Player winner;
+
+	public GameSession(GameState state) {
+		this(state, StickThrow::throwSticks, GameListener.NONE);
+	}
+
+	public GameSession(GameState state, IntSupplier sticks, GameListener listener) {
+		this.state = state;
+		this.sticks = sticks;
+		this.listener = listener;
+	}
+
+	/**
+	 * Plays until the game is over or maxTurns turns have been played in this
+	 * session.
+	 *
+	 * @return the winner, or null when the turn limit was reached first
+	 */
+	public Player play(int maxTurns) {
+		while (!over && turns < maxTurns) {
+			playTurn();
+		}
+		if (!over) {
+			listener.gameOver(state, null);
+		}
+		return winner;
+	}
+
+	public void playTurn() {
+		if (over) {
+			throw new IllegalStateException("the game is over");
+		}
+		Player current = state.getCurrentPlayer();
+		int stick = sticks.getAsInt();
+		PendingEffect effect = PendingEffect.due(state);
+		listener.turnStarted(state, current, stick, effect);
+
+		if (effect != null) {
+			resolve(effect, current, stick);
+		} else {
+			move(current, stick);
+		}
+
+		turns++;
+		winner = winnerOf(state);
+		over = winner != null;
+		state.switchPlayer();
+		if (over) {
+			listener.gameOver(state, winner);
+		}
+	}
+
+	/**
+	 * The marked piece leaves the game when its owner picks it with a throw
+	 * the effect accepts, and goes back to rebirth otherwise.
+	 */
+	private void resolve(PendingEffect effect, Player current, int stick) {
+		Piece pending = effect.getPiece(state);
+		boolean removed = current.getStrategy().resolveEffect(state, current, stick, effect)
+				&& effect.removesWith(stick);
+		if (removed) {
+			state.removePiece(pending);
+		} else {
+			GeneralUtil.sendToReBirth(pending, state);
+		}
+		effect.clear(state);
+		listener.effectResolved(state, effect, pending, removed);
+	}
+
+	private void move(Player current, int stick) {
+		MovePiece move = current.getStrategy().chooseMove(state, current, stick);
+		if (move == null) {
+			listener.noMove(state, current);
+			return;
+		}
+		int from = move.getPiece().getPosition();
+		Piece target = state.getPieceAtIndex(move.getTargetIndex());
+		boolean swapped = target != null && !target.getOwner().equals(current);
+		move.execute(state);
+		listener.moved(state, move, from, swapped);
+	}
+
+	/**
+	 * A player wins once none of their pieces is left on the board: every
+	 * piece was removed by an effect or has borne off past cell 30.
+	 *
+	 * @return the winner, or null while the game goes on
+	 */
+	public static Player winnerOf(GameState state) {
+		for (Player player : state.players) {
+			boolean finished = true;
+			for (Piece piece : state.getPiecesFor(player)) {
+				if (piece.getPosition() <= 30) {
+					finished = false;
+					break;
+				}
+			}
+			if (finished) {
+				return player;
+			}
+		}
+		return null;
+	}
+
+	public GameState getState() {
+		return state;
+	}
+
+	public int getTurns() {
+		return turns;
+	}
+
+	public boolean isOver() {
+		return over;
+	}
+
+	/**
+	 * @return the winner, or null while the game goes on
+	 */
+	public Player getWinner() {
+		return winner;
+	}
+}
@@ -0,0 +1,169 @@
+package com.example.algo.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.example.algo.game.GameListener;
+
+/**
+ * Append-only binary record of finished games, kept in numbered segment
+ * files in one directory. Read it back with {@link GameJournalReader}.
+ *
+ * Every game is written in one piece when it ends: a header of two records
+ * (game id, number of turns, winner) and one record per turn, 8 bytes each.
+ * Game ids are given in the order games are written, so they grow through
+ * the journal. A game never spans two segments; a new segment is started
+ * once the current one would grow past the segment size. Games from many
+ * threads can be written at once.
+ *
+ * Segment layout (big-endian): magic, version, record size and segment
+ * number (ints), then the games. Turn record: kind, player index, stick,
+ * from, to, landed (where the piece ended up, after the Water or a swap),
+ * detail (swap flag or effect) and one spare byte. The file is not synced
+ * after every game, so a crash may lose the last games written.
+ */
+public class GameJournal implements Closeable {
+	/*
+	 * Definitions
+	 */
+	public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+	public static final int RECORD_BYTES = 8;
+
+	static final int MAGIC = 0x534E4A52; // "SNJR"
+	static final int VERSION = 1;
+	static final int SEGMENT_HEADER_BYTES = 16;
+	static final int GAME_HEADER_BYTES = 2 * RECORD_BYTES;
+
+	// record kinds
+	static final int GAME = 0;
+	public static final int MOVE = 1;
+	public static final int PASS = 2;
+	public static final int REMOVED = 3;
+	public static final int REBIRTH = 4;
+
+	static final int NO_WINNER = 0xFF;
+	// detail of a move record
+	public static final int SWAPPED = 1;
+
+	private final Path directory;
+	private final long segmentBytes;
+	private FileChannel segment;
+	private int segmentNumber;
+	private long segmentSize;
+	private long nextGameId;
+
+	private GameJournal(Path directory, long segmentBytes) {
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+	}
+
+	public static GameJournal open(Path directory) throws IOException {
+		return open(directory, DEFAULT_SEGMENT_BYTES);
+	}
+
+	/**
+	 * Opens the journal in the directory, creating it if needed, to append
+	 * after the games already there.
+	 *
+	 * @param segmentBytes size after which a new segment is started, at most
+	 *                     2 GB so segments can be mapped in one piece
+	 */
+	public static GameJournal open(Path directory, long segmentBytes) throws IOException {
+		if (segmentBytes < SEGMENT_HEADER_BYTES + GAME_HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("bad segment size: " + segmentBytes);
+		}
+		Files.createDirectories(directory);
+		GameJournal journal = new GameJournal(directory, segmentBytes);
+		List<Path> segments = GameJournalReader.segments(directory);
+		if (segments.isEmpty()) {
+			journal.startSegment(0);
+		} else {
+			journal.resume(segments);
+		}
+		return journal;
+	}
+
+	/**
+	 * A listener that records one game and writes it to this journal when
+	 * the game is over.
+	 */
+	public GameRecorder newGame() {
+		return new GameRecorder(this);
+	}
+
+	/**
+	 * A listener for {@link com.example.algo.game.GameSession} that records
+	 * the game, or does nothing when there is no journal.
+	 */
+	public static GameListener listener(GameJournal journal) {
+		return journal == null ? GameListener.NONE : journal.newGame();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		segment.close();
+	}
+
+	/**
+	 * Writes a recorded game, header and turns, and gives it its id.
+	 *
+	 * @return the game id
+	 */
+	synchronized long append(ByteBuffer game) throws IOException {
+		if (segmentSize + game.remaining() > segmentBytes && segmentSize > SEGMENT_HEADER_BYTES) {
+			segment.close();
+			startSegment(segmentNumber + 1);
+		}
+		long gameId = nextGameId++;
+		game.putLong(game.position() + RECORD_BYTES, gameId);
+		segmentSize += game.remaining();
+		while (game.hasRemaining()) {
+			segment.write(game);
+		}
+		return gameId;
+	}
+
+	/*
+	 * helpers
+	 */
+	private void startSegment(int number) throws IOException {
+		segmentNumber = number;
+		segment = FileChannel.open(GameJournalReader.segmentPath(directory, number), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.WRITE);
+		ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+		header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(number).flip();
+		while (header.hasRemaining()) {
+			segment.write(header);
+		}
+		segmentSize = SEGMENT_HEADER_BYTES;
+	}
+
+	/**
+	 * Continues the last segment after its last complete game, cutting off
+	 * a game a crash left half-written, and numbers games on from the last
+	 * id in the journal.
+	 */
+	private void resume(List<Path> segments) throws IOException {
+		nextGameId = 0;
+		for (int s = segments.size() - 1; s >= 0; s--) {
+			GameJournalReader.Segment scanned = GameJournalReader.Segment.scan(segments.get(s));
+			if (s == segments.size() - 1) {
+				segmentNumber = scanned.number;
+				segmentSize = scanned.end;
+			}
+			if (scanned.lastGameId >= 0) {
+				nextGameId = scanned.lastGameId + 1;
+				break;
+			}
+		}
+		segment = FileChannel.open(segments.get(segments.size() - 1), StandardOpenOption.WRITE);
+		segment.truncate(segmentSize);
+		segment.position(segmentSize);
+	}
+}
@@ -0,0 +1,252 @@
+package com.example.algo.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.util.GeneralUtil;
+
+/**
+ * Reads a {@link GameJournal}: maps every segment and replays any game to
+ * any turn.
+ *
+ * Opening walks the game headers once to find where each game starts;
+ * nothing else is read until a game is replayed. Replaying plays the
+ * recorded moves and effect outcomes through the game's own rules from the
+ * standard setup ({@link GameReplay}), and checks every piece lands where
+ * the journal says.
+ * Games written after the reader was opened are not seen.
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.journal.GameJournalReader
+ * -Dexec.args="journal 42 100"
+ */
+public class GameJournalReader {
+	private static final String SUFFIX = ".journal";
+
+	private final List<MappedByteBuffer> segments;
+	// (segment << 32 | offset) of every game header, in id order
+	private final long[] locations;
+	private final int count;
+
+	private GameJournalReader(List<MappedByteBuffer> segments, long[] locations, int count) {
+		this.segments = segments;
+		this.locations = locations;
+		this.count = count;
+	}
+
+	public static GameJournalReader open(Path directory) throws IOException {
+		List<MappedByteBuffer> mapped = new ArrayList<>();
+		long[] locations = new long[1024];
+		int count = 0;
+		for (Path file : segments(directory)) {
+			Segment segment = Segment.scan(file);
+			for (int g = 0; g < segment.gameCount; g++) {
+				if (count == locations.length) {
+					locations = Arrays.copyOf(locations, count * 2);
+				}
+				locations[count++] = (long) mapped.size() << 32 | segment.offsets[g];
+			}
+			mapped.add(segment.buffer);
+		}
+		return new GameJournalReader(mapped, locations, count);
+	}
+
+	public int getGameCount() {
+		return count;
+	}
+
+	/**
+	 * Id of the n-th game in the journal, from 0.
+	 */
+	public long getGameId(int n) {
+		return gameIdAt(locations[n]);
+	}
+
+	/**
+	 * Number of turns the game was played for.
+	 */
+	public int getTurns(long gameId) {
+		long location = locate(gameId);
+		return segment(location).getInt(offset(location) + 4);
+	}
+
+	/**
+	 * @return index of the winning player in the game's players, or -1 when
+	 *         the game was stopped at the turn limit
+	 */
+	public int getWinner(long gameId) {
+		long location = locate(gameId);
+		int winner = segment(location).get(offset(location) + 1) & 0xFF;
+		return winner == GameJournal.NO_WINNER ? -1 : winner;
+	}
+
+	/**
+	 * The game's final position.
+	 */
+	public GameState replay(long gameId) {
+		return replay(gameId, getTurns(gameId));
+	}
+
+	/**
+	 * The position after the given number of turns, with the player to move
+	 * next, between two players without strategies.
+	 */
+	public GameState replay(long gameId, int turns) {
+		return replay(gameId, turns, new Player[] { new Player("Player 1", null), new Player("Player 2", null) });
+	}
+
+	/**
+	 * The position after the given number of turns, with the player to move
+	 * next, between the given players in the order the game was set up.
+	 */
+	public GameState replay(long gameId, int turns, Player[] players) {
+		GameReplay replay = replayer(gameId, players);
+		if (turns < 0 || turns > replay.getTurns()) {
+			throw new IllegalArgumentException("game " + gameId + " has no turn " + turns);
+		}
+		while (replay.getTurn() < turns) {
+			replay.next();
+		}
+		return replay.getState();
+	}
+
+	/**
+	 * The game from its first turn, to be played forward turn by turn.
+	 */
+	public GameReplay replayer(long gameId, Player[] players) {
+		long location = locate(gameId);
+		return new GameReplay(gameId, segment(location), offset(location), players);
+	}
+
+	/**
+	 * Prints the number of games, or the board of one game after a number
+	 * of turns (the final position by default).
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("usage: GameJournalReader DIR [GAME [TURN]]");
+			return;
+		}
+		GameJournalReader reader = open(Paths.get(args[0]));
+		if (args.length == 1) {
+			System.out.println(reader.getGameCount() + " games");
+			return;
+		}
+		long gameId = Long.parseLong(args[1]);
+		int turns = args.length > 2 ? Integer.parseInt(args[2]) : reader.getTurns(gameId);
+		GameState state = reader.replay(gameId, turns);
+		System.out.println("Game " + gameId + " after " + turns + " of " + reader.getTurns(gameId) + " turns, "
+				+ state.getCurrentPlayer().getName() + " to move:");
+		GeneralUtil.printBoard(state);
+	}
+
+	/*
+	 * helpers
+	 */
+	private long locate(long gameId) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long id = gameIdAt(locations[mid]);
+			if (id < gameId) {
+				low = mid + 1;
+			} else if (id > gameId) {
+				high = mid - 1;
+			} else {
+				return locations[mid];
+			}
+		}
+		throw new IllegalArgumentException("no game " + gameId + " in the journal");
+	}
+
+	private long gameIdAt(long location) {
+		return segment(location).getLong(offset(location) + GameJournal.RECORD_BYTES);
+	}
+
+	private MappedByteBuffer segment(long location) {
+		return segments.get((int) (location >>> 32));
+	}
+
+	private static int offset(long location) {
+		return (int) location;
+	}
+
+	/**
+	 * The segment files of the journal in the directory, in order.
+	 */
+	static List<Path> segments(Path directory) throws IOException {
+		List<Path> files = new ArrayList<>();
+		if (!Files.isDirectory(directory)) {
+			return files;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+			for (Path file : stream) {
+				files.add(file);
+			}
+		}
+		// the names are zero-padded numbers
+		Collections.sort(files);
+		return files;
+	}
+
+	static Path segmentPath(Path directory, int number) {
+		return directory.resolve(String.format("%08d%s", number, SUFFIX));
+	}
+
+	/**
+	 * A mapped segment and where its complete games start.
+	 */
+	static final class Segment {
+		MappedByteBuffer buffer;
+		int number;
+		int[] offsets = new int[64];
+		int gameCount;
+		// end of the last complete game
+		int end;
+		long lastGameId = -1;
+
+		static Segment scan(Path file) throws IOException {
+			Segment segment = new Segment();
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				segment.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			MappedByteBuffer buffer = segment.buffer;
+			if (buffer.limit() < GameJournal.SEGMENT_HEADER_BYTES || buffer.getInt(0) != GameJournal.MAGIC
+					|| buffer.getInt(4) != GameJournal.VERSION || buffer.getInt(8) != GameJournal.RECORD_BYTES) {
+				throw new IOException("not a game journal segment: " + file);
+			}
+			segment.number = buffer.getInt(12);
+
+			int offset = GameJournal.SEGMENT_HEADER_BYTES;
+			while (offset + GameJournal.GAME_HEADER_BYTES <= buffer.limit()
+					&& buffer.get(offset) == GameJournal.GAME) {
+				int turns = buffer.getInt(offset + 4);
+				long end = offset + GameJournal.GAME_HEADER_BYTES + (long) turns * GameJournal.RECORD_BYTES;
+				if (turns < 0 || end > buffer.limit()) {
+					// half-written by a crash
+					break;
+				}
+				if (segment.gameCount == segment.offsets.length) {
+					segment.offsets = Arrays.copyOf(segment.offsets, segment.gameCount * 2);
+				}
+				segment.offsets[segment.gameCount++] = offset;
+				segment.lastGameId = buffer.getLong(offset + GameJournal.RECORD_BYTES);
+				offset = (int) end;
+			}
+			segment.end = offset;
+			return segment;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.algo.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.example.algo.game.GameListener;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+
+/**
+ * Records the turns of one game in memory and writes them to its
+ * {@link GameJournal} when the game is over. One recorder per game.
+ */
+public class GameRecorder implements GameListener {
+	private static final int INITIAL_TURNS = 512;
+
+	private final GameJournal journal;
+	private byte[] records = new byte[GameJournal.GAME_HEADER_BYTES + INITIAL_TURNS * GameJournal.RECORD_BYTES];
+	private int size = GameJournal.GAME_HEADER_BYTES;
+	private int turns;
+	private long gameId = -1;
+	// the turn in progress
+	private int player;
+	private int stick;
+	private int effectFrom;
+
+	GameRecorder(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * @return the id the journal gave the game, or -1 until it is written
+	 */
+	public long getGameId() {
+		return gameId;
+	}
+
+	public void turnStarted(GameState state, Player player, int stick, PendingEffect effect) {
+		this.player = state.currentPlayerIndex;
+		this.stick = stick;
+		this.effectFrom = effect == null ? 0 : effect.getPiece(state).getPosition();
+	}
+
+	public void effectResolved(GameState state, PendingEffect effect, Piece piece, boolean removed) {
+		add(removed ? GameJournal.REMOVED : GameJournal.REBIRTH, effectFrom, effectFrom, piece.getPosition(),
+				effect.ordinal());
+	}
+
+	public void moved(GameState state, MovePiece move, int from, boolean swapped) {
+		add(GameJournal.MOVE, from, move.getTargetIndex(), move.getPiece().getPosition(),
+				swapped ? GameJournal.SWAPPED : 0);
+	}
+
+	public void noMove(GameState state, Player player) {
+		add(GameJournal.PASS, 0, 0, 0, 0);
+	}
+
+	public void gameOver(GameState state, Player winner) {
+		int winnerIndex = GameJournal.NO_WINNER;
+		for (int i = 0; i < state.players.length; i++) {
+			if (state.players[i] == winner) {
+				winnerIndex = i;
+			}
+		}
+		ByteBuffer game = ByteBuffer.wrap(records, 0, size);
+		game.put(0, (byte) GameJournal.GAME).put(1, (byte) winnerIndex).putInt(4, turns);
+		try {
+			gameId = journal.append(game);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void add(int kind, int from, int to, int landed, int detail) {
+		if (size + GameJournal.RECORD_BYTES > records.length) {
+			records = Arrays.copyOf(records, records.length * 2);
+		}
+		records[size] = (byte) kind;
+		records[size + 1] = (byte) player;
+		records[size + 2] = (byte) stick;
+		records[size + 3] = (byte) from;
+		records[size + 4] = (byte) to;
+		records[size + 5] = (byte) landed;
+		records[size + 6] = (byte) detail;
+		records[size + 7] = 0;
+		size += GameJournal.RECORD_BYTES;
+		turns++;
+	}
+}
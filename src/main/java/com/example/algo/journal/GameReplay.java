@@ -0,0 +1,182 @@
+package com.example.algo.journal;
+
+import java.nio.ByteBuffer;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+import com.example.algo.util.GeneralUtil;
+
+/**
+ * A journaled game played forward one turn at a time from the standard
+ * setup. The accessors describe the turn {@link #next()} plays, so the
+ * position before it can be looked at first.
+ */
+public class GameReplay {
+	private final long gameId;
+	private final ByteBuffer segment;
+	private final int firstRecord;
+	private final int turns;
+	private final GameState state;
+	private int turn;
+
+	GameReplay(long gameId, ByteBuffer segment, int header, Player[] players) {
+		this.gameId = gameId;
+		this.segment = segment;
+		this.firstRecord = header + GameJournal.GAME_HEADER_BYTES;
+		this.turns = segment.getInt(header + 4);
+		this.state = new GameInitializer().createNewGame(players);
+	}
+
+	public long getGameId() {
+		return gameId;
+	}
+
+	/**
+	 * The position before the next turn; it changes as the game is played.
+	 */
+	public GameState getState() {
+		return state;
+	}
+
+	/**
+	 * Turns played so far.
+	 */
+	public int getTurn() {
+		return turn;
+	}
+
+	public int getTurns() {
+		return turns;
+	}
+
+	public boolean hasNext() {
+		return turn < turns;
+	}
+
+	/**
+	 * GameJournal.MOVE, PASS, REMOVED or REBIRTH.
+	 */
+	public int kind() {
+		return field(0);
+	}
+
+	public int player() {
+		return field(1);
+	}
+
+	public int stick() {
+		return field(2);
+	}
+
+	/**
+	 * Cell the moved piece started on, or the cell of the piece an effect
+	 * resolves.
+	 */
+	public int from() {
+		return field(3);
+	}
+
+	/**
+	 * Cell the move went to, before the Water sent the piece back.
+	 */
+	public int to() {
+		return field(4);
+	}
+
+	/**
+	 * Cell the piece ended the turn on.
+	 */
+	public int landed() {
+		return field(5);
+	}
+
+	/**
+	 * GameJournal.SWAPPED for a move that swapped pieces, the PendingEffect
+	 * ordinal for an effect.
+	 */
+	public int detail() {
+		return field(6);
+	}
+
+	/**
+	 * Plays the next turn.
+	 *
+	 * @throws IllegalStateException when the turn does not fit the position
+	 */
+	public void next() {
+		if (!hasNext()) {
+			throw new IllegalStateException("game " + gameId + " has only " + turns + " turns");
+		}
+		int kind = kind();
+		int player = player();
+		int from = from();
+		int landed = landed();
+		if (player != state.currentPlayerIndex) {
+			throw mismatch("player " + player + " moved out of turn");
+		}
+		switch (kind) {
+			case GameJournal.MOVE: {
+				Piece piece = pieceAt(state.players[player], from);
+				if (piece == null) {
+					throw mismatch("no piece on " + from);
+				}
+				new MovePiece(piece, to()).execute(state);
+				if (piece.getPosition() != landed) {
+					throw mismatch("piece landed on " + piece.getPosition() + ", not " + landed);
+				}
+				break;
+			}
+			case GameJournal.REMOVED:
+			case GameJournal.REBIRTH: {
+				PendingEffect effect = PendingEffect.due(state);
+				if (effect == null || effect.ordinal() != detail()) {
+					throw mismatch("no pending " + PendingEffect.values()[detail()]);
+				}
+				Piece pending = effect.getPiece(state);
+				if (kind == GameJournal.REMOVED) {
+					state.removePiece(pending);
+				} else {
+					GeneralUtil.sendToReBirth(pending, state);
+				}
+				effect.clear(state);
+				if (pending.getPosition() != landed) {
+					throw mismatch("piece went to " + pending.getPosition() + ", not " + landed);
+				}
+				break;
+			}
+			case GameJournal.PASS:
+				break;
+			default:
+				throw mismatch("unknown record kind " + kind);
+		}
+		state.switchPlayer();
+		turn++;
+	}
+
+	/**
+	 * The player's piece on the position, for a move from it.
+	 */
+	public Piece pieceAt(Player player, int position) {
+		for (Piece piece : state.getPiecesFor(player)) {
+			if (piece.getPosition() == position) {
+				return piece;
+			}
+		}
+		return null;
+	}
+
+	private int field(int offset) {
+		if (!hasNext()) {
+			throw new IllegalStateException("game " + gameId + " is over");
+		}
+		return segment.get(firstRecord + turn * GameJournal.RECORD_BYTES + offset);
+	}
+
+	private IllegalStateException mismatch(String problem) {
+		return new IllegalStateException("game " + gameId + ", turn " + turn + ": " + problem);
+	}
+}
@@ -1,5 +1,8 @@
 package com.example.algo.rules;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.example.algo.move.*;
 import com.example.algo.player.Player;
 import com.example.algo.state.*;
@@ -10,8 +13,14 @@ import com.example.algo.strategy.MoveStrategy;
  */
 public class RuleEngine {
   public static boolean isLegal(MovePiece move, GameState state) {
-    int piece_current_index = move.getPiece().getPosition();
-    int piece_target_index = move.getTargetIndex();
+    return isLegal(state, move.getPiece().getOwner(), move.getPiece().getPosition(), move.getTargetIndex());
+  }
+
+  /**
+   * Same rules as isLegal(MovePiece, GameState) for a piece of the owner
+   * moving between two positions, without building a MovePiece.
+   */
+  public static boolean isLegal(GameState state, Player owner, int piece_current_index, int piece_target_index) {
 
     // Rule 1: Cannot move to same cell
     if (piece_current_index == piece_target_index) {
@@ -36,7 +45,7 @@ public class RuleEngine {
       Piece target = state.getPieceAtIndex(piece_target_index);
       if (target != null) {
         // Cannot swap with own piece
-        if (target.getOwner().equals(move.getPiece().getOwner())) {
+        if (target.getOwner().equals(owner)) {
           return false;
         }
         // Can swap with opponent piece
@@ -48,6 +57,24 @@ public class RuleEngine {
     return true;
   }
 
+  /**
+   * Every legal move of the player with the stick, one per piece still in
+   * play, in piece order.
+   */
+  public static List<MovePiece> legalMoves(GameState state, Player player, int stick) {
+    List<MovePiece> moves = new ArrayList<>();
+    for (Piece piece : state.getPiecesFor(player)) {
+      if (piece.getPosition() > 30) {
+        continue;
+      }
+      int target = piece.getPosition() + stick;
+      if (isLegal(state, player, piece.getPosition(), target)) {
+        moves.add(new MovePiece(piece, target));
+      }
+    }
+    return moves;
+  }
+
   public MovePiece resolveMove(Player player,
       MoveStrategy strategy,
       GameState state,
@@ -0,0 +1,206 @@
+package com.example.algo.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.example.algo.game.GameListener;
+import com.example.algo.game.GameSession;
+import com.example.algo.journal.GameJournal;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+import com.example.algo.strategy.MoveStrategy;
+import com.example.algo.tournament.Tournament;
+import com.example.algo.util.RandomProvider;
+import com.example.algo.util.StickThrow;
+
+/**
+ * One client connection: reads commands and plays the games the client
+ * asks for, on its own session thread. The protocol is described on
+ * {@link GameServer}.
+ */
+class ClientSession implements Runnable {
+	static final String CLIENT = "client";
+	static final String SERVER = "server";
+
+	private final GameServer server;
+	private final Socket socket;
+	private BufferedReader in;
+	private Writer out;
+
+	ClientSession(GameServer server, Socket socket) {
+		this.server = server;
+		this.socket = socket;
+	}
+
+	public void run() {
+		try (Socket connection = socket) {
+			in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+			out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII));
+			send("HELLO senet " + GameServer.PROTOCOL_VERSION);
+			out.flush();
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] words = line.trim().split("\\s+");
+				switch (words[0].toUpperCase()) {
+					case "":
+						break;
+					case "NEW":
+						play(words);
+						break;
+					case "QUIT":
+						send("BYE");
+						out.flush();
+						return;
+					default:
+						send("ERR expected NEW or QUIT");
+						break;
+				}
+				out.flush();
+			}
+		} catch (IOException | UncheckedIOException e) {
+			// the client went away or the server is closing
+		} catch (IllegalStateException e) {
+			// a server move cancelled by close() ends the game, anything else is a bug
+			if (!server.isClosed()) {
+				throw e;
+			}
+		} finally {
+			server.sessionEnded(socket);
+		}
+	}
+
+	/**
+	 * NEW [STRATEGY [SEED]]: a game against the strategy (bot by default),
+	 * the client moving first.
+	 */
+	private void play(String[] words) {
+		String spec = words.length > 1 ? words[1] : "bot";
+		MoveStrategy opponent;
+		RandomProvider random;
+		try {
+			opponent = server.computePool().strategy(spec);
+			random = words.length > 2 ? new RandomProvider(Long.parseLong(words[2])) : new RandomProvider();
+		} catch (IllegalArgumentException e) {
+			send("ERR " + e.getMessage());
+			return;
+		}
+
+		Player[] players = { new Player(CLIENT, new RemoteStrategy()), new Player(SERVER, opponent) };
+		GameState state = new GameInitializer().createNewGame(players);
+		send("GAME " + spec);
+		GameListener listener = GameListener.both(new ProtocolListener(), GameJournal.listener(server.getJournal()));
+		new GameSession(state, () -> StickThrow.throwSticks(random), listener).play(Tournament.DEFAULT_MAX_TURNS);
+		server.gameFinished();
+	}
+
+	private void send(String line) {
+		try {
+			out.write(line);
+			out.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String receive() {
+		try {
+			out.flush();
+			String line = in.readLine();
+			if (line == null) {
+				throw new EOFException("client disconnected");
+			}
+			return line.trim();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * The client's moves: sends the board and the cells it can move from,
+	 * then waits for MOVE FROM or PASS.
+	 */
+	private class RemoteStrategy implements MoveStrategy {
+		public MovePiece chooseMove(GameState state, Player player, int stick) {
+			List<MovePiece> moves = RuleEngine.legalMoves(state, player, stick);
+			if (moves.isEmpty()) {
+				return null;
+			}
+			send(board(state, player));
+			StringBuilder prompt = new StringBuilder("MOVE ").append(stick);
+			for (MovePiece move : moves) {
+				prompt.append(' ').append(move.getPiece().getPosition());
+			}
+
+			while (true) {
+				send(prompt.toString());
+				String[] words = receive().split("\\s+");
+				if (words[0].equalsIgnoreCase("PASS")) {
+					return null;
+				}
+				if (words[0].equalsIgnoreCase("MOVE") && words.length == 2) {
+					for (MovePiece move : moves) {
+						if (words[1].equals(Integer.toString(move.getPiece().getPosition()))) {
+							return move;
+						}
+					}
+					send("ERR no legal move from " + words[1]);
+				} else {
+					send("ERR expected MOVE FROM or PASS");
+				}
+			}
+		}
+
+		/**
+		 * BOARD followed by one character per cell: C for the client's
+		 * pieces, S for the server's, . for an empty cell.
+		 */
+		private String board(GameState state, Player client) {
+			StringBuilder line = new StringBuilder("BOARD ");
+			for (int index = 0; index < state.board.length; index++) {
+				Piece piece = state.getPieceAtIndex(index);
+				line.append(piece == null ? '.' : (piece.getOwner().equals(client) ? 'C' : 'S'));
+			}
+			return line.toString();
+		}
+	}
+
+	/**
+	 * Tells the client everything that happens in its game.
+	 */
+	private class ProtocolListener implements GameListener {
+		public void turnStarted(GameState state, Player player, int stick, PendingEffect effect) {
+			send("THROW " + player.getName() + " " + stick);
+		}
+
+		public void effectResolved(GameState state, PendingEffect effect, Piece piece, boolean removed) {
+			send("EFFECT " + piece.getOwner().getName() + " " + effect.name() + (removed ? " REMOVED" : " REBIRTH"));
+		}
+
+		public void moved(GameState state, MovePiece move, int from, boolean swapped) {
+			send("MOVED " + move.getPiece().getOwner().getName() + " " + from + " " + move.getTargetIndex()
+					+ (swapped ? " SWAP" : ""));
+		}
+
+		public void noMove(GameState state, Player player) {
+			send("PASSED " + player.getName());
+		}
+
+		public void gameOver(GameState state, Player winner) {
+			send("OVER " + (winner == null ? "NONE" : winner.getName()));
+		}
+	}
+}
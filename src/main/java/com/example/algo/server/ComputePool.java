@@ -0,0 +1,102 @@
+package com.example.algo.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.strategy.MoveStrategy;
+import com.example.algo.tournament.Tournament;
+import com.example.algo.util.RandomProvider;
+
+/**
+ * A fixed number of platform threads that make the server's moves for every
+ * session, so searches use at most that many cores however many games are
+ * open and the session threads stay free for I/O.
+ *
+ * Each compute thread builds its own instance of every strategy it is asked
+ * for and reuses it for all sessions, like a tournament worker: strategies
+ * need not be thread-safe, and the bots' transposition tables cost memory
+ * per thread, not per session.
+ */
+final class ComputePool {
+	private final ExecutorService executor;
+	private final ThreadLocal<Map<String, MoveStrategy>> strategies = ThreadLocal.withInitial(HashMap::new);
+	private final ThreadLocal<RandomProvider> random = ThreadLocal.withInitial(RandomProvider::new);
+
+	ComputePool(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("compute threads must be at least 1: " + threads);
+		}
+		AtomicInteger next = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "senet-compute-" + next.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * A strategy that makes its moves and resolves its effects on the pool,
+	 * blocking the calling session until the decision is made.
+	 *
+	 * @param spec a strategy name as the tournament runner takes it
+	 * @throws IllegalArgumentException for an unknown strategy
+	 */
+	MoveStrategy strategy(String spec) {
+		Function<RandomProvider, MoveStrategy> factory = Tournament.strategy(spec);
+		return new MoveStrategy() {
+			public MovePiece chooseMove(GameState state, Player player, int stick) {
+				return decide(spec, factory, strategy -> strategy.chooseMove(state, player, stick));
+			}
+
+			@Override
+			public boolean resolveEffect(GameState state, Player player, int stick, PendingEffect effect) {
+				return decide(spec, factory, strategy -> strategy.resolveEffect(state, player, stick, effect));
+			}
+		};
+	}
+
+	/**
+	 * Stops the compute threads. Decisions still queued are cancelled, so the
+	 * sessions waiting for them fail instead of waiting forever.
+	 */
+	void shutdown() {
+		for (Runnable queued : executor.shutdownNow()) {
+			((Future<?>) queued).cancel(false);
+		}
+	}
+
+	private <T> T decide(String spec, Function<RandomProvider, MoveStrategy> factory,
+			Function<MoveStrategy, T> decision) {
+		// the session waits for the decision, so the state does not change meanwhile
+		Future<T> result;
+		try {
+			result = executor.submit(() -> decision.apply(strategies.get()
+					.computeIfAbsent(spec, name -> factory.apply(random.get().split()))));
+		} catch (RejectedExecutionException e) {
+			throw new IllegalStateException("the compute pool is shut down", e);
+		}
+		try {
+			return result.get();
+		} catch (CancellationException e) {
+			throw new IllegalStateException("the compute pool is shut down", e);
+		} catch (InterruptedException e) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("move interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("move failed", e.getCause());
+		}
+	}
+}
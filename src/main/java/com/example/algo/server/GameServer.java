@@ -0,0 +1,206 @@
+package com.example.algo.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.algo.journal.GameJournal;
+
+/**
+ * Hosts Senet games for many clients at once over TCP on localhost.
+ *
+ * Every connection gets its own session thread, a virtual thread where the
+ * JVM has them, that runs the game loop and blocks on the client's input.
+ * The server's own moves are made on a {@link ComputePool} of a fixed number
+ * of threads, so however many games are open the searches never take more
+ * cores than that and cannot starve the sessions.
+ *
+ * The protocol is one command per line of ASCII text:
+ *
+ * <pre>
+ * server: HELLO senet 1
+ * client: NEW [STRATEGY [SEED]]   a game against the strategy (random, bot, bot:DEPTH, ...),
+ *                                 the client moves first; SEED fixes the sticks
+ * server: GAME STRATEGY
+ * server: THROW PLAYER STICK       every turn; PLAYER is client or server
+ * server: BOARD CELLS              the client's turn: C, S or . for each cell
+ * server: MOVE STICK FROM...       the cells the client can move from
+ * client: MOVE FROM | PASS
+ * server: ERR REASON               followed by the MOVE prompt again
+ * server: MOVED PLAYER FROM TO [SWAP]
+ * server: PASSED PLAYER
+ * server: EFFECT PLAYER EFFECT REMOVED|REBIRTH
+ * server: OVER PLAYER|NONE         NONE at the turn limit
+ * client: QUIT
+ * server: BYE
+ * </pre>
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.server.GameServer
+ * -Dexec.args="--port 7878 --compute-threads 4"
+ */
+public class GameServer implements Closeable {
+	public static final int DEFAULT_PORT = 7878;
+	public static final int PROTOCOL_VERSION = 1;
+
+	private static final int BACKLOG = 1024;
+
+	private final ServerSocket serverSocket;
+	private final ComputePool computePool;
+	private final ThreadFactory sessionThreads = SessionThreads.factory("senet-session-");
+	private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+	private final LongAdder gamesPlayed = new LongAdder();
+	private volatile GameJournal journal;
+	private Thread acceptor;
+	private volatile boolean closed;
+
+	/**
+	 * Binds the port on the loopback address.
+	 *
+	 * @param port           0 for any free port
+	 * @param computeThreads threads that make the server's moves
+	 */
+	public GameServer(int port, int computeThreads) throws IOException {
+		this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+		this.computePool = new ComputePool(computeThreads);
+	}
+
+	/**
+	 * Journal every game played from now on is written to, or null (the
+	 * default) to keep no record.
+	 */
+	public void setJournal(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	public GameJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Starts accepting clients on a background thread.
+	 */
+	public synchronized void start() {
+		if (acceptor != null) {
+			throw new IllegalStateException("the server is already started");
+		}
+		acceptor = new Thread(this::acceptClients, "senet-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Number of clients connected right now.
+	 */
+	public int getSessionCount() {
+		return clients.size();
+	}
+
+	public long getGamesPlayed() {
+		return gamesPlayed.sum();
+	}
+
+	/**
+	 * Stops accepting clients and disconnects the connected ones.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		serverSocket.close();
+		for (Socket client : clients) {
+			client.close();
+		}
+		computePool.shutdown();
+	}
+
+	/**
+	 * Waits until the server is closed.
+	 */
+	public void awaitClose() throws InterruptedException {
+		Thread thread;
+		synchronized (this) {
+			thread = acceptor;
+		}
+		if (thread != null) {
+			thread.join();
+		}
+	}
+
+	private void acceptClients() {
+		while (!closed) {
+			try {
+				Socket client = serverSocket.accept();
+				client.setTcpNoDelay(true);
+				clients.add(client);
+				if (closed) {
+					client.close();
+					return;
+				}
+				sessionThreads.newThread(new ClientSession(this, client)).start();
+			} catch (IOException e) {
+				if (!closed) {
+					System.err.println("accept failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/*
+	 * session callbacks
+	 */
+	ComputePool computePool() {
+		return computePool;
+	}
+
+	boolean isClosed() {
+		return closed;
+	}
+
+	void gameFinished() {
+		gamesPlayed.increment();
+	}
+
+	void sessionEnded(Socket client) {
+		clients.remove(client);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = DEFAULT_PORT;
+		int computeThreads = Runtime.getRuntime().availableProcessors();
+		String journalDirectory = null;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--compute-threads":
+					computeThreads = Integer.parseInt(args[++i]);
+					break;
+				case "--journal":
+					journalDirectory = args[++i];
+					break;
+				default:
+					System.out.println("usage: GameServer [--port N] [--compute-threads N] [--journal DIR]");
+					return;
+			}
+		}
+		GameServer server = new GameServer(port, computeThreads);
+		if (journalDirectory != null) {
+			server.setJournal(GameJournal.open(Paths.get(journalDirectory)));
+		}
+		server.start();
+		System.out.println("Senet server on localhost:" + server.getPort() + ", " + computeThreads
+				+ " compute threads, " + (SessionThreads.isVirtual() ? "virtual" : "platform") + " session threads");
+		server.awaitClose();
+	}
+}
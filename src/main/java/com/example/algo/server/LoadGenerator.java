@@ -0,0 +1,199 @@
+package com.example.algo.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import com.example.algo.util.RandomProvider;
+
+/**
+ * Capacity test for a {@link GameServer}: opens many connections at once,
+ * each on its own session thread, and plays games on all of them with
+ * random moves, timing every server response.
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.server.LoadGenerator
+ * -Dexec.args="--clients 1000 --games 5 --opponent bot:1"
+ */
+public class LoadGenerator {
+	private final String host;
+	private final int port;
+	private int clients = 100;
+	private int games = 5;
+	private String opponent = "bot:1";
+	private long seed = new RandomProvider().nextLong();
+
+	public LoadGenerator(String host, int port) {
+		this.host = host;
+		this.port = port;
+	}
+
+	public void setClients(int clients) {
+		if (clients < 1) {
+			throw new IllegalArgumentException("clients must be at least 1: " + clients);
+		}
+		this.clients = clients;
+	}
+
+	/**
+	 * Games every client plays one after another.
+	 */
+	public void setGames(int games) {
+		if (games < 1) {
+			throw new IllegalArgumentException("games must be at least 1: " + games);
+		}
+		this.games = games;
+	}
+
+	/**
+	 * Strategy the server plays against the clients, bot:1 by default.
+	 */
+	public void setOpponent(String opponent) {
+		this.opponent = opponent;
+	}
+
+	/**
+	 * Seed of the clients' moves and of the sticks of every game.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Connects all clients, waits until they are done and merges their
+	 * reports.
+	 */
+	public LoadReport run() throws InterruptedException {
+		ThreadFactory threads = SessionThreads.factory("senet-load-");
+		LoadReport[] reports = new LoadReport[clients];
+		List<Thread> workers = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int c = 0; c < clients; c++) {
+			int client = c;
+			reports[c] = new LoadReport(1);
+			Thread worker = threads.newThread(() -> play(client, reports[client]));
+			workers.add(worker);
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		LoadReport total = new LoadReport(clients);
+		total.elapsedNanos = System.nanoTime() - start;
+		for (LoadReport report : reports) {
+			total.merge(report);
+		}
+		return total;
+	}
+
+	private void play(int client, LoadReport report) {
+		RandomProvider random = RandomProvider.stream(seed, client);
+		try (Socket socket = new Socket(host, port)) {
+			socket.setTcpNoDelay(true);
+			BufferedReader in = new BufferedReader(
+					new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+			expect(in, "HELLO");
+			for (int game = 0; game < games; game++) {
+				send(out, "NEW " + opponent + " " + random.nextLong());
+				long sent = System.nanoTime();
+				String line;
+				while (!(line = receive(in)).startsWith("OVER")) {
+					if (line.startsWith("ERR")) {
+						throw new IOException(line);
+					}
+					if (line.startsWith("MOVE ")) {
+						report.latency.record(System.nanoTime() - sent);
+						String[] words = line.split(" ");
+						// words: MOVE STICK FROM...
+						send(out, "MOVE " + words[2 + random.nextInt(words.length - 2)]);
+						report.moves++;
+						sent = System.nanoTime();
+					}
+				}
+				report.latency.record(System.nanoTime() - sent);
+				report.games++;
+			}
+			send(out, "QUIT");
+			expect(in, "BYE");
+		} catch (IOException e) {
+			report.failedClients++;
+		}
+	}
+
+	private static void send(Writer out, String line) throws IOException {
+		out.write(line);
+		out.write('\n');
+		out.flush();
+	}
+
+	private static String receive(BufferedReader in) throws IOException {
+		String line = in.readLine();
+		if (line == null) {
+			throw new EOFException("server disconnected");
+		}
+		return line;
+	}
+
+	private static void expect(BufferedReader in, String prefix) throws IOException {
+		String line = receive(in);
+		if (!line.startsWith(prefix)) {
+			throw new IOException("expected " + prefix + ", got " + line);
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		String host = "localhost";
+		int port = GameServer.DEFAULT_PORT;
+		int clients = 100;
+		int games = 5;
+		String opponent = "bot:1";
+		Long seed = null;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--host":
+					host = args[++i];
+					break;
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--clients":
+					clients = Integer.parseInt(args[++i]);
+					break;
+				case "--games":
+					games = Integer.parseInt(args[++i]);
+					break;
+				case "--opponent":
+					opponent = args[++i];
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				default:
+					System.out.println("usage: LoadGenerator [--host HOST] [--port N] [--clients N] [--games N]"
+							+ " [--opponent STRATEGY] [--seed N]");
+					return;
+			}
+		}
+
+		LoadGenerator generator = new LoadGenerator(host, port);
+		generator.setClients(clients);
+		generator.setGames(games);
+		generator.setOpponent(opponent);
+		if (seed != null) {
+			generator.setSeed(seed);
+		}
+		System.out.println("Playing " + games + " games on each of " + clients + " connections to " + host + ":"
+				+ port + " against " + opponent);
+		System.out.print(generator.run());
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.algo.server;
+
+import java.util.Locale;
+
+import com.example.algo.tournament.LatencyHistogram;
+
+/**
+ * Results of a {@link LoadGenerator} run. Clients fill one report each,
+ * which are then merged.
+ */
+public class LoadReport {
+	private final int clients;
+	int games;
+	int failedClients;
+	long moves;
+	final LatencyHistogram latency = new LatencyHistogram();
+	long elapsedNanos;
+
+	LoadReport(int clients) {
+		this.clients = clients;
+	}
+
+	void merge(LoadReport other) {
+		games += other.games;
+		failedClients += other.failedClients;
+		moves += other.moves;
+		latency.merge(other.latency);
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return clients that lost their connection or got an error
+	 */
+	public int getFailedClients() {
+		return failedClients;
+	}
+
+	public long getMoves() {
+		return moves;
+	}
+
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Time from sending a move (or starting a game) until the server asks
+	 * for the next one or ends the game, the server's own turn included.
+	 */
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		out.append(String.format(Locale.ROOT, "Clients: %d (%d failed)%n", clients, failedClients));
+		out.append(String.format(Locale.ROOT, "Games: %d in %.2f s (%.1f games/s), %d client moves%n",
+				games, elapsedNanos / 1e9, getGamesPerSecond(), moves));
+		out.append(String.format(Locale.ROOT,
+				"Response latency (us): mean %.1f  p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f  (%d responses)%n",
+				latency.meanNanos() / 1e3, latency.percentileNanos(50) / 1e3, latency.percentileNanos(90) / 1e3,
+				latency.percentileNanos(99) / 1e3, latency.percentileNanos(99.9) / 1e3, latency.maxNanos() / 1e3,
+				latency.count()));
+		return out.toString();
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.algo.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for client sessions: virtual threads on a JVM that has them (Java
+ * 21 and later), daemon platform threads otherwise. The virtual thread API
+ * is looked up by reflection, so the code still builds for Java 8.
+ */
+final class SessionThreads {
+	private static final boolean VIRTUAL = virtualFactory("probe-") != null;
+
+	private SessionThreads() {
+	}
+
+	/**
+	 * @return true when session threads are virtual threads
+	 */
+	static boolean isVirtual() {
+		return VIRTUAL;
+	}
+
+	/**
+	 * Factory of threads named prefix0, prefix1 and so on.
+	 */
+	static ThreadFactory factory(String prefix) {
+		ThreadFactory virtual = VIRTUAL ? virtualFactory(prefix) : null;
+		if (virtual != null) {
+			return virtual;
+		}
+		AtomicInteger next = new AtomicInteger();
+		return task -> {
+			Thread thread = new Thread(task, prefix + next.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Thread.ofVirtual().name(prefix, 0).factory(), or null before Java 21.
+	 */
+	private static ThreadFactory virtualFactory(String prefix) {
+		try {
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Method name = builderType.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+}
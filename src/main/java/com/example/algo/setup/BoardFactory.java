@@ -23,7 +23,7 @@ public class BoardFactory {
 			if (cellNumber == 14) {
 				// House of Rebirth
 				board[i] = createSpecialCell(i);
-			} else if (cellNumber == 25) { System.out.println("created a 26 cell.");
+			} else if (cellNumber == 25) {
 				// House of Happiness
 				board[cellNumber] = createSpecialCell(cellNumber);
 			} else if (cellNumber == 26) {
@@ -59,7 +59,6 @@ public class BoardFactory {
 				effect = new RebirthEffect();
 				break;
 			case 25:
-        System.out.println("created a happiness effect and the cell number is :" + cellNumber);
 				effect = new HappinessEffect();
 				break;
 			case 26:
@@ -2,6 +2,7 @@ package com.example.algo.state;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 
 import com.example.algo.player.Player;
 
@@ -10,8 +11,14 @@ public class GameState {
 	 * Definitions
 	 */
 	public final Cell[] board;
+	// add or remove pieces only through the constructor and removePiece
 	public final List<Piece> pieces;
 	public final Player[] players;
+	// the piece on each board cell, kept up to date by Piece.moveTo
+	private final Piece[] occupants;
+	// pieces of each player, in the order of the pieces list
+	private final List<List<Piece>> piecesByPlayer;
+	private final List<List<Piece>> piecesByPlayerView;
 	public int currentPlayerIndex;
 	private int heuristec;
 	private Piece pendingThreeTruthsPiece = null;
@@ -29,7 +36,22 @@ public class GameState {
 		}
 	}
 
+	/**
+	 * A state over the given pieces, which from now on keep this state's
+	 * occupancy index up to date as they move. A piece belongs to one state
+	 * until removePiece releases it: pieces of another state, even one that
+	 * is no longer used, are rejected, so build from copies (or clone()).
+	 *
+	 * @throws IllegalArgumentException if a piece belongs to another state,
+	 *                                  in which case no piece is taken
+	 */
 	public GameState(Cell[] board, List<Piece> pieces, Player[] players) {
+		// check every piece before taking any, so a rejected list leaves them free
+		for (Piece piece : pieces) {
+			if (piece.state != null) {
+				throw new IllegalArgumentException("piece on " + piece.getPosition() + " already belongs to a game state");
+			}
+		}
 		this.board = new Cell[30];
 		System.arraycopy(board, 0, this.board, 0, Math.min(board.length, 30));
 
@@ -38,6 +60,25 @@ public class GameState {
 		this.players = new Player[players.length];
 		System.arraycopy(players, 0, this.players, 0, players.length);
 
+		this.occupants = new Piece[this.board.length];
+		this.piecesByPlayer = new ArrayList<>(players.length);
+		this.piecesByPlayerView = new ArrayList<>(players.length);
+		for (int i = 0; i < players.length; i++) {
+			List<Piece> own = new ArrayList<>();
+			piecesByPlayer.add(own);
+			piecesByPlayerView.add(Collections.unmodifiableList(own));
+		}
+		for (Piece piece : this.pieces) {
+			piece.state = this;
+			if (isOnBoard(piece.getPosition())) {
+				occupants[piece.getPosition()] = piece;
+			}
+			int owner = playerIndexOf(piece.getOwner());
+			if (owner >= 0) {
+				piecesByPlayer.get(owner).add(piece);
+			}
+		}
+
 		// Initialize current player to first player
 		this.currentPlayerIndex = 0;
 		this.heuristec = 0;
@@ -59,6 +100,10 @@ public class GameState {
 	}
 
 	public Piece getPieceAtIndex(int index) {
+		if (isOnBoard(index)) {
+			return occupants[index];
+		}
+		// off the board several pieces may share a position
 		for (Piece piece : pieces) {
 			if (piece.getPosition() == index) {
 				return piece;
@@ -67,10 +112,17 @@ public class GameState {
 		return null;
 	}
 
+	/**
+	 * @return a read-only live view of the player's pieces, in the order of
+	 *         the pieces list. It follows later removals, so copy it before
+	 *         removing pieces while iterating.
+	 */
 	public List<Piece> getPiecesFor(Player player) {
-		return pieces.stream()
-				.filter(p -> player.equals(p.getOwner()))
-				.toList();
+		int index = playerIndexOf(player);
+		if (index < 0) {
+			return Collections.emptyList();
+		}
+		return piecesByPlayerView.get(index);
 	}
 
 	public int calculateHeuristec(Player player) {
@@ -158,7 +210,43 @@ public class GameState {
 	 * Just a helper function .
 	 */
 	public void removePiece(Piece piece) {
-		this.pieces.remove(piece);
+		if (!this.pieces.remove(piece)) {
+			return;
+		}
+		if (isOnBoard(piece.getPosition()) && occupants[piece.getPosition()] == piece) {
+			occupants[piece.getPosition()] = null;
+		}
+		int owner = playerIndexOf(piece.getOwner());
+		if (owner >= 0) {
+			piecesByPlayer.get(owner).remove(piece);
+		}
+		piece.state = null;
+	}
+
+	/*
+	 * occupancy index
+	 */
+	void pieceMoved(Piece piece, int oldPosition) {
+		// during a swap the other piece may already have taken the old cell
+		if (isOnBoard(oldPosition) && occupants[oldPosition] == piece) {
+			occupants[oldPosition] = null;
+		}
+		if (isOnBoard(piece.getPosition())) {
+			occupants[piece.getPosition()] = piece;
+		}
+	}
+
+	private boolean isOnBoard(int index) {
+		return index >= 0 && index < occupants.length;
+	}
+
+	private int playerIndexOf(Player player) {
+		for (int i = 0; i < players.length; i++) {
+			if (players[i].equals(player)) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/**
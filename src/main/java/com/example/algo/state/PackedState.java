@@ -0,0 +1,515 @@
+package com.example.algo.state;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.algo.player.Player;
+
+/**
+ * Compact, search-only representation of a {@link GameState}.
+ *
+ * Pieces are kept as one occupancy word per player (bit i set = the player
+ * has a piece on board index i), plus per-player counters for the positions
+ * past the board (30 can still move, anything above 30 has borne off and may
+ * be stacked). Players are plain indices into {@link GameState#players} and
+ * the three pending-effect marks are stored as the cell of the marked piece.
+ *
+ * The effects are the ones {@link com.example.algo.setup.BoardFactory} puts on
+ * the standard board, so no {@link Cell} objects are needed to play moves.
+ */
+public class PackedState {
+	/*
+	 * Definitions
+	 */
+	public static final int BOARD_SIZE = 30;
+	public static final int PLAYER_COUNT = 2;
+	public static final int NONE = -1;
+
+	// highest reachable position: a piece on 30 throwing a 5
+	public static final int MAX_POSITION = 35;
+	static final int OFF_BOARD_SLOTS = MAX_POSITION - BOARD_SIZE + 1;
+
+	// pending effect slots
+	public static final int THREE_TRUTHS = 0;
+	public static final int RE_ATOUM = 1;
+	public static final int HORUS = 2;
+	public static final int PENDING_SLOTS = 3;
+
+	// most moves one stick can give: one per piece that can still move
+	public static final int MAX_MOVES = 8;
+
+	// cells with an effect on the standard board (array indices)
+	public static final int REBIRTH_CELL = 14;
+	public static final int WATER_CELL = 26;
+	public static final int THREE_TRUTHS_CELL = 27;
+	public static final int RE_ATOUM_CELL = 28;
+	public static final int HORUS_CELL = 29;
+
+	// undo record layout: from | to | landed | player | swapped | pending marks
+	private static final long UNDO_CELL_MASK = 0x3F;
+	private static final int UNDO_TO_SHIFT = 6;
+	private static final int UNDO_LANDED_SHIFT = 12;
+	private static final int UNDO_PLAYER_SHIFT = 18;
+	private static final long UNDO_SWAPPED = 1L << 19;
+	private static final int UNDO_PENDING_SHIFT = 20;
+
+	private final long[] occupancy = new long[PLAYER_COUNT];
+	private final byte[] offBoard = new byte[PLAYER_COUNT * OFF_BOARD_SLOTS];
+	private final byte[] pendingCell = new byte[PENDING_SLOTS];
+	private final byte[] pendingPlayer = new byte[PENDING_SLOTS];
+	public int currentPlayerIndex;
+	// Zobrist hash of pieces and pending marks, see hash()
+	private long hash;
+	// per-position piece values and their sum per player, see score()
+	private int[] pieceSquare = NO_SCORES;
+	private final int[] score = new int[PLAYER_COUNT];
+
+	private static final int[] NO_SCORES = new int[MAX_POSITION + 1];
+
+	public PackedState() {
+		Arrays.fill(pendingCell, (byte) NONE);
+		Arrays.fill(pendingPlayer, (byte) NONE);
+	}
+
+	/*
+	 * conversion
+	 */
+
+	/**
+	 * Packs the given state. Pieces whose owner is not one of the state's
+	 * players are rejected.
+	 */
+	public static PackedState fromGameState(GameState state) {
+		PackedState packed = new PackedState();
+		for (Piece piece : state.pieces) {
+			int player = indexOf(state.players, piece.getOwner());
+			if (player == NONE) {
+				throw new IllegalArgumentException("piece owner is not a player of this game");
+			}
+			packed.addPiece(player, piece.getPosition());
+		}
+		packed.currentPlayerIndex = state.currentPlayerIndex;
+		packed.packPending(THREE_TRUTHS, state.getPendingThreeTruthsPiece(), state.getPendingThreeTruthsPlayerIndex());
+		packed.packPending(RE_ATOUM, state.getPendingAtoumPiece(), state.getPendingAtoumPlayerIndex());
+		packed.packPending(HORUS, state.getPendingHorusPiece(), state.getPendingHorusPlayerIndex());
+		return packed;
+	}
+
+	/**
+	 * Rebuilds an object state on the given board and players. Pieces are
+	 * listed per player in position order, the pending marks point at the
+	 * rebuilt piece standing on the recorded cell.
+	 */
+	public GameState toGameState(Cell[] board, Player[] players) {
+		List<Piece> pieces = new ArrayList<>();
+		for (int player = 0; player < PLAYER_COUNT; player++) {
+			for (int position = 0; position <= MAX_POSITION; position++) {
+				int count = countAt(player, position);
+				for (int i = 0; i < count; i++) {
+					pieces.add(new Piece(players[player], position));
+				}
+			}
+		}
+
+		GameState state = new GameState(board, pieces, players);
+		state.currentPlayerIndex = this.currentPlayerIndex;
+		if (pendingCell[THREE_TRUTHS] != NONE) {
+			state.markThreeTruthsPiece(findPiece(pieces, players, THREE_TRUTHS), pendingPlayer[THREE_TRUTHS]);
+		}
+		if (pendingCell[RE_ATOUM] != NONE) {
+			state.markAtoumPiece(findPiece(pieces, players, RE_ATOUM), pendingPlayer[RE_ATOUM]);
+		}
+		if (pendingCell[HORUS] != NONE) {
+			state.markHorusPiece(findPiece(pieces, players, HORUS), pendingPlayer[HORUS]);
+		}
+		return state;
+	}
+
+	public PackedState copy() {
+		PackedState copy = new PackedState();
+		copy.occupancy[0] = this.occupancy[0];
+		copy.occupancy[1] = this.occupancy[1];
+		System.arraycopy(this.offBoard, 0, copy.offBoard, 0, offBoard.length);
+		System.arraycopy(this.pendingCell, 0, copy.pendingCell, 0, PENDING_SLOTS);
+		System.arraycopy(this.pendingPlayer, 0, copy.pendingPlayer, 0, PENDING_SLOTS);
+		copy.currentPlayerIndex = this.currentPlayerIndex;
+		copy.hash = this.hash;
+		copy.pieceSquare = this.pieceSquare;
+		copy.score[0] = this.score[0];
+		copy.score[1] = this.score[1];
+		return copy;
+	}
+
+	/*
+	 * queries
+	 */
+	public long occupancy(int player) {
+		return occupancy[player];
+	}
+
+	public long occupied() {
+		return occupancy[0] | occupancy[1];
+	}
+
+	/**
+	 * Owner of the piece on a board cell (0-29), or NONE when it is empty.
+	 */
+	public int ownerAt(int cell) {
+		long bit = 1L << cell;
+		if ((occupancy[0] & bit) != 0) {
+			return 0;
+		}
+		if ((occupancy[1] & bit) != 0) {
+			return 1;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Number of the player's pieces on a position, board or past the board.
+	 */
+	public int countAt(int player, int position) {
+		if (position < BOARD_SIZE) {
+			return (int) ((occupancy[player] >>> position) & 1L);
+		}
+		return offBoard[player * OFF_BOARD_SLOTS + position - BOARD_SIZE];
+	}
+
+	public int pieceCount(int player) {
+		int count = Long.bitCount(occupancy[player]);
+		for (int slot = 0; slot < OFF_BOARD_SLOTS; slot++) {
+			count += offBoard[player * OFF_BOARD_SLOTS + slot];
+		}
+		return count;
+	}
+
+	/**
+	 * True when the player has nothing left that can move, i.e. every
+	 * remaining piece is past position 30.
+	 */
+	public boolean allBorneOff(int player) {
+		return occupancy[player] == 0 && offBoard[player * OFF_BOARD_SLOTS] == 0;
+	}
+
+	/**
+	 * Zobrist hash of the position: pieces per player, side to move and the
+	 * pending-effect marks. Kept up to date by every change to the state.
+	 */
+	public long hash() {
+		return hash ^ ZobristKeys.side(currentPlayerIndex);
+	}
+
+	/**
+	 * Sum of the piece-square values of the player's pieces, kept up to date
+	 * by every change to the state. 0 until a table is set.
+	 */
+	public int score(int player) {
+		return score[player];
+	}
+
+	/**
+	 * Sets the value of a piece on each position, 0..MAX_POSITION, and sums
+	 * it up for the pieces already placed. The table is shared, not copied.
+	 */
+	public void setPieceSquareTable(int[] table) {
+		if (table.length != MAX_POSITION + 1) {
+			throw new IllegalArgumentException("table needs one value per position: " + table.length);
+		}
+		pieceSquare = table;
+		for (int player = 0; player < PLAYER_COUNT; player++) {
+			int sum = 0;
+			for (int position = 0; position <= MAX_POSITION; position++) {
+				sum += countAt(player, position) * table[position];
+			}
+			score[player] = sum;
+		}
+	}
+
+	public int getPendingCell(int slot) {
+		return pendingCell[slot];
+	}
+
+	public int getPendingPlayer(int slot) {
+		return pendingPlayer[slot];
+	}
+
+	/*
+	 * rules
+	 */
+
+	/**
+	 * Same rules as {@link com.example.algo.rules.RuleEngine#isLegal}.
+	 */
+	public boolean isLegal(int player, int from, int to) {
+		if (from == to) {
+			return false;
+		}
+		if (to > BOARD_SIZE) {
+			return from >= 26 && from <= BOARD_SIZE;
+		}
+		if (from < 25 && to > 25) {
+			return false;
+		}
+		if (to < BOARD_SIZE) {
+			return (occupancy[player] & (1L << to)) == 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the player's legal moves with the stick from the given offset, in
+	 * the order the pieces stand on the board, as ints built by
+	 * {@link #move(int, int)}. At most {@link #MAX_MOVES} are written.
+	 *
+	 * @return the number of moves written
+	 */
+	public int generateMoves(int player, int stick, int[] moves, int offset) {
+		int count = offset;
+		long bits = occupancy[player];
+		while (bits != 0) {
+			int from = Long.numberOfTrailingZeros(bits);
+			bits &= bits - 1;
+			count = addMove(player, from, from + stick, moves, count);
+		}
+		// pieces resting on 30 can still bear off
+		if (countAt(player, BOARD_SIZE) > 0) {
+			count = addMove(player, BOARD_SIZE, BOARD_SIZE + stick, moves, count);
+		}
+		return count - offset;
+	}
+
+	private int addMove(int player, int from, int to, int[] moves, int count) {
+		if ((to <= BOARD_SIZE || (from >= 26 && from <= BOARD_SIZE)) && isLegal(player, from, to)) {
+			moves[count++] = move(from, to);
+		}
+		return count;
+	}
+
+	/**
+	 * A move packed into one int: (from, to).
+	 */
+	public static int move(int from, int to) {
+		return (from << 8) | to;
+	}
+
+	public static int moveFrom(int move) {
+		return move >>> 8;
+	}
+
+	public static int moveTo(int move) {
+		return move & 0xFF;
+	}
+
+	/**
+	 * Plays a move the way {@link com.example.algo.move.MovePiece#execute} does:
+	 * swap with an opponent on the target, then apply the target cell's effect
+	 * to the moving piece. Pending marks follow the pieces they point at.
+	 *
+	 * @return an undo record for {@link #unmakeMove(long)}
+	 */
+	public long makeMove(int player, int from, int to) {
+		int swapped = to < BOARD_SIZE ? ownerAt(to) : NONE;
+		long undo = from
+				| (long) to << UNDO_TO_SHIFT
+				| (long) player << UNDO_PLAYER_SHIFT
+				| (swapped != NONE ? UNDO_SWAPPED : 0L)
+				| packPendingSlots() << UNDO_PENDING_SHIFT;
+
+		removePiece(player, from);
+		addPiece(player, to);
+		if (swapped != NONE) {
+			removePiece(swapped, to);
+			addPiece(swapped, from);
+		}
+		int landed = to;
+		if (to == WATER_CELL) {
+			int rebirth = rebirthCell();
+			if (rebirth != NONE) {
+				removePiece(player, to);
+				addPiece(player, rebirth);
+				landed = rebirth;
+			}
+		}
+		undo |= (long) landed << UNDO_LANDED_SHIFT;
+
+		for (int slot = 0; slot < PENDING_SLOTS; slot++) {
+			if (pendingCell[slot] == NONE) {
+				continue;
+			}
+			if (pendingCell[slot] == from && pendingPlayer[slot] == player) {
+				markPending(slot, landed, player);
+			} else if (swapped != NONE && pendingCell[slot] == to && pendingPlayer[slot] == swapped) {
+				markPending(slot, from, swapped);
+			}
+		}
+
+		if (to == THREE_TRUTHS_CELL) {
+			markPending(THREE_TRUTHS, to, player);
+		} else if (to == RE_ATOUM_CELL) {
+			markPending(RE_ATOUM, to, player);
+		} else if (to == HORUS_CELL) {
+			markPending(HORUS, to, player);
+		}
+		return undo;
+	}
+
+	/**
+	 * Takes back the move recorded by {@link #makeMove(int, int, int)}: the
+	 * mover returns from wherever it landed (the target or a rebirth cell),
+	 * a swapped opponent goes back to the target and the pending marks are
+	 * restored. Moves must be taken back in reverse order.
+	 */
+	public void unmakeMove(long undo) {
+		int from = (int) (undo & UNDO_CELL_MASK);
+		int to = (int) ((undo >>> UNDO_TO_SHIFT) & UNDO_CELL_MASK);
+		int landed = (int) ((undo >>> UNDO_LANDED_SHIFT) & UNDO_CELL_MASK);
+		int player = (int) ((undo >>> UNDO_PLAYER_SHIFT) & 1L);
+
+		removePiece(player, landed);
+		if ((undo & UNDO_SWAPPED) != 0) {
+			int swapped = 1 - player;
+			removePiece(swapped, from);
+			addPiece(swapped, to);
+		}
+		addPiece(player, from);
+		unpackPendingSlots(undo >>> UNDO_PENDING_SHIFT);
+	}
+
+	public void switchPlayer() {
+		currentPlayerIndex = (currentPlayerIndex + 1) % PLAYER_COUNT;
+	}
+
+	public void markPending(int slot, int cell, int player) {
+		clearPending(slot);
+		pendingCell[slot] = (byte) cell;
+		pendingPlayer[slot] = (byte) player;
+		hash ^= pendingKey(slot);
+	}
+
+	public void clearPending(int slot) {
+		hash ^= pendingKey(slot);
+		pendingCell[slot] = NONE;
+		pendingPlayer[slot] = NONE;
+	}
+
+	/**
+	 * First free cell from the House of Rebirth backwards, like
+	 * {@link com.example.algo.util.GeneralUtil#sendToReBirth}.
+	 */
+	public int rebirthCell() {
+		long free = ~occupied() & ((1L << (REBIRTH_CELL + 1)) - 1);
+		return free == 0 ? NONE : 63 - Long.numberOfLeadingZeros(free);
+	}
+
+	public void addPiece(int player, int position) {
+		if (position < 0 || position > MAX_POSITION) {
+			throw new IllegalArgumentException("position out of range: " + position);
+		}
+		score[player] += pieceSquare[position];
+		if (position < BOARD_SIZE) {
+			occupancy[player] |= 1L << position;
+			hash ^= ZobristKeys.board(player, position);
+		} else {
+			int slot = position - BOARD_SIZE;
+			int count = offBoard[player * OFF_BOARD_SLOTS + slot]++;
+			hash ^= ZobristKeys.offBoard(player, slot, count) ^ ZobristKeys.offBoard(player, slot, count + 1);
+		}
+	}
+
+	public void removePiece(int player, int position) {
+		score[player] -= pieceSquare[position];
+		if (position < BOARD_SIZE) {
+			occupancy[player] &= ~(1L << position);
+			hash ^= ZobristKeys.board(player, position);
+		} else {
+			int slot = position - BOARD_SIZE;
+			int count = offBoard[player * OFF_BOARD_SLOTS + slot]--;
+			hash ^= ZobristKeys.offBoard(player, slot, count) ^ ZobristKeys.offBoard(player, slot, count - 1);
+		}
+	}
+
+	/*
+	 * helpers
+	 */
+	private void packPending(int slot, Piece piece, int playerIndex) {
+		if (piece != null) {
+			markPending(slot, piece.getPosition(), playerIndex);
+		}
+	}
+
+	/**
+	 * The three pending marks as one byte each: cell + 1 in the low six bits,
+	 * player + 1 in the top two, so an empty slot is zero.
+	 */
+	private long packPendingSlots() {
+		long packed = 0;
+		for (int slot = 0; slot < PENDING_SLOTS; slot++) {
+			long mark = (pendingCell[slot] + 1) | (pendingPlayer[slot] + 1) << 6;
+			packed |= mark << (slot * 8);
+		}
+		return packed;
+	}
+
+	private void unpackPendingSlots(long packed) {
+		for (int slot = 0; slot < PENDING_SLOTS; slot++) {
+			int mark = (int) (packed >>> (slot * 8)) & 0xFF;
+			if (mark == 0) {
+				clearPending(slot);
+			} else {
+				markPending(slot, (mark & 0x3F) - 1, (mark >>> 6) - 1);
+			}
+		}
+	}
+
+	private long pendingKey(int slot) {
+		if (pendingCell[slot] == NONE || pendingPlayer[slot] == NONE) {
+			return 0L;
+		}
+		return ZobristKeys.pending(slot, pendingCell[slot], pendingPlayer[slot]);
+	}
+
+	private Piece findPiece(List<Piece> pieces, Player[] players, int slot) {
+		Player owner = pendingPlayer[slot] == NONE ? null : players[pendingPlayer[slot]];
+		for (Piece piece : pieces) {
+			if (piece.getPosition() == pendingCell[slot] && (owner == null || piece.getOwner().equals(owner))) {
+				return piece;
+			}
+		}
+		return null;
+	}
+
+	private static int indexOf(Player[] players, Player player) {
+		for (int i = 0; i < players.length; i++) {
+			if (players[i].equals(player)) {
+				return i;
+			}
+		}
+		return NONE;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof PackedState)) {
+			return false;
+		}
+		PackedState that = (PackedState) other;
+		return currentPlayerIndex == that.currentPlayerIndex
+				&& Arrays.equals(occupancy, that.occupancy)
+				&& Arrays.equals(offBoard, that.offBoard)
+				&& Arrays.equals(pendingCell, that.pendingCell)
+				&& Arrays.equals(pendingPlayer, that.pendingPlayer);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(occupancy);
+		result = 31 * result + Arrays.hashCode(offBoard);
+		result = 31 * result + Arrays.hashCode(pendingCell);
+		result = 31 * result + Arrays.hashCode(pendingPlayer);
+		return 31 * result + currentPlayerIndex;
+	}
+}
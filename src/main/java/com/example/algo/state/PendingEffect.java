@@ -0,0 +1,88 @@
+package com.example.algo.state;
+
+/**
+ * The three houses whose effect waits for the owner's next turn: a piece
+ * that lands on 27, 28 or 29 is marked, and on its owner's next turn it
+ * either leaves the game or goes back to rebirth.
+ */
+public enum PendingEffect {
+	THREE_TRUTHS("Three Truths"),
+	RE_ATOUM("Atoum"),
+	HORUS("Horus");
+
+	private final String displayName;
+
+	PendingEffect(String displayName) {
+		this.displayName = displayName;
+	}
+
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	/**
+	 * @return the effect the current player has to resolve this turn, or null
+	 *         for a normal turn. Three Truths goes first, then Re-Atoum, then
+	 *         Horus.
+	 */
+	public static PendingEffect due(GameState state) {
+		for (PendingEffect effect : values()) {
+			if (effect.getPiece(state) != null && effect.getPlayerIndex(state) == state.currentPlayerIndex) {
+				return effect;
+			}
+		}
+		return null;
+	}
+
+	public Piece getPiece(GameState state) {
+		switch (this) {
+			case THREE_TRUTHS:
+				return state.getPendingThreeTruthsPiece();
+			case RE_ATOUM:
+				return state.getPendingAtoumPiece();
+			default:
+				return state.getPendingHorusPiece();
+		}
+	}
+
+	public int getPlayerIndex(GameState state) {
+		switch (this) {
+			case THREE_TRUTHS:
+				return state.getPendingThreeTruthsPlayerIndex();
+			case RE_ATOUM:
+				return state.getPendingAtoumPlayerIndex();
+			default:
+				return state.getPendingHorusPlayerIndex();
+		}
+	}
+
+	public void clear(GameState state) {
+		switch (this) {
+			case THREE_TRUTHS:
+				state.clearPendingThreeTruthsPiece();
+				break;
+			case RE_ATOUM:
+				state.clearPendingAtoumPiece();
+				break;
+			default:
+				state.clearPendingHorusPiece();
+				break;
+		}
+	}
+
+	/**
+	 * @return true when the stick lets the marked piece leave the game, if
+	 *         its owner picks it: Three Truths needs a 3, Re-Atoum a 2 and
+	 *         Horus any throw
+	 */
+	public boolean removesWith(int stick) {
+		switch (this) {
+			case THREE_TRUTHS:
+				return stick == 3;
+			case RE_ATOUM:
+				return stick == 2;
+			default:
+				return true;
+		}
+	}
+}
@@ -8,6 +8,8 @@ public class Piece {
 	 */
 	private final Player owner;
 	private int position;
+	// the state whose occupancy index follows this piece, if any
+	GameState state;
 
 	/*
 	 * Constructors
@@ -29,7 +31,11 @@ public class Piece {
 	}
 
 	public void moveTo(int newPosition) {
+		int oldPosition = this.position;
 		this.position = newPosition;
+		if (state != null) {
+			state.pieceMoved(this, oldPosition);
+		}
 	}
 
 }
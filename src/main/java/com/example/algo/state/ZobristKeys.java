@@ -0,0 +1,62 @@
+package com.example.algo.state;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for the incremental hash of a {@link PackedState}.
+ *
+ * The keys come from a fixed seed so a position hashes to the same value in
+ * every run, which makes the hash usable as a key in files written to disk.
+ */
+public final class ZobristKeys {
+	private static final long SEED = 0x5E7E7L;
+	// most pieces a player can have stacked on one position past the board
+	static final int MAX_STACK = 15;
+
+	private static final long[][] BOARD = new long[PackedState.PLAYER_COUNT][PackedState.BOARD_SIZE];
+	private static final long[][][] OFF_BOARD = new long[PackedState.PLAYER_COUNT][PackedState.OFF_BOARD_SLOTS][MAX_STACK + 1];
+	private static final long[][][] PENDING = new long[PackedState.PENDING_SLOTS][PackedState.MAX_POSITION + 1][PackedState.PLAYER_COUNT];
+	private static final long SIDE;
+
+	static {
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int player = 0; player < PackedState.PLAYER_COUNT; player++) {
+			for (int cell = 0; cell < PackedState.BOARD_SIZE; cell++) {
+				BOARD[player][cell] = random.nextLong();
+			}
+			for (int slot = 0; slot < PackedState.OFF_BOARD_SLOTS; slot++) {
+				// an empty stack hashes to zero
+				for (int count = 1; count <= MAX_STACK; count++) {
+					OFF_BOARD[player][slot][count] = random.nextLong();
+				}
+			}
+		}
+		for (int slot = 0; slot < PackedState.PENDING_SLOTS; slot++) {
+			for (int cell = 0; cell <= PackedState.MAX_POSITION; cell++) {
+				for (int player = 0; player < PackedState.PLAYER_COUNT; player++) {
+					PENDING[slot][cell][player] = random.nextLong();
+				}
+			}
+		}
+		SIDE = random.nextLong();
+	}
+
+	private ZobristKeys() {
+	}
+
+	static long board(int player, int cell) {
+		return BOARD[player][cell];
+	}
+
+	static long offBoard(int player, int slot, int count) {
+		return OFF_BOARD[player][slot][count & MAX_STACK];
+	}
+
+	static long pending(int slot, int cell, int player) {
+		return PENDING[slot][cell][player];
+	}
+
+	static long side(int currentPlayerIndex) {
+		return currentPlayerIndex == 0 ? 0L : SIDE;
+	}
+}
@@ -1,9 +1,44 @@
 package com.example.algo.strategy;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import com.example.algo.move.*;
 import com.example.algo.player.Player;
 import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
 
 public interface MoveStrategy {
 	MovePiece chooseMove(GameState state, Player player, int stick);
+
+	/**
+	 * Chooses the move on the executor instead of the calling thread. The
+	 * state must not change until the future is done.
+	 *
+	 * By default chooseMove runs as one task; cancelling the future before
+	 * the task starts skips it, but a decision already running is not
+	 * interrupted.
+	 *
+	 * @return the move, completed with null when there is none
+	 */
+	default CompletableFuture<MovePiece> chooseMoveAsync(GameState state, Player player, int stick,
+			Executor executor) {
+		return CompletableFuture.supplyAsync(() -> chooseMove(state, player, stick), executor);
+	}
+
+	/**
+	 * Decides the turn of a piece marked by a pending effect: the marked piece
+	 * leaves the game when its owner picks it with a throw the effect accepts
+	 * ({@link PendingEffect#removesWith(int)}), and goes back to rebirth
+	 * otherwise.
+	 *
+	 * By default the strategy chooses a move as on a normal turn, and choosing
+	 * a move of the marked piece picks it.
+	 *
+	 * @return true to pick the marked piece
+	 */
+	default boolean resolveEffect(GameState state, Player player, int stick, PendingEffect effect) {
+		MovePiece chosen = chooseMove(state, player, stick);
+		return chosen != null && chosen.getPiece().equals(effect.getPiece(state));
+	}
 }
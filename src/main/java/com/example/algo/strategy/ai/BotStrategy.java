@@ -1,19 +1,48 @@
 package com.example.algo.strategy.ai;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.example.algo.move.*;
 import com.example.algo.player.Player;
 import com.example.algo.rules.RuleEngine;
 import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.state.PendingEffect;
 import com.example.algo.state.Piece;
 import com.example.algo.strategy.MoveStrategy;
-
+import com.example.algo.strategy.ai.book.OpeningBook;
+import com.example.algo.strategy.ai.endgame.EndgameTablebase;
+import com.example.algo.strategy.ai.trace.SearchTraceRecorder;
+
+/**
+ * Expectiminimax over the stick throws with a shared transposition table.
+ *
+ * Everything a search changes lives in its {@link SearchContext}, so one
+ * configured instance may make decisions for any number of games on any
+ * number of threads at once without locking; the searches share what the
+ * table learns. The last-decision statistics are kept per calling thread.
+ */
 public class BotStrategy implements MoveStrategy {
 
 	// ==================== CONSTANTS ====================
 	private static final int MAX_DEPTH = 3;
+	// deepest iteration of a budgeted search; the budget runs out long before
+	private static final int MAX_DEEPENING_DEPTH = 32;
+	// below this remaining depth a chance node is too small to be worth splitting
+	private static final int DEFAULT_SPLIT_DEPTH = 3;
 	private static final int POSITION_WEIGHT = 10;
 	private static final int OPONENT_PENALTY = 10;
 	private static final int WIN_BONUS = 10000;
@@ -21,18 +50,222 @@ public class BotStrategy implements MoveStrategy {
 	private static final int ADVANCED_POSITION_MULTIPLIER = 2;
 	private static final int MID_POSITION_MULTIPLIER = 1;
 	private static final int EARLY_POSITION_MULTIPLIER = 1;
+	private static final double[] STICK_PROBABILITIES = {
+			0.25, // 1: 4/16
+			0.375, // 2: 6/16
+			0.25, // 3: 4/16
+			0.0625, // 4: 1/16
+			0.0625 // 5: 1/16
+	};
+	private static final int[] STICK_VALUES = { 1, 2, 3, 4, 5 };
+	static final int STICK_COUNT = STICK_VALUES.length;
+	private static final int MAX_MOVES = PackedState.MAX_MOVES;
+	// extremes of pieceScore(): borne off, and a piece on the first cells
+	private static final int MAX_PIECE_SCORE = WIN_BONUS;
+	private static final int MIN_PIECE_SCORE = -30;
+	private static final int[] PIECE_SQUARE = new int[PackedState.MAX_POSITION + 1];
+
+	static {
+		for (int position = 0; position <= PackedState.MAX_POSITION; position++) {
+			PIECE_SQUARE[position] = pieceScore(position);
+		}
+	}
+
+	private final TranspositionTable table;
+	private int parallelism = 1;
+	private ForkJoinPool pool;
+	private volatile int maxDepth = MAX_DEPTH;
+	private volatile int splitDepth = DEFAULT_SPLIT_DEPTH;
+	private volatile long timeBudgetMillis;
+	private volatile long nodeBudget;
+	private volatile boolean verbose;
+	private volatile EndgameTablebase tablebase;
+	private volatile OpeningBook openingBook;
+	private volatile SearchMetrics metrics = SearchMetrics.shared();
+	private volatile SearchTraceRecorder traceRecorder;
+
+	public BotStrategy() {
+		this(TranspositionTable.DEFAULT_BUDGET_BYTES);
+	}
+
+	/**
+	 * @param tableBudgetBytes memory for this bot's transposition table
+	 */
+	public BotStrategy(long tableBudgetBytes) {
+		this.table = new TranspositionTable(tableBudgetBytes);
+	}
+
+	/**
+	 * Number of threads that search root moves at the same time. With 1 (the
+	 * default) the search runs on the calling thread. Every level makes the
+	 * same choice as the sequential search.
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+		}
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+		this.parallelism = parallelism;
+		if (parallelism > 1) {
+			pool = new ForkJoinPool(parallelism);
+		}
+	}
+
+	public synchronized int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Remaining depth from which a chance node inside a parallel search
+	 * searches its five sticks, and the moves of each stick, as fork-join
+	 * tasks; shallower nodes are searched on their task's thread. Splitting
+	 * keeps the threads busy when the root has fewer moves than there are
+	 * threads. Only used with a parallelism above 1.
+	 */
+	public void setSplitDepth(int splitDepth) {
+		if (splitDepth < 1) {
+			throw new IllegalArgumentException("split depth must be at least 1: " + splitDepth);
+		}
+		this.splitDepth = splitDepth;
+	}
+
+	public int getSplitDepth() {
+		return splitDepth;
+	}
+
+	/**
+	 * Depth of the search when no budget is set, MAX_DEPTH by default.
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth < 1 || maxDepth > MAX_DEEPENING_DEPTH) {
+			throw new IllegalArgumentException("max depth must be between 1 and " + MAX_DEEPENING_DEPTH + ": " + maxDepth);
+		}
+		this.maxDepth = maxDepth;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Wall-clock time one move decision may take, 0 (the default) for no
+	 * limit. With a time or node budget the search deepens one ply at a time
+	 * until the budget runs out and plays the best move of the last iteration
+	 * that completed. The one-ply iteration always completes.
+	 */
+	public void setTimeBudget(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("time budget must not be negative: " + millis);
+		}
+		this.timeBudgetMillis = millis;
+	}
+
+	public long getTimeBudget() {
+		return timeBudgetMillis;
+	}
+
+	/**
+	 * Nodes one move decision may search, 0 (the default) for no limit. See
+	 * {@link #setTimeBudget(long)}.
+	 */
+	public void setNodeBudget(long nodes) {
+		if (nodes < 0) {
+			throw new IllegalArgumentException("node budget must not be negative: " + nodes);
+		}
+		this.nodeBudget = nodes;
+	}
+
+	public long getNodeBudget() {
+		return nodeBudget;
+	}
+
+	/**
+	 * Values for the end of the final race, or null (the default) to search
+	 * it like any other position. Covered positions are played from the table
+	 * at the root and valued from it inside the search.
+	 */
+	public void setTablebase(EndgameTablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	public EndgameTablebase getTablebase() {
+		return tablebase;
+	}
+
+	/**
+	 * Precomputed moves of early positions, or null (the default) to search
+	 * every position. A position and stick the book holds is played without
+	 * searching.
+	 */
+	public void setOpeningBook(OpeningBook openingBook) {
+		this.openingBook = openingBook;
+	}
+
+	public OpeningBook getOpeningBook() {
+		return openingBook;
+	}
+
+	/**
+	 * Where this bot adds its search counters, {@link SearchMetrics#shared()}
+	 * by default.
+	 */
+	public void setMetrics(SearchMetrics metrics) {
+		if (metrics == null) {
+			throw new IllegalArgumentException("metrics must not be null");
+		}
+		this.metrics = metrics;
+	}
+
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Where to record every node of the following searches, or null (the
+	 * default) to record nothing. A recording bot searches on the calling
+	 * thread, and only one search may record to a recorder at a time.
+	 */
+	public void setTraceRecorder(SearchTraceRecorder traceRecorder) {
+		this.traceRecorder = traceRecorder;
+	}
+
+	public SearchTraceRecorder getTraceRecorder() {
+		return traceRecorder;
+	}
+
+	/**
+	 * @return depth of the last completed iteration of the last decision made
+	 *         on the calling thread, 0 when it did not search
+	 */
+	public int getLastSearchDepth() {
+		return lastDecision.get().depth;
+	}
+
+	/**
+	 * Forgets every stored search result.
+	 */
+	void clearTable() {
+		table.clear();
+	}
 
 	// ==================== VERBOSE MODE ====================
-	private static boolean verboseMode = false;
-	private int nodeCounter = 0;
-	private int currentDepth = 0;
+	// the last decision made on each thread, for getLastSearchDepth() and printStatistics()
+	private final ThreadLocal<LastDecision> lastDecision = ThreadLocal.withInitial(LastDecision::new);
+
+	private static final class LastDecision {
+		int depth;
+		int tracedNodes;
+	}
 
 	/**
-	 * Enable or disable verbose output
+	 * Enable or disable verbose output of this bot's decisions
 	 * Call this before starting the game
 	 */
-	public static void setVerboseMode(boolean verbose) {
-		verboseMode = verbose;
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
 		if (verbose) {
 			System.out.println("╔═══════════════════════════════════════════════════╗");
 			System.out.println("║     VERBOSE MODE ENABLED - Algorithm Tracing     ║");
@@ -43,20 +276,20 @@ public class BotStrategy implements MoveStrategy {
 	/**
 	 * Check if verbose mode is enabled
 	 */
-	public static boolean isVerboseMode() {
-		return verboseMode;
+	public boolean isVerbose() {
+		return verbose;
 	}
 
 	// ==================== VERBOSE HELPERS ====================
 
 	private void printSeparator() {
-		if (!verboseMode)
+		if (!verbose)
 			return;
 		System.out.println("═══════════════════════════════════════════════════");
 	}
 
 	private void printHeader(String header) {
-		if (!verboseMode)
+		if (!verbose)
 			return;
 		System.out.println("\n╔═══════════════════════════════════════════════════╗");
 		System.out.println("║ " + centerText(header, 49) + " ║");
@@ -64,27 +297,27 @@ public class BotStrategy implements MoveStrategy {
 	}
 
 	private void printSubHeader(String text) {
-		if (!verboseMode)
+		if (!verbose)
 			return;
 		System.out.println("\n┌─────────────────────────────────────────────────┐");
 		System.out.println("│ " + text);
 		System.out.println("└─────────────────────────────────────────────────┘");
 	}
 
-	private void printIndented(int depth, String text) {
-		if (!verboseMode)
+	private void printIndented(SearchContext ctx, int depth, String text) {
+		if (!ctx.verbose)
 			return;
 		String indent = "  ".repeat(depth);
 		System.out.println(indent + text);
 	}
 
-	private void printNodeInfo(String nodeType, int depth, String info) {
-		if (!verboseMode)
+	private void printNodeInfo(SearchContext ctx, String nodeType, int depth, String info) {
+		if (!ctx.verbose)
 			return;
-		nodeCounter++;
-		String indent = "  ".repeat(currentDepth - depth);
+		ctx.nodeCounter++;
+		String indent = "  ".repeat(ctx.maxDepth - depth);
 		System.out.printf("%s[Node #%d] %s (Depth=%d) %s%n",
-				indent, nodeCounter, nodeType, depth, info);
+				indent, ctx.nodeCounter, nodeType, depth, info);
 	}
 
 	private String centerText(String text, int width) {
@@ -95,393 +328,1158 @@ public class BotStrategy implements MoveStrategy {
 	// ==================== MAIN ALGORITHM ====================
 
 	public MovePiece chooseMove(GameState state, Player player, int stick) {
-		// Reset counters for this move
-		nodeCounter = 0;
-		currentDepth = MAX_DEPTH;
+		return chooseMove(state, player, stick, null, null);
+	}
+
+	/**
+	 * Decides on the executor. Cancelling the future, or completing it any
+	 * other way (orTimeout, complete), stops the search at its next budget
+	 * check.
+	 */
+	@Override
+	public CompletableFuture<MovePiece> chooseMoveAsync(GameState state, Player player, int stick, Executor executor) {
+		return chooseMoveAsync(state, player, stick, executor, 0, null);
+	}
+
+	/**
+	 * Decides on the executor, deepening the search one ply at a time and
+	 * reporting the best move of every completed iteration. The state must not
+	 * change until the future is done.
+	 *
+	 * @param deadlineMillis time from now after which the best move of the last
+	 *                       completed iteration is played, 0 to search to the
+	 *                       bot's own depth or budget; the one-ply iteration
+	 *                       always completes
+	 * @param bestSoFar      called on the searching thread after every
+	 *                       completed iteration, or null
+	 * @return the move, null when there is none; cancelling the future or
+	 *         completing it any other way stops the search
+	 */
+	public CompletableFuture<MovePiece> chooseMoveAsync(GameState state, Player player, int stick, Executor executor,
+			long deadlineMillis, Consumer<MovePiece> bestSoFar) {
+		if (deadlineMillis < 0) {
+			throw new IllegalArgumentException("deadline must not be negative: " + deadlineMillis);
+		}
+		long timeBudget = timeBudgetMillis;
+		long millis = deadlineMillis > 0 && (timeBudget == 0 || deadlineMillis < timeBudget) ? deadlineMillis
+				: timeBudget;
+		SearchBudget budget = new SearchBudget(millis, nodeBudget);
+		CompletableFuture<MovePiece> result = new CompletableFuture<>();
+		result.whenComplete((move, failure) -> budget.stop());
+		try {
+			executor.execute(() -> {
+				if (result.isDone()) {
+					return;
+				}
+				try {
+					result.complete(chooseMove(state, player, stick, budget, bestSoFar));
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				}
+			});
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * @param budget    the limits of an asynchronous decision, which also
+	 *                  deepens from one ply, or null for the bot's own
+	 * @param bestSoFar told the best move of every completed iteration, or null
+	 */
+	private MovePiece chooseMove(GameState state, Player player, int stick, SearchBudget budget,
+			Consumer<MovePiece> bestSoFar) {
+		MoveDecisionEvent event = new MoveDecisionEvent();
+		event.stick = stick;
+		long start = System.nanoTime();
+		event.begin();
+		MovePiece move = decide(state, player, stick, event, budget, bestSoFar);
+		event.end();
+		metrics.recordDecision(event.source, event.depth, System.nanoTime() - start);
+		if (event.shouldCommit()) {
+			event.commit();
+		}
+		return move;
+	}
+
+	/**
+	 * Picks the marked piece whenever the throw lets it leave the game, with no
+	 * search. A removed piece counts toward the win like a borne-off one (see
+	 * GameSession.winnerOf), while rebirth puts it back on cell 14 or earlier
+	 * to cover the rest of the board again, so leaving is always the better
+	 * outcome.
+	 */
+	@Override
+	public boolean resolveEffect(GameState state, Player player, int stick, PendingEffect effect) {
+		boolean removes = effect.removesWith(stick);
+		if (verbose) {
+			printHeader("PENDING EFFECT");
+			System.out.println(player.getName() + ": " + effect.getDisplayName() + " with a " + stick + " → "
+					+ (removes ? "piece leaves the game" : "piece goes back to rebirth"));
+		}
+		return removes;
+	}
 
-		if (verboseMode) {
+	/**
+	 * Chooses the move and fills in how it was found.
+	 */
+	private MovePiece decide(GameState state, Player player, int stick, MoveDecisionEvent event,
+			SearchBudget asyncBudget, Consumer<MovePiece> bestSoFar) {
+		boolean verbose = this.verbose;
+		LastDecision last = lastDecision.get();
+		boolean async = asyncBudget != null;
+		long timeBudget = async ? 0 : timeBudgetMillis;
+		long nodeLimit = async ? 0 : nodeBudget;
+		boolean budgeted = timeBudget > 0 || nodeLimit > 0;
+		int depthLimit = budgeted ? MAX_DEEPENING_DEPTH : maxDepth;
+		if (async) {
+			// an asynchronous decision always deepens, within the limits it was given
+			budgeted = asyncBudget.hasLimits();
+			depthLimit = budgeted ? MAX_DEEPENING_DEPTH : maxDepth;
+		}
+
+		if (verbose) {
 			printHeader("NEW MOVE DECISION");
 			System.out.println("Player: " + player.getName());
 			System.out.println("Stick Throw: " + stick);
-			System.out.println("Max Depth: " + MAX_DEPTH);
+			if (budgeted) {
+				System.out.println("Budget: " + timeBudget + " ms, " + nodeLimit + " nodes (0 = none)");
+			} else {
+				System.out.println("Max Depth: " + depthLimit);
+			}
 			printSeparator();
 		}
 
-		List<MovePiece> moves = generateMoves(state, player, stick);
+		int[] moves = generateMoves(state, player, stick);
+		event.moves = moves.length;
 
-		if (moves.isEmpty()) {
-			if (verboseMode) {
+		if (moves.length == 0) {
+			if (verbose) {
 				System.out.println("No legal moves available - skipping turn");
 			}
 			return null;
 		}
 
-		if (moves.size() == 1) {
-			if (verboseMode) {
+		if (moves.length == 1) {
+			if (verbose) {
 				System.out.println("!> Only one legal move available:");
-				printMoveInfo(moves.get(0), 0);
+				printMoveInfo(player, moves[0], 0);
 			}
-			return moves.get(0);
+			event.source = SearchMetrics.FORCED;
+			return toMovePiece(state, player, moves[0]);
 		}
 
-		if (verboseMode) {
-			printSubHeader("Evaluating " + moves.size() + " possible moves:");
+		if (verbose) {
+			printSubHeader("Evaluating " + moves.length + " possible moves:");
 		}
 
-		MovePiece bestMove = null;
-		int bestValue = Integer.MIN_VALUE;
-		int moveIndex = 0;
-
-		for (MovePiece move : moves) {
-			moveIndex++;
-
-			if (verboseMode) {
-				System.out.println("\n┌─ Move " + moveIndex + "/" + moves.size() + " ──────");
-				printMoveInfo(move, 1);
+		// the search itself runs on the packed state, players become indices
+		PackedState root = pack(state);
+		int me = indexOf(state, player);
+		root.currentPlayerIndex = me;
+
+		OpeningBook book = openingBook;
+		if (book != null) {
+			int booked = book.probe(root.hash(), stick);
+			for (int move : moves) {
+				// a move the position does not have means a hash collision
+				if (move == booked) {
+					if (verbose) {
+						System.out.println("Opening book move (searched to depth " + book.getDepth() + "):");
+						printMoveInfo(player, move, 0);
+					}
+					last.tracedNodes = 0;
+					last.depth = 0;
+					event.source = SearchMetrics.BOOK;
+					return toMovePiece(state, player, move);
+				}
 			}
+		}
 
-			GameState nexState = state.clone();
-
-			Piece clonedPiece = null;
-			for (Piece p : nexState.pieces) {
-				if (p.getOwner().equals(move.getPiece().getOwner()) &&
-						p.getPosition() == move.getPiece().getPosition()) {
-					clonedPiece = p;
-					break;
+		EndgameTablebase endgame = tablebase;
+		if (endgame != null && EndgameTablebase.covers(root)) {
+			int entry = endgame.probe(root, me);
+			int from = EndgameTablebase.bestFrom(entry, stick);
+			for (int move : moves) {
+				if (PackedState.moveFrom(move) == from) {
+					if (verbose) {
+						System.out.printf("Endgame tablebase: win probability %.4f%n",
+								EndgameTablebase.winProbability(entry));
+						printMoveInfo(player, move, 0);
+					}
+					last.tracedNodes = 0;
+					last.depth = 0;
+					event.source = SearchMetrics.TABLEBASE;
+					return toMovePiece(state, player, move);
 				}
 			}
+		}
+		table.newSearch();
+
+		SearchTraceRecorder trace = traceRecorder;
+		SearchBudget budget = async ? asyncBudget : (budgeted ? new SearchBudget(timeBudget, nodeLimit) : null);
+		// the first iteration completes unless the caller stops the decision
+		SearchBudget firstBudget = async ? asyncBudget.stopOnly() : null;
+		int firstDepth = budgeted || async ? 1 : depthLimit;
+		int[] order = identityOrder(moves.length);
+		int[] values = null;
+		int completedDepth = 0;
+		int tracedNodes = 0;
+
+		for (int depth = firstDepth; depth <= depthLimit; depth++) {
+			// the first iteration always completes, so there is a move to play
+			SearchContext ctx = newContext(root, me, depth, verbose, depth == firstDepth ? firstBudget : budget,
+					endgame, trace);
+			if (verbose && budgeted) {
+				printSubHeader("Iteration: depth " + depth);
+			}
+			try {
+				// an aborted iteration leaves its copy of the root half-played
+				values = searchRoot(ctx, root.copy(), player, me, stick, moves, order);
+			} catch (SearchAbortedException e) {
+				break;
+			} finally {
+				tracedNodes += ctx.nodeCounter;
+				event.nodes += ctx.nodes;
+				metrics.record(ctx);
+				ctx.release();
+			}
+			completedDepth = depth;
+			if (bestSoFar != null) {
+				bestSoFar.accept(toMovePiece(state, player, moves[bestIndex(values)]));
+			}
+			if (budget == null || budget.charge(depth == firstDepth ? ctx.nodes : 0)) {
+				break;
+			}
+			// the next iteration searches the best moves of this one first
+			order = orderByValue(values);
+		}
 
-			if (clonedPiece == null) {
-				if (verboseMode) {
-					System.out.println(" Piece not found in cloned state - skipping");
-				}
-				continue;
+		if (values == null) {
+			throw new CancellationException("the move decision was stopped");
+		}
+		int best = bestIndex(values);
+		last.tracedNodes = tracedNodes;
+		last.depth = completedDepth;
+		event.source = SearchMetrics.SEARCH;
+		event.depth = completedDepth;
+		event.value = values[best];
+		if (verbose) {
+			printHeader("DECISION SUMMARY");
+			System.out.println("Total Nodes Explored: " + tracedNodes);
+			System.out.println("Depth Reached: " + completedDepth);
+			System.out.println("Best Move Value: " + values[best]);
+			System.out.println("\n> CHOSEN MOVE:");
+			printMoveInfo(player, moves[best], 0);
+			printSeparator();
+		}
+
+		// the only MovePiece the search creates
+		return toMovePiece(state, player, moves[best]);
+	}
+
+	/**
+	 * Expected value of playing the move, as the search sees it from the
+	 * player's side.
+	 */
+	public int evaluateMove(GameState state, Player player, MovePiece move) {
+		PackedState root = pack(state);
+		int me = indexOf(state, player);
+		root.currentPlayerIndex = me;
+		table.newSearch();
+		SearchContext ctx = newContext(root, me, maxDepth, false, null, tablebase, null);
+
+		root.makeMove(me, move.getPiece().getPosition(), move.getTargetIndex());
+		root.switchPlayer();
+		try {
+			return expectiminimax(ctx, root, ctx.maxDepth - 1, me, false, ctx.minScore - 1, ctx.maxScore + 1);
+		} finally {
+			metrics.record(ctx);
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Values of the root moves, indexed like moves, searched in the given
+	 * order. A move gets its exact value unless it is proven worse than the
+	 * best found before it, so the first highest value in move order is the
+	 * move to play whatever order the moves were searched in.
+	 */
+	private int[] searchRoot(SearchContext ctx, PackedState root, Player player, int me, int stick, int[] moves,
+			int[] order) {
+		ForkJoinPool searchPool = searchPool();
+		// the trace is printed and recorded in search order, so tracing stays on this thread
+		if (searchPool != null && !ctx.verbose && ctx.trace == null) {
+			return searchRootInParallel(searchPool, ctx, root, me, moves, order);
+		}
+
+		int[] values = new int[moves.length];
+		int bestValue = Integer.MIN_VALUE;
+		int rootNode = SearchTraceRecorder.NONE;
+		if (ctx.trace != null) {
+			rootNode = ctx.trace.nextId();
+			ctx.traceNode = rootNode;
+		}
+		for (int k = 0; k < order.length; k++) {
+			int move = moves[order[k]];
+
+			if (ctx.verbose) {
+				System.out.println("\n┌─ Move " + (k + 1) + "/" + moves.length + " ──────");
+				printMoveInfo(player, move, 1);
 			}
 
-			MovePiece clonedMove = new MovePiece(clonedPiece, move.getTargetIndex());
-			clonedMove.execute(nexState);
-			nexState.switchPlayer();
+			long undo = root.makeMove(me, PackedState.moveFrom(move), PackedState.moveTo(move));
+			root.switchPlayer();
+
+			// a move that ties the best still needs its exact value
+			int alpha = bestValue == Integer.MIN_VALUE ? ctx.minScore - 1 : Math.max(bestValue - 1, ctx.minScore - 1);
+			ctx.traceStick = stick;
+			ctx.traceIndex = order[k];
+			ctx.traceMove = move;
+			int value = expectiminimax(ctx, root, ctx.maxDepth - 1, me, false, alpha, ctx.maxScore + 1);
 
-			int value = expectiminimax(nexState, MAX_DEPTH - 1, player, false);
+			root.switchPlayer();
+			root.unmakeMove(undo);
 
-			if (verboseMode) {
+			if (ctx.verbose) {
 				System.out.printf("Expected Value: %d%n", value);
 				if (value > bestValue) {
 					System.out.println("NEW BEST MOVE!");
 				}
 			}
 
-			if (value > bestValue) {
-				bestValue = value;
-				bestMove = move;
+			values[order[k]] = value;
+			bestValue = Math.max(bestValue, value);
+		}
+		if (ctx.trace != null) {
+			ctx.trace.record(rootNode, SearchTraceRecorder.NONE, SearchTraceRecorder.ROOT, ctx.maxDepth, stick, 0,
+					SearchTraceRecorder.NONE, bestValue, ctx.maxDepth);
+		}
+		return values;
+	}
+
+	/**
+	 * Searches every root move as its own task. Each task works on a copy of
+	 * the root and starts from the best value found so far by any task, minus
+	 * one, so the values settle the same move as the sequential loop whatever
+	 * order the tasks finish in.
+	 */
+	private int[] searchRootInParallel(ForkJoinPool searchPool, SearchContext ctx, PackedState root, int me,
+			int[] moves, int[] order) {
+		AtomicInteger best = new AtomicInteger(ctx.minScore - 1);
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		List<SearchContext> taskContexts = new ArrayList<>();
+		for (int index : order) {
+			int from = PackedState.moveFrom(moves[index]);
+			int to = PackedState.moveTo(moves[index]);
+			PackedState state = root.copy();
+			SearchContext taskContext = ctx.fork();
+			taskContext.splitDepth = splitDepth;
+			taskContexts.add(taskContext);
+			tasks.add(() -> {
+				int alpha = Math.max(best.get() - 1, taskContext.minScore - 1);
+				state.makeMove(me, from, to);
+				state.switchPlayer();
+				int value = expectiminimax(taskContext, state, taskContext.maxDepth - 1, me, false, alpha,
+						taskContext.maxScore + 1);
+				if (value > alpha) {
+					best.accumulateAndGet(value, Math::max);
+				}
+				return value;
+			});
+		}
+
+		int[] values = new int[moves.length];
+		List<Future<Integer>> results = searchPool.invokeAll(tasks);
+		try {
+			for (int k = 0; k < order.length; k++) {
+				values[order[k]] = results.get(k).get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("search interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SearchAbortedException) {
+				throw SearchAbortedException.INSTANCE;
+			}
+			throw new IllegalStateException("root search failed", e.getCause());
+		} finally {
+			// invokeAll has waited for every task
+			for (SearchContext taskContext : taskContexts) {
+				ctx.absorb(taskContext);
+			}
+		}
+		return values;
+	}
+
+	private synchronized ForkJoinPool searchPool() {
+		return pool;
+	}
+
+	private static int[] identityOrder(int size) {
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		return order;
+	}
+
+	/**
+	 * Move indices by value, best first. Moves with equal values keep their
+	 * move order.
+	 */
+	private static int[] orderByValue(int[] values) {
+		int[] order = identityOrder(values.length);
+		// insertion sort, one entry per piece
+		for (int m = 1; m < order.length; m++) {
+			int index = order[m];
+			int k = m - 1;
+			while (k >= 0 && values[order[k]] < values[index]) {
+				order[k + 1] = order[k];
+				k--;
 			}
+			order[k + 1] = index;
 		}
+		return order;
+	}
 
-		if (verboseMode) {
-			printHeader("DECISION SUMMARY");
-			System.out.println("Total Nodes Explored: " + nodeCounter);
-			System.out.println("Best Move Value: " + bestValue);
-			System.out.println("\n> CHOSEN MOVE:");
-			printMoveInfo(bestMove, 0);
-			printSeparator();
+	private static int bestIndex(int[] values) {
+		int best = 0;
+		for (int i = 1; i < values.length; i++) {
+			if (values[i] > values[best]) {
+				best = i;
+			}
 		}
+		return best;
+	}
 
-		return bestMove != null ? bestMove : moves.get(0);
+	/**
+	 * Expected value of the position for the maximizing player, searched with
+	 * the window (alpha, beta). Inside the window the exact value is returned;
+	 * when the value is at most alpha (at least beta) the result is a bound
+	 * between the value and alpha (beta), which is all the caller needs.
+	 */
+	private int expectiminimax(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, boolean isMaxNode,
+			int alpha, int beta) {
+		if (ctx.trace != null) {
+			return recordedNodeValue(ctx, state, depth, maximizingPlayer, isMaxNode, alpha, beta);
+		}
+		return nodeValue(ctx, state, depth, maximizingPlayer, isMaxNode, alpha, beta);
 	}
 
-	private int expectiminimax(GameState state, int depth, Player maximizingPlayer, boolean isMaxNode) {
+	private int nodeValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, boolean isMaxNode,
+			int alpha, int beta) {
+		ctx.countNode();
+		// the table values the race, finished races included
+		if (ctx.tablebase != null && EndgameTablebase.covers(state)) {
+			ctx.endgameNodes++;
+			int value = endgameValue(ctx.tablebase, state, maximizingPlayer, isMaxNode);
+			if (ctx.verbose) {
+				printNodeInfo(ctx, "ENDGAME", depth, String.format("Value=%d (tablebase)", value));
+			}
+			return value;
+		}
 		if (depth == 0 || isTerminal(state)) {
 			int evalValue = evaluate(state, maximizingPlayer);
+			if (depth == 0) {
+				ctx.leafNodes++;
+			} else {
+				ctx.terminalNodes++;
+			}
 
-			if (verboseMode) {
+			if (ctx.verbose) {
 				String nodeType = isTerminal(state) ? "TERMINAL" : "LEAF";
 				String explanation = isTerminal(state)
 						? String.format("Eval=%d (game over)", evalValue)
 						: String.format("Eval=%d (position score)", evalValue);
-				printNodeInfo(nodeType, depth, explanation);
+				printNodeInfo(ctx, nodeType, depth, explanation);
 			}
 
 			return evalValue;
 		}
 
+		long key = TranspositionTable.key(state.hash(), TranspositionTable.CHANCE, maximizingPlayer, 0);
+		long entry = table.probe(key);
+		if (TranspositionTable.cutoff(entry, depth, alpha, beta)) {
+			ctx.transpositionHits++;
+			if (ctx.verbose) {
+				printNodeInfo(ctx, "CACHED", depth, String.format("Value=%d (transposition)", TranspositionTable.value(entry)));
+			}
+			return TranspositionTable.value(entry);
+		}
+
+		int value;
 		if (isMaxNode) {
-			return maxValue(state, depth, maximizingPlayer);
+			value = maxValue(ctx, state, depth, maximizingPlayer, alpha, beta);
 		} else {
-			return minValue(state, depth, maximizingPlayer);
+			value = minValue(ctx, state, depth, maximizingPlayer, alpha, beta);
 		}
+		table.store(key, depth, TranspositionTable.CHANCE, boundType(value, alpha, beta), value);
+		return value;
 	}
 
-	private int minValue(GameState state, int depth, Player maximizingPlayer) {
-		if (verboseMode) {
-			printNodeInfo("MIN", depth, "Opponent's turn");
-		}
-		return chanceValue(state, depth, maximizingPlayer, false);
+	/**
+	 * Searches the node and records it under the node being searched, with
+	 * the edge its parent set before the call. The node is written once its
+	 * value is known, so a search aborted by its budget leaves its open
+	 * nodes out.
+	 */
+	private int recordedNodeValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer,
+			boolean isMaxNode, int alpha, int beta) {
+		int parent = ctx.traceNode;
+		int stick = ctx.traceStick;
+		int index = ctx.traceIndex;
+		int move = ctx.traceMove;
+		int type = nodeType(ctx, state, depth, maximizingPlayer, isMaxNode, alpha, beta);
+		int id = ctx.trace.nextId();
+
+		ctx.traceNode = id;
+		int value = nodeValue(ctx, state, depth, maximizingPlayer, isMaxNode, alpha, beta);
+		ctx.traceNode = parent;
+
+		ctx.trace.record(id, parent, type, depth, stick, index, move, value, ctx.maxDepth);
+		return value;
 	}
 
-	private int maxValue(GameState state, int depth, Player maximizingPlayer) {
-		if (verboseMode) {
-			printNodeInfo("MAX", depth, "Computer's turn");
+	/**
+	 * How nodeValue is about to settle the node, as a trace node type.
+	 */
+	private int nodeType(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, boolean isMaxNode,
+			int alpha, int beta) {
+		if (ctx.tablebase != null && EndgameTablebase.covers(state)) {
+			return SearchTraceRecorder.ENDGAME;
+		}
+		if (depth == 0) {
+			return SearchTraceRecorder.LEAF;
+		}
+		if (isTerminal(state)) {
+			return SearchTraceRecorder.TERMINAL;
+		}
+		long key = TranspositionTable.key(state.hash(), TranspositionTable.CHANCE, maximizingPlayer, 0);
+		if (TranspositionTable.cutoff(table.probe(key), depth, alpha, beta)) {
+			return SearchTraceRecorder.CACHED;
 		}
-		return chanceValue(state, depth, maximizingPlayer, true);
+		return isMaxNode ? SearchTraceRecorder.MAX : SearchTraceRecorder.MIN;
 	}
 
-	private int chanceValue(GameState state, int depth, Player maximizingPlayer, boolean isOurTurn) {
-		double expectedValue = 0.0;
+	private int minValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, int alpha, int beta) {
+		if (ctx.verbose) {
+			printNodeInfo(ctx, "MIN", depth, "Opponent's turn");
+		}
+		return chanceValue(ctx, state, depth, maximizingPlayer, false, alpha, beta);
+	}
 
-		double[] probabilities = {
-				0.25, // 1: 4/16
-				0.375, // 2: 6/16
-				0.25, // 3: 4/16
-				0.0625, // 4: 1/16
-				0.0625 // 5: 1/16
-		};
+	private int maxValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, int alpha, int beta) {
+		if (ctx.verbose) {
+			printNodeInfo(ctx, "MAX", depth, "Computer's turn");
+		}
+		return chanceValue(ctx, state, depth, maximizingPlayer, true, alpha, beta);
+	}
 
-		int[] stickValues = { 1, 2, 3, 4, 5 };
+	/**
+	 * Probability-weighted value over the five stick results, with Ballard's
+	 * Star1/Star2 pruning.
+	 *
+	 * Every stick's value lies between a lower and an upper bound (the
+	 * evaluation range to start with). Star2 first plays only the best-ordered
+	 * move for each stick: on our turn that raises the stick's lower bound, on
+	 * the opponent's turn it lowers the upper bound, and the bounds alone may
+	 * already put the node outside the window. Star1 then searches the sticks
+	 * in order, each with the narrowest window that still decides whether the
+	 * node can end up inside (alpha, beta).
+	 *
+	 * All bound arithmetic repeats the exact double additions of the plain
+	 * weighted sum, so a cut is only taken when the truncated result is
+	 * proven to be outside the window and the value returned otherwise is
+	 * bit-identical to the full expectiminimax.
+	 */
+	private int chanceValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, boolean isOurTurn,
+			int alpha, int beta) {
+		double[] probabilities = STICK_PROBABILITIES;
+		int[] stickValues = STICK_VALUES;
 
-		if (verboseMode) {
-			printNodeInfo("CHANCE", depth,
+		if (ctx.verbose) {
+			printNodeInfo(ctx, "CHANCE", depth,
 					String.format("Expected value = Σ(p(stick) × best_value(stick)) | %s turn",
 							isOurTurn ? "Computer's" : "Opponent's"));
 		}
 
+		ctx.chanceNodes++;
+		int currentPlayer = isOurTurn ? maximizingPlayer : opponentOf(maximizingPlayer);
+		SearchContext.Frame frame = ctx.frame(depth);
+		int[] moves = frame.moves;
+		int[] moveCounts = frame.moveCounts;
+		int[] lower = frame.lower;
+		int[] upper = frame.upper;
+		int[] values = frame.values;
+
+		for (int i = 0; i < STICK_COUNT; i++) {
+			moveCounts[i] = state.generateMoves(currentPlayer, stickValues[i], moves, i * MAX_MOVES);
+			orderMoves(state, currentPlayer, maximizingPlayer, isOurTurn, moves, i * MAX_MOVES, moveCounts[i],
+					frame.scores);
+			lower[i] = ctx.minScore;
+			upper[i] = ctx.maxScore;
+		}
+		if (depth >= ctx.splitDepth) {
+			return splitChanceValue(ctx, state, depth, maximizingPlayer, isOurTurn, moves, moveCounts, values);
+		}
+
+		// Star2: probe the first move of every stick
+		for (int i = 0; i < STICK_COUNT; i++) {
+			if (moveCounts[i] == 0) {
+				continue;
+			}
+			int move = moves[i * MAX_MOVES];
+			if (isOurTurn) {
+				int threshold = failHighThreshold(ctx, lower, i, lower, beta);
+				int probe = moveValue(ctx, state, depth, maximizingPlayer, currentPlayer, stickValues[i], 0, move, true,
+						lower[i] - 1, threshold);
+				// the best move is at least as good as the probed one
+				lower[i] = Math.max(lower[i], probe);
+				int bound = (int) weightedSum(lower, STICK_COUNT, 0, lower);
+				if (bound >= beta) {
+					ctx.star2Cutoffs++;
+					printCutoff(ctx, depth, "Star2", bound);
+					return bound;
+				}
+			} else {
+				int threshold = failLowThreshold(ctx, upper, i, upper, alpha);
+				int probe = moveValue(ctx, state, depth, maximizingPlayer, currentPlayer, stickValues[i], 0, move, false,
+						threshold, upper[i] + 1);
+				upper[i] = Math.min(upper[i], probe);
+				int bound = (int) weightedSum(upper, STICK_COUNT, 0, upper);
+				if (bound <= alpha) {
+					ctx.star2Cutoffs++;
+					printCutoff(ctx, depth, "Star2", bound);
+					return bound;
+				}
+			}
+		}
+
+		// Star1: search the sticks in order with windows derived from the bounds
 		for (int i = 0; i < stickValues.length; i++) {
 			int stickThrow = stickValues[i];
 			double probability = probabilities[i];
 
-			Player currentPlayer = isOurTurn ? maximizingPlayer : getOpponent(state, maximizingPlayer);
-
-			List<MovePiece> moves = generateMoves(state, currentPlayer, stickThrow);
-
-			if (moves.isEmpty()) {
-				GameState nextState = state.clone();
-				nextState.switchPlayer();
-				int value = expectiminimax(nextState, depth - 1, maximizingPlayer, !isOurTurn);
+			int best = (int) weightedSum(values, i, upper[i], upper);
+			if (best <= alpha) {
+				ctx.star1Cutoffs++;
+				printCutoff(ctx, depth, "Star1", best);
+				return best;
+			}
+			int worst = (int) weightedSum(values, i, lower[i], lower);
+			if (worst >= beta) {
+				ctx.star1Cutoffs++;
+				printCutoff(ctx, depth, "Star1", worst);
+				return worst;
+			}
+			int childAlpha = failLowThreshold(ctx, values, i, upper, alpha);
+			int childBeta = failHighThreshold(ctx, values, i, lower, beta);
+
+			int value = stickValue(ctx, state, depth, maximizingPlayer, isOurTurn, stickThrow, moves, i, moveCounts[i],
+					childAlpha, childBeta);
+			if (value <= childAlpha) {
+				int bound = (int) weightedSum(values, i, value, upper);
+				if (bound <= alpha) {
+					ctx.star1Cutoffs++;
+					printCutoff(ctx, depth, "Star1", bound);
+					return bound;
+				}
+				// not expected to happen: the threshold guarantees the cut
+				value = stickValue(ctx, state, depth, maximizingPlayer, isOurTurn, stickThrow, moves, i, moveCounts[i],
+						ctx.minScore - 1, ctx.maxScore + 1);
+			} else if (value >= childBeta) {
+				int bound = (int) weightedSum(values, i, value, lower);
+				if (bound >= beta) {
+					ctx.star1Cutoffs++;
+					printCutoff(ctx, depth, "Star1", bound);
+					return bound;
+				}
+				value = stickValue(ctx, state, depth, maximizingPlayer, isOurTurn, stickThrow, moves, i, moveCounts[i],
+						ctx.minScore - 1, ctx.maxScore + 1);
+			}
+			values[i] = value;
 
-				if (verboseMode) {
-					printIndented(MAX_DEPTH - depth + 1,
+			if (ctx.verbose) {
+				if (moveCounts[i] == 0) {
+					printIndented(ctx, ctx.maxDepth - depth + 1,
 							String.format("  Stick=%d (p=%.4f): No moves → skip → value=%d",
 									stickThrow, probability, value));
+				} else {
+					printIndented(ctx, ctx.maxDepth - depth + 1,
+							String.format("  Stick=%d (p=%.1f%%): %d moves → Best %s value: %d",
+									stickThrow, probability * 100, moveCounts[i], isOurTurn ? "MAX" : "MIN", value));
 				}
+			}
+		}
 
-				expectedValue += probability * value;
-			} else {
-				int bestValue;
-
-				if (isOurTurn) {
-					bestValue = Integer.MIN_VALUE;
+		double expectedValue = weightedSum(values, STICK_COUNT, 0, values);
 
-					if (verboseMode) {
-						printIndented(MAX_DEPTH - depth + 1,
-								String.format("  Stick=%d (p=%.1f%%): %d moves → pick MAX value",
-										stickThrow, probability * 100, moves.size()));
-					}
+		if (ctx.verbose) {
+			// Show calculation breakdown for educational purposes
+			printIndented(ctx, ctx.maxDepth - depth,
+					String.format("    Expected value: %.2f → %d (weighted average of all stick outcomes)",
+							expectedValue, (int) expectedValue));
+		}
 
-					for (MovePiece move : moves) {
-						GameState nextState = state.clone();
+		return (int) expectedValue;
+	}
 
-						Piece clonedPiece = findPieceInState(nextState, move.getPiece());
+	/**
+	 * The chance node searched as one fork-join task per stick. The sticks
+	 * get no window from each other, so every stick value is exact and the
+	 * node's value is the plain weighted sum in stick order, the same as the
+	 * sequential search returns whenever its value is inside the window and
+	 * whatever order the tasks finish in.
+	 */
+	private int splitChanceValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer,
+			boolean isOurTurn, int[] moves, int[] moveCounts, int[] values) {
+		StickTask[] tasks = new StickTask[STICK_COUNT];
+		for (int i = 0; i < STICK_COUNT; i++) {
+			tasks[i] = new StickTask(ctx.fork(), state.copy(), depth, maximizingPlayer, isOurTurn, STICK_VALUES[i],
+					Arrays.copyOfRange(moves, i * MAX_MOVES, i * MAX_MOVES + moveCounts[i]));
+		}
+		try {
+			ForkJoinTask.invokeAll(tasks);
+		} catch (SearchAbortedException e) {
+			throw SearchAbortedException.INSTANCE;
+		} finally {
+			for (StickTask task : tasks) {
+				if (task.isDone()) {
+					ctx.absorb(task.ctx);
+				}
+			}
+		}
+		for (int i = 0; i < STICK_COUNT; i++) {
+			values[i] = tasks[i].getRawResult();
+		}
+		return (int) weightedSum(values, STICK_COUNT, 0, values);
+	}
 
-						if (clonedPiece != null) {
-							MovePiece clonedMove = new MovePiece(clonedPiece, move.getTargetIndex());
-							clonedMove.execute(nextState);
-							nextState.switchPlayer();
+	/**
+	 * Exact value of one stick result on a copy of the position. The first
+	 * move, the best by move ordering, is searched on its own; the others
+	 * then only have to beat it and are searched as tasks of their own.
+	 */
+	private final class StickTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		final SearchContext ctx;
+		private final PackedState state;
+		private final int depth;
+		private final int maximizingPlayer;
+		private final boolean isOurTurn;
+		private final int stickThrow;
+		private final int[] moves;
+
+		StickTask(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, boolean isOurTurn,
+				int stickThrow, int[] moves) {
+			this.ctx = ctx;
+			this.state = state;
+			this.depth = depth;
+			this.maximizingPlayer = maximizingPlayer;
+			this.isOurTurn = isOurTurn;
+			this.stickThrow = stickThrow;
+			this.moves = moves;
+		}
 
-							int value = expectiminimax(nextState, depth - 1, maximizingPlayer, false);
-							bestValue = Math.max(bestValue, value);
-						}
-					}
+		@Override
+		protected Integer compute() {
+			int alpha = ctx.minScore - 1;
+			int beta = ctx.maxScore + 1;
+			if (moves.length == 0) {
+				return stickValue(ctx, state, depth, maximizingPlayer, isOurTurn, stickThrow, moves, 0, 0, alpha, beta);
+			}
+			if (isOurTurn) {
+				ctx.maxNodes++;
+			} else {
+				ctx.minNodes++;
+			}
+			int currentPlayer = isOurTurn ? maximizingPlayer : opponentOf(maximizingPlayer);
+			int first = moveValue(ctx, state, depth, maximizingPlayer, currentPlayer, stickThrow, 0, moves[0],
+					isOurTurn, alpha, beta);
+			if (moves.length == 1) {
+				return first;
+			}
 
-					if (verboseMode) {
-						printIndented(MAX_DEPTH - depth + 1,
-								String.format("    → Best MAX value: %d", bestValue));
+			List<MoveTask> siblings = new ArrayList<>();
+			for (int m = 1; m < moves.length; m++) {
+				siblings.add(new MoveTask(ctx.fork(), state.copy(), depth, maximizingPlayer, currentPlayer, stickThrow,
+						m, moves[m], isOurTurn, isOurTurn ? first : alpha, isOurTurn ? beta : first));
+			}
+			try {
+				ForkJoinTask.invokeAll(siblings);
+			} finally {
+				for (MoveTask sibling : siblings) {
+					if (sibling.isDone()) {
+						ctx.absorb(sibling.ctx);
 					}
-				} else {
-					bestValue = Integer.MAX_VALUE;
+				}
+			}
+			// a sibling that does not beat the first move returns a bound no better than it
+			int best = first;
+			for (MoveTask sibling : siblings) {
+				int value = sibling.getRawResult();
+				best = isOurTurn ? Math.max(best, value) : Math.min(best, value);
+			}
+			return best;
+		}
+	}
 
-					if (verboseMode) {
-						printIndented(MAX_DEPTH - depth + 1,
-								String.format("  Stick=%d (p=%.1f%%): %d moves → pick MIN value",
-										stickThrow, probability * 100, moves.size()));
-					}
+	/**
+	 * moveValue on a copy of the position.
+	 */
+	private final class MoveTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		final SearchContext ctx;
+		private final PackedState state;
+		private final int depth;
+		private final int maximizingPlayer;
+		private final int currentPlayer;
+		private final int stickThrow;
+		private final int index;
+		private final int move;
+		private final boolean isOurTurn;
+		private final int alpha;
+		private final int beta;
+
+		MoveTask(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, int currentPlayer,
+				int stickThrow, int index, int move, boolean isOurTurn, int alpha, int beta) {
+			this.ctx = ctx;
+			this.state = state;
+			this.depth = depth;
+			this.maximizingPlayer = maximizingPlayer;
+			this.currentPlayer = currentPlayer;
+			this.stickThrow = stickThrow;
+			this.index = index;
+			this.move = move;
+			this.isOurTurn = isOurTurn;
+			this.alpha = alpha;
+			this.beta = beta;
+		}
 
-					for (MovePiece move : moves) {
-						GameState nextState = state.clone();
+		@Override
+		protected Integer compute() {
+			return moveValue(ctx, state, depth, maximizingPlayer, currentPlayer, stickThrow, index, move, isOurTurn,
+					alpha, beta);
+		}
+	}
 
-						Piece clonedPiece = findPieceInState(nextState, move.getPiece());
+	/**
+	 * Value of one stick result: the best move for the side to move, or the
+	 * position with the turn passed when there is no legal move.
+	 */
+	private int stickValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, boolean isOurTurn, int stickThrow,
+			int[] moves, int stickIndex, int moveCount, int alpha, int beta) {
+		if (moveCount == 0) {
+			state.switchPlayer();
+			ctx.traceStick = stickThrow;
+			ctx.traceIndex = 0;
+			ctx.traceMove = SearchTraceRecorder.NONE;
+			int value = expectiminimax(ctx, state, depth - 1, maximizingPlayer, !isOurTurn, alpha, beta);
+			state.switchPlayer();
+			return value;
+		}
+		return bestMoveValue(ctx, state, depth, maximizingPlayer, isOurTurn, stickThrow, moves, stickIndex * MAX_MOVES,
+				moveCount, alpha, beta);
+	}
 
-						if (clonedPiece != null) {
-							MovePiece clonedMove = new MovePiece(clonedPiece, move.getTargetIndex());
-							clonedMove.execute(nextState);
-							nextState.switchPlayer();
+	/**
+	 * Value of the best move for the side to move with one stick result: the
+	 * highest child value on our turn, the lowest on the opponent's.
+	 */
+	private int bestMoveValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, boolean isOurTurn,
+			int stickThrow, int[] moves, int offset, int moveCount, int alpha, int beta) {
+		int type = isOurTurn ? TranspositionTable.MAX : TranspositionTable.MIN;
+		long key = TranspositionTable.key(state.hash(), type, maximizingPlayer, stickThrow);
+		long entry = table.probe(key);
+		if (TranspositionTable.cutoff(entry, depth, alpha, beta)) {
+			ctx.transpositionHits++;
+			return TranspositionTable.value(entry);
+		}
+		if (isOurTurn) {
+			ctx.maxNodes++;
+		} else {
+			ctx.minNodes++;
+		}
 
-							int value = expectiminimax(nextState, depth - 1, maximizingPlayer, true);
-							bestValue = Math.min(bestValue, value);
-						}
-					}
+		int currentPlayer = isOurTurn ? maximizingPlayer : opponentOf(maximizingPlayer);
+		int bestValue = isOurTurn ? Integer.MIN_VALUE : Integer.MAX_VALUE;
 
-					if (verboseMode) {
-						printIndented(MAX_DEPTH - depth + 1,
-								String.format("    → Best MIN value: %d", bestValue));
-					}
+		for (int m = offset; m < offset + moveCount; m++) {
+			if (isOurTurn) {
+				int value = moveValue(ctx, state, depth, maximizingPlayer, currentPlayer, stickThrow, m - offset,
+						moves[m], true, Math.max(alpha, bestValue), beta);
+				bestValue = Math.max(bestValue, value);
+				if (bestValue >= beta) {
+					ctx.moveCutoffs++;
+					break;
+				}
+			} else {
+				int value = moveValue(ctx, state, depth, maximizingPlayer, currentPlayer, stickThrow, m - offset,
+						moves[m], false, alpha, Math.min(beta, bestValue));
+				bestValue = Math.min(bestValue, value);
+				if (bestValue <= alpha) {
+					ctx.moveCutoffs++;
+					break;
 				}
-
-				expectedValue += probability * bestValue;
 			}
 		}
 
-		if (verboseMode) {
-			// Show calculation breakdown for educational purposes
-			printIndented(MAX_DEPTH - depth,
-					String.format("    Expected value: %.2f → %d (weighted average of all stick outcomes)",
-							expectedValue, (int) expectedValue));
-		}
+		table.store(key, depth, type, boundType(bestValue, alpha, beta), bestValue);
+		return bestValue;
+	}
 
-		return (int) expectedValue;
+	/**
+	 * Value of the position after the move. The stick thrown and the move's
+	 * index among that stick's moves only label the child in a recorded
+	 * trace.
+	 */
+	private int moveValue(SearchContext ctx, PackedState state, int depth, int maximizingPlayer, int currentPlayer,
+			int stickThrow, int index, int move, boolean isOurTurn, int alpha, int beta) {
+		long undo = state.makeMove(currentPlayer, PackedState.moveFrom(move), PackedState.moveTo(move));
+		state.switchPlayer();
+
+		ctx.traceStick = stickThrow;
+		ctx.traceIndex = index;
+		ctx.traceMove = move;
+
+		int value = expectiminimax(ctx, state, depth - 1, maximizingPlayer, !isOurTurn, alpha, beta);
+
+		state.switchPlayer();
+		state.unmakeMove(undo);
+		return value;
 	}
 
-	private Piece findPieceInState(GameState state, Piece originalPiece) {
-		for (Piece p : state.pieces) {
-			if (p.getOwner().equals(originalPiece.getOwner()) &&
-					p.getPosition() == originalPiece.getPosition()) {
-				return p;
+	/**
+	 * Orders one stick's moves best first for the side to move by the value
+	 * the table holds for the resulting position, or its static evaluation,
+	 * so the Star2 probe and the alpha-beta loop see the most promising move
+	 * early. The scores array is scratch space of at least moveCount slots.
+	 */
+	private void orderMoves(PackedState state, int currentPlayer, int maximizingPlayer, boolean isOurTurn,
+			int[] moves, int offset, int moveCount, int[] scores) {
+		if (moveCount < 2) {
+			return;
+		}
+		for (int m = 0; m < moveCount; m++) {
+			int move = moves[offset + m];
+			long undo = state.makeMove(currentPlayer, PackedState.moveFrom(move), PackedState.moveTo(move));
+			state.switchPlayer();
+			// an exact value from an earlier iteration beats the static evaluation
+			long entry = table.probe(TranspositionTable.key(state.hash(), TranspositionTable.CHANCE, maximizingPlayer, 0));
+			int score = entry != TranspositionTable.MISS && TranspositionTable.bound(entry) == TranspositionTable.EXACT
+					? TranspositionTable.value(entry)
+					: evaluate(state, maximizingPlayer);
+			state.switchPlayer();
+			state.unmakeMove(undo);
+			scores[m] = isOurTurn ? score : -score;
+		}
+		// insertion sort, at most seven moves
+		for (int m = 1; m < moveCount; m++) {
+			int move = moves[offset + m];
+			int score = scores[m];
+			int k = m - 1;
+			while (k >= 0 && scores[k] < score) {
+				scores[k + 1] = scores[k];
+				moves[offset + k + 1] = moves[offset + k];
+				k--;
 			}
+			scores[k + 1] = score;
+			moves[offset + k + 1] = move;
 		}
-		return null;
 	}
 
-	private int evaluate(GameState state, Player maximizingPlayer) {
-		int score = 0;
-		Player opponent = getOpponent(state, maximizingPlayer);
+	// ==================== STAR1/STAR2 BOUNDS ====================
 
-		List<Piece> myPieces = state.getPiecesFor(maximizingPlayer);
-		List<Piece> opponentPieces = state.getPiecesFor(opponent);
+	/**
+	 * The weighted sum over the sticks in the order the search adds it up:
+	 * known values before stick i, w for stick i and bounds after it.
+	 */
+	private static double weightedSum(int[] values, int i, int w, int[] bounds) {
+		double sum = 0.0;
+		for (int j = 0; j < STICK_COUNT; j++) {
+			int value = j < i ? values[j] : (j == i ? w : bounds[j]);
+			sum += STICK_PROBABILITIES[j] * value;
+		}
+		return sum;
+	}
 
-		// Position evaluation with multipliers
-		for (Piece piece : myPieces) {
-			int position = piece.getPosition();
-			if (position > 30) {
-				score += WIN_BONUS;
-			} else {
-				int multiplier = 1;
-				if (position >= 20 && position <= 30) {
-					multiplier = ADVANCED_POSITION_MULTIPLIER;
-				} else if (position >= 10 && position < 20) {
-					multiplier = MID_POSITION_MULTIPLIER;
-				} else {
-					multiplier = EARLY_POSITION_MULTIPLIER;
-				}
-				score += position * POSITION_WEIGHT * multiplier;
-			}
+	/**
+	 * Largest stick-i value that proves the node is at most alpha with the
+	 * given upper bounds on the later sticks, or minScore - 1 if none does.
+	 */
+	private int failLowThreshold(SearchContext ctx, int[] values, int i, int[] upper, int alpha) {
+		double rest = weightedSum(values, i, 0, upper);
+		long w = clamp(ctx, (long) Math.floor((alpha + 1 - rest) / STICK_PROBABILITIES[i]));
+		while (w >= ctx.minScore && (int) weightedSum(values, i, (int) w, upper) > alpha) {
+			w--;
 		}
+		while (w <= ctx.maxScore && (int) weightedSum(values, i, (int) w + 1, upper) <= alpha) {
+			w++;
+		}
+		return (int) w;
+	}
 
-		for (Piece piece : opponentPieces) {
-			int position = piece.getPosition();
-			if (position > 30) {
-				score -= WIN_BONUS;
-			} else {
-				int multiplier = 1;
-				if (position >= 20 && position <= 30) {
-					multiplier = ADVANCED_POSITION_MULTIPLIER;
-				} else if (position >= 10 && position < 20) {
-					multiplier = MID_POSITION_MULTIPLIER;
-				} else {
-					multiplier = EARLY_POSITION_MULTIPLIER;
-				}
-				score -= position * POSITION_WEIGHT * multiplier;
-			}
+	/**
+	 * Smallest stick-i value that proves the node is at least beta with the
+	 * given lower bounds on the later sticks, or maxScore + 1 if none does.
+	 */
+	private int failHighThreshold(SearchContext ctx, int[] values, int i, int[] lower, int beta) {
+		double rest = weightedSum(values, i, 0, lower);
+		long w = clamp(ctx, (long) Math.ceil((beta - 1 - rest) / STICK_PROBABILITIES[i]));
+		while (w <= ctx.maxScore && (int) weightedSum(values, i, (int) w, lower) < beta) {
+			w++;
+		}
+		while (w >= ctx.minScore && (int) weightedSum(values, i, (int) w - 1, lower) >= beta) {
+			w--;
 		}
+		return (int) w;
+	}
 
-		// Special cells
-		if (hasPieceOnCell(state, maximizingPlayer, 15)) {
-			score += SPECIAL_CELL_BONUS;
+	private static long clamp(SearchContext ctx, long value) {
+		return Math.max(ctx.minScore - 1L, Math.min(ctx.maxScore + 1L, value));
+	}
+
+	private static int boundType(int value, int alpha, int beta) {
+		if (value <= alpha) {
+			return TranspositionTable.UPPER_BOUND;
 		}
-		if (hasPieceOnCell(state, opponent, 15)) {
-			score -= SPECIAL_CELL_BONUS;
+		if (value >= beta) {
+			return TranspositionTable.LOWER_BOUND;
 		}
+		return TranspositionTable.EXACT;
+	}
 
-		if (hasPieceOnCell(state, maximizingPlayer, 26)) {
-			score += SPECIAL_CELL_BONUS;
+	private void printCutoff(SearchContext ctx, int depth, String kind, int bound) {
+		if (ctx.verbose) {
+			printIndented(ctx, ctx.maxDepth - depth + 1, String.format("  %s cutoff → bound=%d", kind, bound));
 		}
-		if (hasPieceOnCell(state, opponent, 26)) {
-			score -= SPECIAL_CELL_BONUS;
+	}
+
+	/**
+	 * Static evaluation for the maximizing player: the difference of the two
+	 * sides' piece-square sums, which the state keeps up to date as pieces
+	 * move. The state must come from {@link #pack(GameState)}.
+	 */
+	int evaluate(PackedState state, int maximizingPlayer) {
+		return state.score(maximizingPlayer) - state.score(opponentOf(maximizingPlayer));
+	}
+
+	/**
+	 * Packs the state for the search, with this evaluation's piece-square
+	 * table.
+	 */
+	static PackedState pack(GameState state) {
+		PackedState packed = PackedState.fromGameState(state);
+		packed.setPieceSquareTable(PIECE_SQUARE);
+		return packed;
+	}
+
+	/**
+	 * Context for a new search from this root. Pieces only ever leave the
+	 * game, so every evaluation lies between all of ours on the worst square
+	 * with all of the opponent's borne off, and the reverse.
+	 */
+	private static SearchContext newContext(PackedState state, int maximizingPlayer, int depth, boolean verbose,
+			SearchBudget budget, EndgameTablebase tablebase, SearchTraceRecorder trace) {
+		int mine = state.pieceCount(maximizingPlayer);
+		int theirs = state.pieceCount(opponentOf(maximizingPlayer));
+		return new SearchContext(depth, verbose,
+				mine * MIN_PIECE_SCORE - theirs * MAX_PIECE_SCORE,
+				mine * MAX_PIECE_SCORE - theirs * MIN_PIECE_SCORE, budget, tablebase, trace);
+	}
+
+	/**
+	 * Value of a tablebase position for the maximizing player: the win
+	 * probability spread over the evaluation range of the position's pieces,
+	 * so a certain win is worth more than any evaluation and a certain loss
+	 * less. The range only depends on the position, so the value can be
+	 * cached like any other.
+	 */
+	private static int endgameValue(EndgameTablebase tablebase, PackedState state, int maximizingPlayer,
+			boolean isMaxNode) {
+		int mover = isMaxNode ? maximizingPlayer : opponentOf(maximizingPlayer);
+		int chance = EndgameTablebase.winChance(tablebase.probe(state, mover));
+		if (!isMaxNode) {
+			chance = EndgameTablebase.PROBABILITY_SCALE - chance;
 		}
+		int mine = state.pieceCount(maximizingPlayer);
+		int theirs = state.pieceCount(opponentOf(maximizingPlayer));
+		int lowest = mine * MIN_PIECE_SCORE - theirs * MAX_PIECE_SCORE;
+		int highest = mine * MAX_PIECE_SCORE - theirs * MIN_PIECE_SCORE;
+		return lowest + (int) (((long) (highest - lowest) * chance + EndgameTablebase.PROBABILITY_SCALE / 2)
+				/ EndgameTablebase.PROBABILITY_SCALE);
+	}
 
-		// Endgame bonus
-		for (Piece piece : myPieces) {
-			int position = piece.getPosition();
-			if (position >= 26 && position <= 30) {
-				int bonus = 20 + (position - 25) * 15;
-				score += bonus;
-			}
+	/**
+	 * Per-piece terms of the evaluation for one piece on each position:
+	 * position with multipliers (or the win bonus once borne off), the special
+	 * cell bonus, the endgame bonus and the early game penalty.
+	 */
+	private static int pieceScore(int position) {
+		if (position > 30) {
+			return WIN_BONUS;
 		}
-		for (Piece piece : opponentPieces) {
-			int position = piece.getPosition();
-			if (position >= 26 && position <= 30) {
-				int penalty = 20 + (position - 25) * 15;
-				score -= penalty;
-			}
+
+		int multiplier = 1;
+		if (position >= 20 && position <= 30) {
+			multiplier = ADVANCED_POSITION_MULTIPLIER;
+		} else if (position >= 10 && position < 20) {
+			multiplier = MID_POSITION_MULTIPLIER;
+		} else {
+			multiplier = EARLY_POSITION_MULTIPLIER;
 		}
+		int score = position * POSITION_WEIGHT * multiplier;
 
-		// Early game penalty
-		for (Piece piece : myPieces) {
-			int position = piece.getPosition();
-			if (position < 10) {
-				int penalty = position <= 3 ? 30 : (position <= 6 ? 20 : 10);
-				score -= penalty;
-			}
+		// Special cells (a board cell holds at most one piece)
+		if (position == 15 || position == 26) {
+			score += SPECIAL_CELL_BONUS;
 		}
-		for (Piece piece : opponentPieces) {
-			int position = piece.getPosition();
-			if (position < 10) {
-				int reward = position <= 3 ? 30 : (position <= 6 ? 20 : 10);
-				score += reward;
-			}
+
+		// Endgame bonus
+		if (position >= 26) {
+			score += 20 + (position - 25) * 15;
 		}
 
+		// Early game penalty
+		if (position < 10) {
+			score -= position <= 3 ? 30 : (position <= 6 ? 20 : 10);
+		}
 		return score;
 	}
 
-	private boolean isTerminal(GameState state) {
-		for (Player player : state.players) {
-			List<Piece> pieces = state.getPiecesFor(player);
-			boolean allRemoved = true;
-
-			for (Piece piece : pieces) {
-				if (piece.getPosition() <= 30) {
-					allRemoved = false;
-					break;
-				}
-			}
-
-			if (allRemoved) {
+	private boolean isTerminal(PackedState state) {
+		for (int player = 0; player < PackedState.PLAYER_COUNT; player++) {
+			if (state.allBorneOff(player)) {
 				return true;
 			}
 		}
 		return false;
 	}
 
-	private Player getOpponent(GameState state, Player player) {
-		for (Player p : state.players) {
-			if (!p.equals(player)) {
-				return p;
-			}
-		}
-		return null;
+	private static int opponentOf(int player) {
+		return 1 - player;
 	}
 
-	private boolean hasPieceOnCell(GameState state, Player player, int cellNumber) {
-		List<Piece> pieces = state.getPiecesFor(player);
-		for (Piece piece : pieces) {
-			if (piece.getPosition() == cellNumber) {
-				return true;
+	private static int indexOf(GameState state, Player player) {
+		for (int i = 0; i < state.players.length; i++) {
+			if (state.players[i].equals(player)) {
+				return i;
 			}
 		}
-		return false;
+		return -1;
 	}
 
-	private List<MovePiece> generateMoves(GameState state, Player player, int stickThrow) {
-		List<MovePiece> moves = new ArrayList<>();
+	/**
+	 * Legal root moves in piece order, in the PackedState move encoding.
+	 */
+	private int[] generateMoves(GameState state, Player player, int stickThrow) {
 		List<Piece> playerPieces = state.getPiecesFor(player);
+		int[] moves = new int[playerPieces.size()];
+		int count = 0;
 
 		for (Piece piece : playerPieces) {
 			int currentPos = piece.getPosition();
@@ -492,45 +1490,55 @@ public class BotStrategy implements MoveStrategy {
 
 			int targetPos = currentPos + stickThrow;
 
-			if (targetPos <= 30 || (currentPos >= 26 && currentPos <= 30)) {
-				MovePiece move = new MovePiece(piece, targetPos);
-
-				if (RuleEngine.isLegal(move, state)) {
-					moves.add(move);
-				}
+			if ((targetPos <= 30 || (currentPos >= 26 && currentPos <= 30))
+					&& RuleEngine.isLegal(state, player, currentPos, targetPos)) {
+				moves[count++] = PackedState.move(currentPos, targetPos);
 			}
 		}
 
-		return moves;
+		return Arrays.copyOf(moves, count);
+	}
+
+	/**
+	 * The move for the player's first piece on the move's source position,
+	 * the piece generateMoves found it for.
+	 */
+	static MovePiece toMovePiece(GameState state, Player player, int move) {
+		for (Piece piece : state.getPiecesFor(player)) {
+			if (piece.getPosition() == PackedState.moveFrom(move)) {
+				return new MovePiece(piece, PackedState.moveTo(move));
+			}
+		}
+		throw new IllegalStateException("no piece on " + PackedState.moveFrom(move));
 	}
 
 	// ==================== VERBOSE UTILITY METHODS ====================
 
-	private void printMoveInfo(MovePiece move, int indentLevel) {
-		if (!verboseMode || move == null)
+	private void printMoveInfo(Player player, int move, int indentLevel) {
+		if (!verbose)
 			return;
 
 		String indent = "  ".repeat(indentLevel);
-		Piece piece = move.getPiece();
-		int from = piece.getPosition();
-		int to = move.getTargetIndex();
+		int from = PackedState.moveFrom(move);
+		int to = PackedState.moveTo(move);
 
 		System.out.printf("%sPiece: %s | Position: %d → %d | Distance: %d%n",
-				indent, piece.getOwner().getName(), from, to, (to - from));
+				indent, player.getName(), from, to, (to - from));
 	}
 
 	/**
 	 * Print detailed statistics about the current search
 	 */
 	public void printStatistics() {
-		if (!verboseMode)
+		if (!verbose)
 			return;
 
+		LastDecision last = lastDecision.get();
 		printHeader("SEARCH STATISTICS");
-		System.out.println("Total nodes explored: " + nodeCounter);
-		System.out.println("Maximum depth: " + MAX_DEPTH);
+		System.out.println("Total nodes explored: " + last.tracedNodes);
+		System.out.println("Maximum depth: " + last.depth);
 		System.out.println("Branching factor (avg): ~35 (5 stick × 7 pieces)");
-		System.out.println("Theoretical max nodes: " + Math.pow(35, MAX_DEPTH));
+		System.out.println("Theoretical max nodes: " + Math.pow(35, last.depth));
 		printSeparator();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.algo.strategy.ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one BotStrategy move decision. It also carries
+ * the decision's figures to {@link SearchMetrics}, so they are filled in
+ * whether or not a recording is running.
+ */
+@Name("com.example.algo.MoveDecision")
+@Label("Move Decision")
+@Category({ "Senet", "Search" })
+@Description("One move chosen by the bot: how it was found and what the search cost")
+@StackTrace(false)
+final class MoveDecisionEvent extends jdk.jfr.Event {
+	@Label("Stick")
+	int stick;
+
+	@Label("Legal Moves")
+	int moves;
+
+	@Label("Source")
+	@Description("none, forced, book, tablebase or search")
+	String source = SearchMetrics.NO_MOVE;
+
+	@Label("Depth")
+	@Description("Depth of the last completed iteration, 0 when nothing was searched")
+	int depth;
+
+	@Label("Nodes")
+	long nodes;
+
+	@Label("Value")
+	@Description("Search value of the chosen move")
+	int value;
+}
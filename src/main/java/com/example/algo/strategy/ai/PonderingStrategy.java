@@ -0,0 +1,283 @@
+package com.example.algo.strategy.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.algo.game.GameListener;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+import com.example.algo.strategy.MoveStrategy;
+
+/**
+ * A bot that thinks on the opponent's time.
+ *
+ * As soon as the opponent's sticks are thrown, every position their move can
+ * lead to is known: one per legal move, and the turn passed. For each of them
+ * the bot's decision is searched in the background for all five sticks it
+ * may throw next, the likeliest throws first. Once the opponent has moved,
+ * the searches for the other positions are cancelled; when the bot's own
+ * sticks are thrown, chooseMove takes the finished search (or waits for the
+ * one already running) instead of starting from scratch.
+ *
+ * The pondering follows the game through the listener, so the strategy has
+ * to be added as a listener of the session it plays in. The searches share
+ * one BotStrategy, which makes the same choice as it would on its own.
+ *
+ * Player player = new Player("Bot", ponder = new PonderingStrategy(new BotStrategy()));
+ * new GameSession(state, sticks, GameListener.both(console, ponder)).play(turns);
+ */
+public class PonderingStrategy implements MoveStrategy, GameListener, AutoCloseable {
+	// sticks by how often they are thrown: 2, then 1 and 3, then 4 and 5
+	private static final int[] STICKS_BY_PROBABILITY = { 2, 1, 3, 4, 5 };
+
+	private final BotStrategy bot;
+	private final ExecutorService executor;
+	// searches by stick - 1, by the hash of the position with the bot to move
+	private final Map<Long, List<CompletableFuture<MovePiece>>> pondered = new HashMap<>();
+	private int hits;
+
+	/**
+	 * Ponders on as many threads as there are cores.
+	 */
+	public PonderingStrategy(BotStrategy bot) {
+		this(bot, Runtime.getRuntime().availableProcessors());
+	}
+
+	public PonderingStrategy(BotStrategy bot, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1: " + threads);
+		}
+		this.bot = bot;
+		AtomicInteger next = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "senet-ponder-" + next.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public BotStrategy getBot() {
+		return bot;
+	}
+
+	/**
+	 * @return decisions taken from a search started on the opponent's time
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	public MovePiece chooseMove(GameState state, Player player, int stick) {
+		PackedState position = BotStrategy.pack(state);
+		CompletableFuture<MovePiece> search = null;
+		synchronized (this) {
+			List<CompletableFuture<MovePiece>> searches = pondered.get(position.hash());
+			if (searches != null) {
+				search = searches.set(stick - 1, null);
+			}
+			// the searches for the other throws are of no use any more
+			cancelAll();
+		}
+		if (search != null) {
+			try {
+				MovePiece move = search.get();
+				synchronized (this) {
+					hits++;
+				}
+				// the move of the pondered copy, played with this state's piece
+				return move == null ? null
+						: BotStrategy.toMovePiece(state, player,
+								PackedState.move(move.getPiece().getPosition(), move.getTargetIndex()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("move interrupted", e);
+			} catch (CancellationException | ExecutionException e) {
+				// decide on this thread after all
+			}
+		}
+		return bot.chooseMove(state, player, stick);
+	}
+
+	@Override
+	public boolean resolveEffect(GameState state, Player player, int stick, PendingEffect effect) {
+		return bot.resolveEffect(state, player, stick, effect);
+	}
+
+	/**
+	 * Starts pondering on the opponent's normal turns.
+	 */
+	@Override
+	public synchronized void turnStarted(GameState state, Player player, int stick, PendingEffect effect) {
+		if (player.getStrategy() == this) {
+			// chooseMove takes what is left of the pondering
+			return;
+		}
+		cancelAll();
+		if (effect != null) {
+			return;
+		}
+		int opponent = state.currentPlayerIndex;
+		PackedState before = BotStrategy.pack(state);
+		int[] moves = new int[PackedState.MAX_MOVES];
+		int count = before.generateMoves(opponent, stick, moves, 0);
+
+		GameState[] positions = new GameState[count + 1];
+		long[] keys = new long[count + 1];
+		for (int m = 0; m <= count; m++) {
+			// the last position is the opponent passing
+			PackedState after = before.copy();
+			if (m < count) {
+				after.makeMove(opponent, PackedState.moveFrom(moves[m]), PackedState.moveTo(moves[m]));
+			}
+			after.switchPlayer();
+			GameState position = predict(state, after);
+			// a turn that resolves an effect is decided without a search
+			if (PendingEffect.due(position) == null && !pondered.containsKey(after.hash())) {
+				positions[m] = position;
+				keys[m] = after.hash();
+				pondered.put(keys[m], new ArrayList<>(Collections.nCopies(STICKS_BY_PROBABILITY.length, null)));
+			}
+		}
+		// queued likeliest throw first, for every position
+		for (int botStick : STICKS_BY_PROBABILITY) {
+			for (int m = 0; m <= count; m++) {
+				if (positions[m] != null) {
+					pondered.get(keys[m]).set(botStick - 1, bot.chooseMoveAsync(positions[m],
+							positions[m].getCurrentPlayer(), botStick, executor));
+				}
+			}
+		}
+	}
+
+	@Override
+	public synchronized void moved(GameState state, MovePiece move, int from, boolean swapped) {
+		if (move.getPiece().getOwner().getStrategy() != this) {
+			keepOnly(state);
+		}
+	}
+
+	@Override
+	public synchronized void noMove(GameState state, Player player) {
+		if (player.getStrategy() != this) {
+			keepOnly(state);
+		}
+	}
+
+	@Override
+	public synchronized void gameOver(GameState state, Player winner) {
+		cancelAll();
+	}
+
+	/**
+	 * Stops pondering for good.
+	 */
+	@Override
+	public synchronized void close() {
+		cancelAll();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * The position after the opponent's move, with every player's pieces
+	 * listed in the order they have in the real game: the bot's root moves
+	 * follow that order, and so does the move it picks among equal ones.
+	 */
+	private static GameState predict(GameState state, PackedState after) {
+		GameState unordered = after.toGameState(state.board, state.players);
+		Map<Piece, Piece> counterparts = new IdentityHashMap<>();
+		for (Player player : state.players) {
+			List<Piece> real = state.getPiecesFor(player);
+			List<Piece> left = new ArrayList<>(unordered.getPiecesFor(player));
+			// pieces the move left where they were first, then the ones it moved
+			for (Piece piece : real) {
+				for (Iterator<Piece> candidates = left.iterator(); candidates.hasNext();) {
+					Piece candidate = candidates.next();
+					if (candidate.getPosition() == piece.getPosition()) {
+						counterparts.put(piece, candidate);
+						candidates.remove();
+						break;
+					}
+				}
+			}
+			Iterator<Piece> moved = left.iterator();
+			for (Piece piece : real) {
+				if (!counterparts.containsKey(piece)) {
+					counterparts.put(piece, moved.next());
+				}
+			}
+		}
+
+		// the unordered state owns its pieces, the position gets copies
+		Map<Piece, Piece> copies = new IdentityHashMap<>();
+		List<Piece> pieces = new ArrayList<>();
+		for (Piece piece : state.pieces) {
+			Piece counterpart = counterparts.get(piece);
+			Piece copy = new Piece(counterpart.getOwner(), counterpart.getPosition());
+			copies.put(counterpart, copy);
+			pieces.add(copy);
+		}
+		GameState position = new GameState(state.board, pieces, state.players);
+		position.currentPlayerIndex = unordered.currentPlayerIndex;
+		if (unordered.getPendingThreeTruthsPiece() != null) {
+			position.markThreeTruthsPiece(copies.get(unordered.getPendingThreeTruthsPiece()),
+					unordered.getPendingThreeTruthsPlayerIndex());
+		}
+		if (unordered.getPendingAtoumPiece() != null) {
+			position.markAtoumPiece(copies.get(unordered.getPendingAtoumPiece()),
+					unordered.getPendingAtoumPlayerIndex());
+		}
+		if (unordered.getPendingHorusPiece() != null) {
+			position.markHorusPiece(copies.get(unordered.getPendingHorusPiece()),
+					unordered.getPendingHorusPlayerIndex());
+		}
+		return position;
+	}
+
+	/**
+	 * Cancels the searches of every position but the one the opponent's move
+	 * led to, which the listener sees before the bot's turn starts.
+	 */
+	private void keepOnly(GameState state) {
+		PackedState position = BotStrategy.pack(state);
+		position.switchPlayer();
+		long key = position.hash();
+		for (Iterator<Map.Entry<Long, List<CompletableFuture<MovePiece>>>> entries = pondered.entrySet()
+				.iterator(); entries.hasNext();) {
+			Map.Entry<Long, List<CompletableFuture<MovePiece>>> entry = entries.next();
+			if (entry.getKey() != key) {
+				cancel(entry.getValue());
+				entries.remove();
+			}
+		}
+	}
+
+	private void cancelAll() {
+		for (List<CompletableFuture<MovePiece>> searches : pondered.values()) {
+			cancel(searches);
+		}
+		pondered.clear();
+	}
+
+	private static void cancel(List<CompletableFuture<MovePiece>> searches) {
+		for (CompletableFuture<MovePiece> search : searches) {
+			if (search != null) {
+				search.cancel(true);
+			}
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.example.algo.strategy.ai;
+
+/**
+ * Unwinds a search whose budget ran out. Thrown often enough under a tight
+ * budget that it is shared and carries no stack trace.
+ */
+class SearchAbortedException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	static final SearchAbortedException INSTANCE = new SearchAbortedException();
+
+	private SearchAbortedException() {
+		super("search budget exhausted", null, false, false);
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.algo.strategy.ai;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall-clock and node limits of one move decision, shared by every task that
+ * searches for it. Tasks charge their nodes in batches; once a limit is hit
+ * the budget stays exhausted and every task aborts at its next check. The
+ * caller may also stop the decision at any time.
+ */
+class SearchBudget {
+	private final long deadlineNanos;
+	private final long nodeLimit;
+	private final AtomicLong nodes = new AtomicLong();
+	private final AtomicBoolean stopped;
+	private volatile boolean exhausted;
+
+	/**
+	 * @param timeMillis wall-clock time from now, 0 for no limit
+	 * @param nodeLimit  nodes all tasks may search together, 0 for no limit
+	 */
+	SearchBudget(long timeMillis, long nodeLimit) {
+		this(timeMillis, nodeLimit, new AtomicBoolean());
+	}
+
+	private SearchBudget(long timeMillis, long nodeLimit, AtomicBoolean stopped) {
+		this.deadlineNanos = timeMillis > 0 ? System.nanoTime() + timeMillis * 1_000_000L : 0L;
+		this.nodeLimit = nodeLimit;
+		this.stopped = stopped;
+	}
+
+	/**
+	 * A budget without limits that is stopped together with this one, for an
+	 * iteration that has to complete unless the caller gives up.
+	 */
+	SearchBudget stopOnly() {
+		return new SearchBudget(0, 0, stopped);
+	}
+
+	/**
+	 * Ends the decision: every task aborts at its next check.
+	 */
+	void stop() {
+		stopped.set(true);
+	}
+
+	/**
+	 * @return true when the budget has a time or node limit
+	 */
+	boolean hasLimits() {
+		return deadlineNanos != 0L || nodeLimit > 0;
+	}
+
+	boolean isStopped() {
+		return stopped.get();
+	}
+
+	/**
+	 * Adds searched nodes and checks both limits.
+	 *
+	 * @return true when the budget is used up
+	 */
+	boolean charge(long searched) {
+		if (exhausted || stopped.get()) {
+			return true;
+		}
+		long total = nodes.addAndGet(searched);
+		if ((nodeLimit > 0 && total >= nodeLimit)
+				|| (deadlineNanos != 0L && System.nanoTime() - deadlineNanos >= 0)) {
+			exhausted = true;
+		}
+		return exhausted;
+	}
+
+	boolean isExhausted() {
+		return exhausted || charge(0);
+	}
+
+	long nodes() {
+		return nodes.get();
+	}
+}
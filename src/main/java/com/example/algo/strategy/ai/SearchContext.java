@@ -0,0 +1,166 @@
+package com.example.algo.strategy.ai;
+
+import com.example.algo.state.PackedState;
+import com.example.algo.strategy.ai.endgame.EndgameTablebase;
+import com.example.algo.strategy.ai.trace.SearchTraceRecorder;
+
+/**
+ * Everything one search changes while it runs: node counters, depth, the
+ * evaluation range, the budget, the endgame table, whether to trace and
+ * where to record the nodes.
+ * Each search (and each parallel task) gets its own, so a BotStrategy
+ * holds no per-search state.
+ */
+class SearchContext {
+	// nodes searched between two budget checks, a power of two
+	private static final int BUDGET_CHECK_INTERVAL = 1024;
+	// scratch frames of the last finished search on each thread, or null while
+	// a search of the thread holds them
+	private static final ThreadLocal<Frame[]> IDLE_FRAMES = new ThreadLocal<>();
+
+	final int maxDepth;
+	final boolean verbose;
+	final int minScore;
+	final int maxScore;
+	// null when the search runs to maxDepth whatever it costs
+	final SearchBudget budget;
+	// null when the final race is searched like any other position
+	final EndgameTablebase tablebase;
+	// null when the search is not recorded
+	final SearchTraceRecorder trace;
+	// remaining depth from which chance nodes search their sticks as parallel
+	// tasks; only tasks already running in the search pool split
+	int splitDepth = Integer.MAX_VALUE;
+	// recorded node being searched, and the edge to the child searched next
+	int traceNode = SearchTraceRecorder.NONE;
+	int traceStick;
+	int traceIndex;
+	int traceMove = SearchTraceRecorder.NONE;
+	// scratch arrays per remaining depth, reused by every node at that depth
+	private final Frame[] frames;
+	int nodeCounter;
+	long nodes;
+	// telemetry, added to SearchMetrics when the search is done
+	long maxNodes;
+	long minNodes;
+	long chanceNodes;
+	long leafNodes;
+	long terminalNodes;
+	long endgameNodes;
+	long transpositionHits;
+	long star1Cutoffs;
+	long star2Cutoffs;
+	long moveCutoffs;
+
+	/**
+	 * A context for a search on the calling thread, with the thread's scratch
+	 * frames when no other search of the thread holds them. Hand them back
+	 * with {@link #release()} when the search is done.
+	 */
+	SearchContext(int maxDepth, boolean verbose, int minScore, int maxScore, SearchBudget budget,
+			EndgameTablebase tablebase, SearchTraceRecorder trace) {
+		this(maxDepth, verbose, minScore, maxScore, budget, tablebase, trace, acquireFrames(maxDepth));
+	}
+
+	private SearchContext(int maxDepth, boolean verbose, int minScore, int maxScore, SearchBudget budget,
+			EndgameTablebase tablebase, SearchTraceRecorder trace, Frame[] frames) {
+		this.maxDepth = maxDepth;
+		this.verbose = verbose;
+		this.minScore = minScore;
+		this.maxScore = maxScore;
+		this.budget = budget;
+		this.tablebase = tablebase;
+		this.trace = trace;
+		this.frames = frames;
+	}
+
+	/**
+	 * Scratch arrays of the chance node at the given remaining depth. A node
+	 * only recurses into shallower depths, so the arrays stay valid for the
+	 * whole node.
+	 */
+	Frame frame(int depth) {
+		return frames[depth];
+	}
+
+	/**
+	 * Counts a node and, every BUDGET_CHECK_INTERVAL nodes, aborts the search
+	 * if the budget is used up.
+	 */
+	void countNode() {
+		nodes++;
+		if (budget != null && (nodes & (BUDGET_CHECK_INTERVAL - 1)) == 0 && budget.charge(BUDGET_CHECK_INTERVAL)) {
+			throw SearchAbortedException.INSTANCE;
+		}
+	}
+
+	/**
+	 * A context for a parallel task of the same search, with its own counters,
+	 * the shared budget and neither tracing nor recording.
+	 */
+	SearchContext fork() {
+		// a task may run on any thread of the pool, even one in the middle of another task
+		SearchContext task = new SearchContext(maxDepth, false, minScore, maxScore, budget, tablebase, null,
+				newFrames(maxDepth));
+		task.splitDepth = splitDepth;
+		return task;
+	}
+
+	/**
+	 * Hands the frames back to the calling thread for its next search. The
+	 * context must not be used afterwards.
+	 */
+	void release() {
+		Frame[] idle = IDLE_FRAMES.get();
+		if (idle == null || idle.length < frames.length) {
+			IDLE_FRAMES.set(frames);
+		}
+	}
+
+	private static Frame[] acquireFrames(int maxDepth) {
+		Frame[] idle = IDLE_FRAMES.get();
+		if (idle == null || idle.length <= maxDepth) {
+			return newFrames(maxDepth);
+		}
+		IDLE_FRAMES.set(null);
+		return idle;
+	}
+
+	private static Frame[] newFrames(int maxDepth) {
+		Frame[] frames = new Frame[maxDepth + 1];
+		for (int depth = 0; depth <= maxDepth; depth++) {
+			frames[depth] = new Frame();
+		}
+		return frames;
+	}
+
+	/**
+	 * Adds the counters of a finished parallel task of this search.
+	 */
+	void absorb(SearchContext task) {
+		nodes += task.nodes;
+		maxNodes += task.maxNodes;
+		minNodes += task.minNodes;
+		chanceNodes += task.chanceNodes;
+		leafNodes += task.leafNodes;
+		terminalNodes += task.terminalNodes;
+		endgameNodes += task.endgameNodes;
+		transpositionHits += task.transpositionHits;
+		star1Cutoffs += task.star1Cutoffs;
+		star2Cutoffs += task.star2Cutoffs;
+		moveCutoffs += task.moveCutoffs;
+	}
+
+	/**
+	 * Moves of every stick result (PackedState move encoding, MAX_MOVES slots
+	 * per stick) and the per-stick bookkeeping of one chance node.
+	 */
+	static final class Frame {
+		final int[] moves = new int[BotStrategy.STICK_COUNT * PackedState.MAX_MOVES];
+		final int[] moveCounts = new int[BotStrategy.STICK_COUNT];
+		final int[] lower = new int[BotStrategy.STICK_COUNT];
+		final int[] upper = new int[BotStrategy.STICK_COUNT];
+		final int[] values = new int[BotStrategy.STICK_COUNT];
+		final int[] scores = new int[PackedState.MAX_MOVES];
+	}
+}
@@ -0,0 +1,269 @@
+package com.example.algo.strategy.ai;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Running totals of the bot's searches, cheap enough to leave on.
+ *
+ * The search counts into plain fields of its {@link SearchContext}, one per
+ * thread, and adds them here once per iteration; the totals are
+ * {@link LongAdder}s, so bots on many threads can share one instance
+ * without contending. Every bot reports to {@link #shared()} unless given
+ * its own instance. Register an instance to read it over JMX; each move
+ * decision is also a Flight Recorder event ({@link MoveDecisionEvent}).
+ */
+public class SearchMetrics implements SearchMetricsMBean {
+	/*
+	 * Definitions
+	 */
+	public static final String DOMAIN = "com.example.algo";
+
+	// how a decision was made
+	public static final String NO_MOVE = "none";
+	public static final String FORCED = "forced";
+	public static final String BOOK = "book";
+	public static final String TABLEBASE = "tablebase";
+	public static final String SEARCH = "search";
+
+	private static final SearchMetrics SHARED = new SearchMetrics();
+	private static boolean sharedRegistered;
+
+	private final LongAdder decisions = new LongAdder();
+	private final LongAdder searchedMoves = new LongAdder();
+	private final LongAdder forcedMoves = new LongAdder();
+	private final LongAdder bookMoves = new LongAdder();
+	private final LongAdder tablebaseMoves = new LongAdder();
+	private final LongAdder depthSum = new LongAdder();
+	private final LongAdder searchNanos = new LongAdder();
+	private final LongAdder decisionNanos = new LongAdder();
+	private final LongAccumulator maxDecisionNanos = new LongAccumulator(Math::max, 0L);
+	private volatile int lastDepth;
+
+	private final LongAdder nodes = new LongAdder();
+	private final LongAdder maxNodes = new LongAdder();
+	private final LongAdder minNodes = new LongAdder();
+	private final LongAdder chanceNodes = new LongAdder();
+	private final LongAdder leafNodes = new LongAdder();
+	private final LongAdder terminalNodes = new LongAdder();
+	private final LongAdder endgameNodes = new LongAdder();
+	private final LongAdder transpositionHits = new LongAdder();
+	private final LongAdder star1Cutoffs = new LongAdder();
+	private final LongAdder star2Cutoffs = new LongAdder();
+	private final LongAdder moveCutoffs = new LongAdder();
+
+	/**
+	 * The instance bots report to by default, registered with the platform
+	 * MBean server as com.example.algo:type=SearchMetrics,name=shared on first
+	 * use.
+	 */
+	public static SearchMetrics shared() {
+		synchronized (SearchMetrics.class) {
+			if (!sharedRegistered) {
+				sharedRegistered = true;
+				SHARED.register("shared");
+			}
+		}
+		return SHARED;
+	}
+
+	/**
+	 * Publishes these metrics over JMX as
+	 * com.example.algo:type=SearchMetrics,name=NAME.
+	 */
+	public void register(String name) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(DOMAIN + ":type=SearchMetrics,name=" + ObjectName.quote(name));
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("cannot register search metrics " + name, e);
+		}
+	}
+
+	/*
+	 * recording
+	 */
+
+	/**
+	 * Adds the counters of one search context: an iteration of a decision,
+	 * with the counts of its parallel tasks folded in.
+	 */
+	void record(SearchContext ctx) {
+		nodes.add(ctx.nodes);
+		maxNodes.add(ctx.maxNodes);
+		minNodes.add(ctx.minNodes);
+		chanceNodes.add(ctx.chanceNodes);
+		leafNodes.add(ctx.leafNodes);
+		terminalNodes.add(ctx.terminalNodes);
+		endgameNodes.add(ctx.endgameNodes);
+		transpositionHits.add(ctx.transpositionHits);
+		star1Cutoffs.add(ctx.star1Cutoffs);
+		star2Cutoffs.add(ctx.star2Cutoffs);
+		moveCutoffs.add(ctx.moveCutoffs);
+	}
+
+	void recordDecision(String source, int depth, long nanos) {
+		decisions.increment();
+		decisionNanos.add(nanos);
+		maxDecisionNanos.accumulate(nanos);
+		switch (source) {
+			case SEARCH:
+				searchedMoves.increment();
+				searchNanos.add(nanos);
+				depthSum.add(depth);
+				lastDepth = depth;
+				break;
+			case FORCED:
+				forcedMoves.increment();
+				break;
+			case BOOK:
+				bookMoves.increment();
+				break;
+			case TABLEBASE:
+				tablebaseMoves.increment();
+				break;
+			default:
+				break;
+		}
+	}
+
+	/*
+	 * MBean attributes
+	 */
+	@Override
+	public long getDecisions() {
+		return decisions.sum();
+	}
+
+	@Override
+	public long getSearchedMoves() {
+		return searchedMoves.sum();
+	}
+
+	@Override
+	public long getForcedMoves() {
+		return forcedMoves.sum();
+	}
+
+	@Override
+	public long getBookMoves() {
+		return bookMoves.sum();
+	}
+
+	@Override
+	public long getTablebaseMoves() {
+		return tablebaseMoves.sum();
+	}
+
+	@Override
+	public long getNodes() {
+		return nodes.sum();
+	}
+
+	@Override
+	public long getMaxNodes() {
+		return maxNodes.sum();
+	}
+
+	@Override
+	public long getMinNodes() {
+		return minNodes.sum();
+	}
+
+	@Override
+	public long getChanceNodes() {
+		return chanceNodes.sum();
+	}
+
+	@Override
+	public long getLeafNodes() {
+		return leafNodes.sum();
+	}
+
+	@Override
+	public long getTerminalNodes() {
+		return terminalNodes.sum();
+	}
+
+	@Override
+	public long getEndgameNodes() {
+		return endgameNodes.sum();
+	}
+
+	@Override
+	public long getTranspositionHits() {
+		return transpositionHits.sum();
+	}
+
+	@Override
+	public long getStar1Cutoffs() {
+		return star1Cutoffs.sum();
+	}
+
+	@Override
+	public long getStar2Cutoffs() {
+		return star2Cutoffs.sum();
+	}
+
+	@Override
+	public long getMoveCutoffs() {
+		return moveCutoffs.sum();
+	}
+
+	/**
+	 * Depth of the last completed iteration of the last searched decision.
+	 */
+	@Override
+	public int getLastDepth() {
+		return lastDepth;
+	}
+
+	@Override
+	public double getAverageDepth() {
+		long searched = searchedMoves.sum();
+		return searched == 0 ? 0.0 : depthSum.sum() / (double) searched;
+	}
+
+	/**
+	 * Nodes per second of search time, decisions that did not search left
+	 * out.
+	 */
+	@Override
+	public double getNodesPerSecond() {
+		long nanos = searchNanos.sum();
+		return nanos == 0 ? 0.0 : nodes.sum() * 1e9 / nanos;
+	}
+
+	@Override
+	public double getAverageMoveMicros() {
+		long count = decisions.sum();
+		return count == 0 ? 0.0 : decisionNanos.sum() / 1e3 / count;
+	}
+
+	@Override
+	public long getMaxMoveMicros() {
+		return maxDecisionNanos.get() / 1000;
+	}
+
+	/**
+	 * Starts all totals from zero. Counts added while resetting may be lost.
+	 */
+	@Override
+	public void reset() {
+		for (LongAdder adder : new LongAdder[] { decisions, searchedMoves, forcedMoves, bookMoves, tablebaseMoves,
+				depthSum, searchNanos, decisionNanos, nodes, maxNodes, minNodes, chanceNodes, leafNodes,
+				terminalNodes, endgameNodes, transpositionHits, star1Cutoffs, star2Cutoffs, moveCutoffs }) {
+			adder.reset();
+		}
+		maxDecisionNanos.reset();
+		lastDepth = 0;
+	}
+}
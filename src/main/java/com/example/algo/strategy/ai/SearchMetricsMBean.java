@@ -0,0 +1,50 @@
+package com.example.algo.strategy.ai;
+
+/**
+ * JMX view of {@link SearchMetrics}.
+ */
+public interface SearchMetricsMBean {
+	long getDecisions();
+
+	long getSearchedMoves();
+
+	long getForcedMoves();
+
+	long getBookMoves();
+
+	long getTablebaseMoves();
+
+	long getNodes();
+
+	long getMaxNodes();
+
+	long getMinNodes();
+
+	long getChanceNodes();
+
+	long getLeafNodes();
+
+	long getTerminalNodes();
+
+	long getEndgameNodes();
+
+	long getTranspositionHits();
+
+	long getStar1Cutoffs();
+
+	long getStar2Cutoffs();
+
+	long getMoveCutoffs();
+
+	int getLastDepth();
+
+	double getAverageDepth();
+
+	double getNodesPerSecond();
+
+	double getAverageMoveMicros();
+
+	long getMaxMoveMicros();
+
+	void reset();
+}
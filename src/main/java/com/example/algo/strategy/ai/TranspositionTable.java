@@ -0,0 +1,174 @@
+package com.example.algo.strategy.ai;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Fixed-size cache of search results keyed by Zobrist hash.
+ *
+ * Each entry is two longs: the key xor-ed with the data and the data itself
+ * (value, depth, node type, bound and search generation). A torn write from another
+ * thread then simply fails the key check instead of returning a wrong value.
+ * A slot is replaced when it is empty, left over from an older search, or
+ * holds a result searched to the same depth or shallower.
+ */
+public class TranspositionTable {
+	/*
+	 * Definitions
+	 */
+	public static final int MAX = 0;
+	public static final int MIN = 1;
+	public static final int CHANCE = 2;
+
+	// how the stored value relates to the true value of the node
+	public static final int EXACT = 0;
+	public static final int LOWER_BOUND = 1;
+	public static final int UPPER_BOUND = 2;
+
+	public static final long DEFAULT_BUDGET_BYTES = 16L * 1024 * 1024;
+	private static final int ENTRY_BYTES = 16;
+	public static final long MISS = 0L;
+
+	// data layout: value (32) | depth (8) | type (2) | generation (8) | bound (2)
+	private static final int DEPTH_SHIFT = 32;
+	private static final int TYPE_SHIFT = 40;
+	private static final int GENERATION_SHIFT = 42;
+	private static final int BOUND_SHIFT = 50;
+
+	// keys that tell node types, sticks and the maximizing side apart
+	private static final long[] TYPE_KEYS = new long[3];
+	private static final long[] STICK_KEYS = new long[6];
+	private static final long[] MAXIMIZER_KEYS = new long[2];
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x77L);
+		for (int i = 0; i < TYPE_KEYS.length; i++) {
+			TYPE_KEYS[i] = random.nextLong();
+		}
+		for (int i = 1; i < STICK_KEYS.length; i++) {
+			STICK_KEYS[i] = random.nextLong();
+		}
+		for (int i = 0; i < MAXIMIZER_KEYS.length; i++) {
+			MAXIMIZER_KEYS[i] = random.nextLong();
+		}
+	}
+
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private int generation;
+
+	public TranspositionTable() {
+		this(DEFAULT_BUDGET_BYTES);
+	}
+
+	/**
+	 * @param budgetBytes memory the table may use, rounded down to a power of
+	 *                    two number of entries
+	 */
+	public TranspositionTable(long budgetBytes) {
+		long entries = Math.max(1, budgetBytes / ENTRY_BYTES);
+		int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+		this.keys = new long[size];
+		this.data = new long[size];
+		this.mask = size - 1;
+		this.generation = 1;
+	}
+
+	/**
+	 * Key of a node: the position hash combined with the node type, the
+	 * maximizing player and, for MAX/MIN nodes, the stick being played.
+	 */
+	public static long key(long stateHash, int type, int maximizingPlayer, int stick) {
+		return stateHash ^ TYPE_KEYS[type] ^ MAXIMIZER_KEYS[maximizingPlayer] ^ STICK_KEYS[stick];
+	}
+
+	/**
+	 * Starts a new search: entries of earlier searches become replaceable.
+	 */
+	public void newSearch() {
+		generation = generation % 255 + 1;
+	}
+
+	/**
+	 * @return the entry stored for the key, or {@link #MISS}
+	 */
+	public long probe(long key) {
+		int index = (int) key & mask;
+		long entry = data[index];
+		if (entry != MISS && (keys[index] ^ entry) == key) {
+			return entry;
+		}
+		return MISS;
+	}
+
+	/**
+	 * @return true when the entry settles a node searched to the given depth
+	 *         with the window (alpha, beta): an exact value, or a bound that
+	 *         already falls outside the window
+	 */
+	public static boolean cutoff(long entry, int depth, int alpha, int beta) {
+		if (entry == MISS || depth(entry) != depth) {
+			return false;
+		}
+		int value = value(entry);
+		switch (bound(entry)) {
+			case EXACT:
+				return true;
+			case LOWER_BOUND:
+				return value >= beta;
+			case UPPER_BOUND:
+				return value <= alpha;
+			default:
+				return false;
+		}
+	}
+
+	public void store(long key, int depth, int type, int bound, int value) {
+		int index = (int) key & mask;
+		long old = data[index];
+		if (old != MISS && (keys[index] ^ old) != key
+				&& generation(old) == generation && depth(old) > depth) {
+			return;
+		}
+		long entry = (value & 0xFFFFFFFFL)
+				| (long) depth << DEPTH_SHIFT
+				| (long) type << TYPE_SHIFT
+				| (long) generation << GENERATION_SHIFT
+				| (long) bound << BOUND_SHIFT;
+		keys[index] = key ^ entry;
+		data[index] = entry;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(data, 0L);
+	}
+
+	public int capacity() {
+		return keys.length;
+	}
+
+	/*
+	 * entry accessors
+	 */
+	public static int value(long entry) {
+		return (int) entry;
+	}
+
+	public static int depth(long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	public static int type(long entry) {
+		return (int) (entry >>> TYPE_SHIFT) & 0x3;
+	}
+
+	public static int bound(long entry) {
+		return (int) (entry >>> BOUND_SHIFT) & 0x3;
+	}
+
+	private static int generation(long entry) {
+		return (int) (entry >>> GENERATION_SHIFT) & 0xFF;
+	}
+}
@@ -0,0 +1,110 @@
+package com.example.algo.strategy.ai.book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.example.algo.state.PackedState;
+
+/**
+ * Moves of early positions searched ahead of time by
+ * {@link OpeningBookBuilder}, read from a memory-mapped file.
+ *
+ * A position is keyed by its {@link PackedState#hash()}, which covers the
+ * pieces of both players, the side to move and the pending marks, so the
+ * same position reached by different move orders shares one entry.
+ *
+ * File layout (big-endian): magic, version, search depth, entry count, then
+ * the entries sorted by hash and stick: the hash (long) and one int holding
+ * the stick in the high 16 bits and the move, as built by
+ * {@link PackedState#move(int, int)}, in the low 16.
+ */
+public final class OpeningBook {
+	/*
+	 * Definitions
+	 */
+	static final int MAGIC = 0x534E4F42; // "SNOB"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+	static final int ENTRY_BYTES = 12;
+
+	private final ByteBuffer entries;
+	private final int depth;
+	private final int size;
+
+	private OpeningBook(ByteBuffer entries, int depth, int size) {
+		this.entries = entries;
+		this.depth = depth;
+		this.size = size;
+	}
+
+	/**
+	 * Maps a book file. The mapping stays valid after the file channel is
+	 * closed.
+	 */
+	public static OpeningBook open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+					|| buffer.limit() != HEADER_BYTES + (long) buffer.getInt(12) * ENTRY_BYTES) {
+				throw new IOException("not an opening book: " + file);
+			}
+			return new OpeningBook(buffer, buffer.getInt(8), buffer.getInt(12));
+		}
+	}
+
+	/**
+	 * @return the book move of the position with the stick, or
+	 *         PackedState.NONE when the book does not have it
+	 */
+	public int probe(long hash, int stick) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int order = compare(hash(mid), stick(mid), hash, stick);
+			if (order < 0) {
+				low = mid + 1;
+			} else if (order > 0) {
+				high = mid - 1;
+			} else {
+				return data(mid) & 0xFFFF;
+			}
+		}
+		return PackedState.NONE;
+	}
+
+	/**
+	 * Depth the book moves were searched to.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * helpers
+	 */
+	static int compare(long hash, int stick, long otherHash, int otherStick) {
+		int order = Long.compare(hash, otherHash);
+		return order != 0 ? order : Integer.compare(stick, otherStick);
+	}
+
+	private long hash(int index) {
+		return entries.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+	}
+
+	private int data(int index) {
+		return entries.getInt(HEADER_BYTES + index * ENTRY_BYTES + 8);
+	}
+
+	private int stick(int index) {
+		return data(index) >>> 16;
+	}
+}
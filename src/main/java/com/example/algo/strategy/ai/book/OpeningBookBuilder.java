@@ -0,0 +1,225 @@
+package com.example.algo.strategy.ai.book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.setup.BoardFactory;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.Cell;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.strategy.ai.BotStrategy;
+
+/**
+ * Writes an {@link OpeningBook}: every position reachable from the
+ * standard setup within the first turns, whatever the sticks and moves, is
+ * searched to a fixed depth for each stick and the chosen move stored.
+ *
+ * The positions are split over worker threads, each with its own bot, and
+ * every result goes to a fixed slot, so the book is the same whatever the
+ * number of threads.
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.strategy.ai.book.OpeningBookBuilder
+ * -Dexec.args="--turns 3 --depth 4 opening.book"
+ */
+public class OpeningBookBuilder {
+	public static final String DEFAULT_FILE = "opening.book";
+
+	private static final int STICKS = 5;
+
+	private int turns = 3;
+	private int depth = 4;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Turns played from the setup to the deepest book positions, 3 by
+	 * default (about 27000 moves).
+	 */
+	public void setTurns(int turns) {
+		if (turns < 0) {
+			throw new IllegalArgumentException("turns must not be negative: " + turns);
+		}
+		this.turns = turns;
+	}
+
+	/**
+	 * Depth every book position is searched to, 4 by default.
+	 */
+	public void setDepth(int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("depth must be at least 1: " + depth);
+		}
+		this.depth = depth;
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1: " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Searches the book positions and writes the book.
+	 *
+	 * @return the number of entries written
+	 */
+	public int build(Path file) throws IOException {
+		List<PackedState> positions = positions();
+		int[] moves = search(positions);
+
+		// sort (hash, stick) keys, skipping positions with nothing to choose
+		List<long[]> entries = new ArrayList<>();
+		for (int p = 0; p < positions.size(); p++) {
+			for (int stick = 1; stick <= STICKS; stick++) {
+				int move = moves[p * STICKS + stick - 1];
+				if (move != PackedState.NONE) {
+					entries.add(new long[] { positions.get(p).hash(), stick, move });
+				}
+			}
+		}
+		entries.sort((a, b) -> OpeningBook.compare(a[0], (int) a[1], b[0], (int) b[1]));
+
+		try (OutputStream stream = Files.newOutputStream(file);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(OpeningBook.VERSION);
+			out.writeInt(depth);
+			out.writeInt(entries.size());
+			for (long[] entry : entries) {
+				out.writeLong(entry[0]);
+				out.writeInt((int) entry[1] << 16 | (int) entry[2]);
+			}
+		}
+		return entries.size();
+	}
+
+	/**
+	 * Distinct positions of the first turns in the order they are first
+	 * reached, the setup first. A player without a move passes.
+	 */
+	List<PackedState> positions() {
+		Player[] players = players();
+		PackedState setup = PackedState.fromGameState(new GameInitializer().createNewGame(players));
+		Map<Long, PackedState> seen = new LinkedHashMap<>();
+		seen.put(setup.hash(), setup);
+
+		List<PackedState> frontier = new ArrayList<>();
+		frontier.add(setup);
+		int[] buffer = new int[PackedState.MAX_MOVES];
+		for (int turn = 0; turn < turns; turn++) {
+			List<PackedState> next = new ArrayList<>();
+			for (PackedState state : frontier) {
+				for (int stick = 1; stick <= STICKS; stick++) {
+					int count = state.generateMoves(state.currentPlayerIndex, stick, buffer, 0);
+					for (int m = 0; m < Math.max(count, 1); m++) {
+						PackedState child = state.copy();
+						if (count > 0) {
+							child.makeMove(child.currentPlayerIndex, PackedState.moveFrom(buffer[m]),
+									PackedState.moveTo(buffer[m]));
+						}
+						child.switchPlayer();
+						if (seen.putIfAbsent(child.hash(), child) == null) {
+							next.add(child);
+						}
+					}
+				}
+			}
+			frontier = next;
+		}
+		return new ArrayList<>(seen.values());
+	}
+
+	/**
+	 * @return the searched move of every position and stick, PackedState.NONE
+	 *         where the player has at most one move
+	 */
+	private int[] search(List<PackedState> positions) {
+		int[] moves = new int[positions.size() * STICKS];
+		Arrays.fill(moves, PackedState.NONE);
+		Cell[] board = new BoardFactory().createBoard();
+		Player[] players = players();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int first = t;
+				results.add(executor.submit(() -> {
+					BotStrategy bot = new BotStrategy();
+					bot.setMaxDepth(depth);
+					int[] buffer = new int[PackedState.MAX_MOVES];
+					for (int p = first; p < positions.size(); p += threads) {
+						PackedState position = positions.get(p);
+						GameState state = position.toGameState(board, players);
+						Player player = players[position.currentPlayerIndex];
+						for (int stick = 1; stick <= STICKS; stick++) {
+							if (position.generateMoves(position.currentPlayerIndex, stick, buffer, 0) < 2) {
+								continue;
+							}
+							MovePiece move = bot.chooseMove(state, player, stick);
+							moves[p * STICKS + stick - 1] = PackedState.move(move.getPiece().getPosition(),
+									move.getTargetIndex());
+						}
+					}
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("book search interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("book search failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return moves;
+	}
+
+	private static Player[] players() {
+		return new Player[] { new Player("White", null), new Player("Black", null) };
+	}
+
+	public static void main(String[] args) throws IOException {
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		String file = DEFAULT_FILE;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--turns":
+					builder.setTurns(Integer.parseInt(args[++i]));
+					break;
+				case "--depth":
+					builder.setDepth(Integer.parseInt(args[++i]));
+					break;
+				case "--threads":
+					builder.setThreads(Integer.parseInt(args[++i]));
+					break;
+				default:
+					file = args[i];
+					break;
+			}
+		}
+		long start = System.nanoTime();
+		int entries = builder.build(Paths.get(file));
+		System.out.printf("Wrote %d book moves to %s in %d ms%n", entries, file,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+}
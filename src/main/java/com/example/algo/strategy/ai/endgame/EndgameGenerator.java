@@ -0,0 +1,190 @@
+package com.example.algo.strategy.ai.endgame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.example.algo.state.PackedState;
+import com.example.algo.util.StickThrow;
+
+/**
+ * Solves the final race by value iteration and writes the
+ * {@link EndgameTablebase} file.
+ *
+ * A position's value is the mover's chance to win before the sticks are
+ * thrown: the probability-weighted best move for each stick, where a move
+ * is worth one minus the value of the resulting position for the other
+ * player. Swaps can repeat positions, so the values are iterated until they
+ * stop changing. Every turn can bear a piece off with a 5, so the iteration
+ * converges.
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.strategy.ai.endgame.EndgameGenerator
+ * -Dexec.args="endgame.tb"
+ */
+public final class EndgameGenerator {
+	public static final String DEFAULT_FILE = "endgame.tb";
+
+	private static final int STICKS = 5;
+	private static final int MAX_MOVES = PackedState.MAX_MOVES;
+	private static final double TOLERANCE = 1e-12;
+	private static final int MAX_ITERATIONS = 100000;
+
+	private EndgameGenerator() {
+	}
+
+	/**
+	 * @return the tablebase entries, indexed like the file
+	 */
+	public static int[] generate() {
+		int size = EndgameTablebase.SIZE;
+		boolean[] valid = new boolean[size];
+		double[] value = new double[size];
+		boolean[] terminal = new boolean[size];
+		// per position and stick: the resulting positions and the cells moved from
+		int[] moveCounts = new int[size * STICKS];
+		int[] successors = new int[size * STICKS * MAX_MOVES];
+		int[] froms = new int[size * STICKS * MAX_MOVES];
+		// the same position with the other player to move, for a stuck mover
+		int[] passed = new int[size];
+
+		int[] buffer = new int[MAX_MOVES];
+		for (int index = 0; index < size; index++) {
+			PackedState state = decode(index);
+			if (state == null) {
+				continue;
+			}
+			valid[index] = true;
+			passed[index] = EndgameTablebase.index(state, 1);
+			if (EndgameTablebase.inPlay(state, 0) == 0) {
+				terminal[index] = true;
+				value[index] = 1.0;
+				continue;
+			}
+			if (EndgameTablebase.inPlay(state, 1) == 0) {
+				terminal[index] = true;
+				value[index] = 0.0;
+				continue;
+			}
+			value[index] = 0.5;
+			for (int stick = 1; stick <= STICKS; stick++) {
+				int slot = index * STICKS + stick - 1;
+				int count = state.generateMoves(0, stick, buffer, 0);
+				moveCounts[slot] = count;
+				for (int m = 0; m < count; m++) {
+					int from = PackedState.moveFrom(buffer[m]);
+					long undo = state.makeMove(0, from, PackedState.moveTo(buffer[m]));
+					successors[slot * MAX_MOVES + m] = EndgameTablebase.index(state, 1);
+					froms[slot * MAX_MOVES + m] = from;
+					state.unmakeMove(undo);
+				}
+			}
+		}
+
+		double[] probabilities = new double[STICKS];
+		for (int stick = 1; stick <= STICKS; stick++) {
+			probabilities[stick - 1] = StickThrow.probability(stick);
+		}
+
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			double delta = 0.0;
+			for (int index = 0; index < size; index++) {
+				if (!valid[index] || terminal[index]) {
+					continue;
+				}
+				double expected = 0.0;
+				for (int stick = 0; stick < STICKS; stick++) {
+					int slot = index * STICKS + stick;
+					double best = moveCounts[slot] == 0 ? 1.0 - value[passed[index]] : 0.0;
+					for (int m = 0; m < moveCounts[slot]; m++) {
+						best = Math.max(best, 1.0 - value[successors[slot * MAX_MOVES + m]]);
+					}
+					expected += probabilities[stick] * best;
+				}
+				delta = Math.max(delta, Math.abs(expected - value[index]));
+				value[index] = expected;
+			}
+			if (delta < TOLERANCE) {
+				break;
+			}
+		}
+
+		int[] entries = new int[size];
+		int[] bestFrom = new int[STICKS];
+		for (int index = 0; index < size; index++) {
+			if (!valid[index]) {
+				continue;
+			}
+			for (int stick = 0; stick < STICKS; stick++) {
+				int slot = index * STICKS + stick;
+				bestFrom[stick] = PackedState.NONE;
+				double best = -1.0;
+				// the first of equally good moves, in generation order
+				for (int m = 0; m < moveCounts[slot]; m++) {
+					double moveValue = 1.0 - value[successors[slot * MAX_MOVES + m]];
+					if (moveValue > best) {
+						best = moveValue;
+						bestFrom[stick] = froms[slot * MAX_MOVES + m];
+					}
+				}
+			}
+			int chance = (int) Math.round(value[index] * EndgameTablebase.PROBABILITY_SCALE);
+			entries[index] = EndgameTablebase.entry(chance, bestFrom);
+		}
+		return entries;
+	}
+
+	public static void write(int[] entries, Path file) throws IOException {
+		try (OutputStream stream = Files.newOutputStream(file);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+			out.writeInt(EndgameTablebase.MAGIC);
+			out.writeInt(EndgameTablebase.VERSION);
+			out.writeInt(entries.length);
+			for (int entry : entries) {
+				out.writeInt(entry);
+			}
+		}
+	}
+
+	/**
+	 * The position of an index with player 0 to move, or null when it holds
+	 * more than MAX_PIECES pieces of a player.
+	 */
+	private static PackedState decode(int index) {
+		int perCells = (EndgameTablebase.MAX_PIECES + 1) * (EndgameTablebase.MAX_PIECES + 1);
+		int cells = index / perCells;
+		int resting = index % perCells;
+		PackedState state = new PackedState();
+		for (int cell = EndgameTablebase.FIRST_CELL; cell < PackedState.BOARD_SIZE; cell++) {
+			int code = cells % EndgameTablebase.CELL_STATES;
+			cells /= EndgameTablebase.CELL_STATES;
+			if (code != 0) {
+				state.addPiece(code - 1, cell);
+			}
+		}
+		for (int i = 0; i < resting / (EndgameTablebase.MAX_PIECES + 1); i++) {
+			state.addPiece(0, PackedState.BOARD_SIZE);
+		}
+		for (int i = 0; i < resting % (EndgameTablebase.MAX_PIECES + 1); i++) {
+			state.addPiece(1, PackedState.BOARD_SIZE);
+		}
+		for (int player = 0; player < PackedState.PLAYER_COUNT; player++) {
+			if (EndgameTablebase.inPlay(state, player) > EndgameTablebase.MAX_PIECES) {
+				return null;
+			}
+		}
+		return state;
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path file = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+		long start = System.nanoTime();
+		int[] entries = generate();
+		write(entries, file);
+		System.out.printf("Wrote %d positions to %s in %d ms%n", entries.length, file,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+}
@@ -0,0 +1,149 @@
+package com.example.algo.strategy.ai.endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.example.algo.state.PackedState;
+
+/**
+ * Values of the final race, read from a file written by
+ * {@link EndgameGenerator}.
+ *
+ * The generator solves every position where no piece of either player
+ * stands before cell 26: the remaining pieces are on cells 26-29 (one per
+ * cell) or resting on 30. Positions are seen from the player to move, so
+ * one entry serves both colours. The index has no room for the pending
+ * Three Truths, Re-Atoum and Horus marks, so the generator plays 27-29 as
+ * plain cells, while the game marks a piece landing there and may send it
+ * back to rebirth. Only positions no mark can reach are therefore covered:
+ * every piece still in play rests on 30 and no mark is pending.
+ *
+ * File layout (big-endian): magic, version, entry count, then one int per
+ * position: the mover's win probability in the high 16 bits (0 to
+ * PROBABILITY_SCALE) and, in three bits per stick, the cell the best move
+ * starts from.
+ */
+public final class EndgameTablebase {
+	/*
+	 * Definitions
+	 */
+	public static final int PROBABILITY_SCALE = 0xFFFF;
+
+	static final int MAGIC = 0x534E5442; // "SNTB"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 12;
+
+	static final int FIRST_CELL = 26;
+	static final int CELLS = PackedState.BOARD_SIZE - FIRST_CELL;
+	static final int MAX_PIECES = 7;
+	// cell states: empty, the mover's piece, the other player's piece
+	static final int CELL_STATES = 3;
+	static final int CELL_CODES = 81; // CELL_STATES ^ CELLS
+	static final int SIZE = CELL_CODES * (MAX_PIECES + 1) * (MAX_PIECES + 1);
+
+	// best move codes: 0-3 for cells 26-29, 4 for 30, NO_MOVE_CODE when stuck
+	static final int MOVE_BITS = 3;
+	static final int NO_MOVE_CODE = 7;
+
+	private static final long BOARD_CELLS = (1L << PackedState.BOARD_SIZE) - 1;
+
+	private final ByteBuffer entries;
+
+	private EndgameTablebase(ByteBuffer entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * Maps a tablebase file. The mapping stays valid after the file channel
+	 * is closed.
+	 */
+	public static EndgameTablebase open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+					|| buffer.getInt(8) != SIZE || buffer.limit() != HEADER_BYTES + SIZE * 4) {
+				throw new IOException("not an endgame tablebase: " + file);
+			}
+			return new EndgameTablebase(buffer);
+		}
+	}
+
+	/**
+	 * True when every piece of both players that is still in play rests on
+	 * 30 and no mark is pending: a piece on 26 could step onto 27-29, whose
+	 * marks the table does not model.
+	 */
+	public static boolean covers(PackedState state) {
+		for (int player = 0; player < PackedState.PLAYER_COUNT; player++) {
+			if ((state.occupancy(player) & BOARD_CELLS) != 0 || inPlay(state, player) > MAX_PIECES) {
+				return false;
+			}
+		}
+		for (int slot = 0; slot < PackedState.PENDING_SLOTS; slot++) {
+			if (state.getPendingCell(slot) != PackedState.NONE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Entry of a covered position with the given player to move.
+	 */
+	public int probe(PackedState state, int mover) {
+		return entries.getInt(HEADER_BYTES + index(state, mover) * 4);
+	}
+
+	/**
+	 * Chance that the player to move wins, 0 to PROBABILITY_SCALE.
+	 */
+	public static int winChance(int entry) {
+		return entry >>> 16;
+	}
+
+	public static double winProbability(int entry) {
+		return winChance(entry) / (double) PROBABILITY_SCALE;
+	}
+
+	/**
+	 * Cell the best move with the stick starts from, or PackedState.NONE when
+	 * the mover has no legal move.
+	 */
+	public static int bestFrom(int entry, int stick) {
+		int code = (entry >>> ((stick - 1) * MOVE_BITS)) & NO_MOVE_CODE;
+		return code == NO_MOVE_CODE ? PackedState.NONE : FIRST_CELL + code;
+	}
+
+	/*
+	 * indexing, shared with the generator
+	 */
+	static int index(PackedState state, int mover) {
+		int other = 1 - mover;
+		int cells = 0;
+		for (int cell = PackedState.BOARD_SIZE - 1; cell >= FIRST_CELL; cell--) {
+			int owner = state.ownerAt(cell);
+			cells = cells * CELL_STATES + (owner == PackedState.NONE ? 0 : (owner == mover ? 1 : 2));
+		}
+		int resting = state.countAt(mover, PackedState.BOARD_SIZE) * (MAX_PIECES + 1)
+				+ state.countAt(other, PackedState.BOARD_SIZE);
+		return cells * (MAX_PIECES + 1) * (MAX_PIECES + 1) + resting;
+	}
+
+	static int entry(int winChance, int[] bestFrom) {
+		int entry = winChance << 16;
+		for (int stick = 1; stick <= bestFrom.length; stick++) {
+			int from = bestFrom[stick - 1];
+			int code = from == PackedState.NONE ? NO_MOVE_CODE : from - FIRST_CELL;
+			entry |= code << ((stick - 1) * MOVE_BITS);
+		}
+		return entry;
+	}
+
+	static int inPlay(PackedState state, int player) {
+		return Long.bitCount(state.occupancy(player)) + state.countAt(player, PackedState.BOARD_SIZE);
+	}
+}
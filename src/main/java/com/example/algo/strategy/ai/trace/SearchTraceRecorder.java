@@ -0,0 +1,177 @@
+package com.example.algo.strategy.ai.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes the nodes of bot searches to a file as fixed-size binary records,
+ * for {@link TraceViewer}.
+ *
+ * Records go to one of two direct buffers; a full buffer is written to the
+ * file by a background thread while the search fills the other one, so the
+ * search only waits when it outruns the disk. A node is recorded when its
+ * value is known, after its children, and points at its parent by id.
+ *
+ * One search at a time may record: the bot searches sequentially while it
+ * traces.
+ *
+ * File layout (big-endian): magic, version, record size, then records of
+ * id, parent, move, value, iteration (ints) and type, remaining depth,
+ * stick and move index (bytes).
+ */
+public final class SearchTraceRecorder implements Closeable {
+	/*
+	 * Definitions
+	 */
+	public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+	public static final int RECORD_BYTES = 24;
+	public static final int NONE = -1;
+
+	// node types
+	public static final int ROOT = 0;
+	public static final int MAX = 1;
+	public static final int MIN = 2;
+	public static final int LEAF = 3;
+	public static final int TERMINAL = 4;
+	public static final int ENDGAME = 5;
+	public static final int CACHED = 6;
+	static final String[] TYPE_NAMES = { "ROOT", "MAX", "MIN", "LEAF", "TERMINAL", "ENDGAME", "CACHED" };
+
+	static final int MAGIC = 0x534E5452; // "SNTR"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 12;
+
+	private final FileChannel channel;
+	private final ExecutorService flusher;
+	private ByteBuffer active;
+	private ByteBuffer spare;
+	private Future<?> pendingFlush;
+	private int nextId;
+
+	public SearchTraceRecorder(Path file) throws IOException {
+		this(file, DEFAULT_BUFFER_BYTES);
+	}
+
+	/**
+	 * @param bufferBytes size of each of the two buffers
+	 */
+	public SearchTraceRecorder(Path file, int bufferBytes) throws IOException {
+		if (bufferBytes < RECORD_BYTES) {
+			throw new IllegalArgumentException("buffer must hold a record: " + bufferBytes);
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.active = ByteBuffer.allocateDirect(bufferBytes - bufferBytes % RECORD_BYTES);
+		this.spare = ByteBuffer.allocateDirect(active.capacity());
+		this.flusher = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "search-trace-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).flip();
+		writeFully(header);
+	}
+
+	/**
+	 * Id for a node about to be searched.
+	 */
+	public int nextId() {
+		return nextId++;
+	}
+
+	/**
+	 * Writes one node.
+	 *
+	 * @param index position of the node's move among the root moves as
+	 *              generated, or among the moves of its stick in the order
+	 *              the search tried them
+	 */
+	public void record(int id, int parent, int type, int depth, int stick, int index, int move, int value,
+			int iteration) {
+		if (active.remaining() < RECORD_BYTES) {
+			flushActive();
+		}
+		active.putInt(id)
+				.putInt(parent)
+				.putInt(move)
+				.putInt(value)
+				.putInt(iteration)
+				.put((byte) type)
+				.put((byte) depth)
+				.put((byte) stick)
+				.put((byte) index);
+	}
+
+	/**
+	 * Writes everything recorded so far and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flushActive();
+			awaitFlush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			flusher.shutdown();
+			channel.close();
+		}
+	}
+
+	/*
+	 * helpers
+	 */
+
+	/**
+	 * Hands the active buffer to the flusher and continues in the spare one,
+	 * once the flusher is done with it.
+	 */
+	private void flushActive() {
+		awaitFlush();
+		ByteBuffer full = active;
+		active = spare;
+		spare = full;
+		full.flip();
+		pendingFlush = flusher.submit(() -> {
+			writeFully(full);
+			full.clear();
+			return null;
+		});
+	}
+
+	private void awaitFlush() {
+		if (pendingFlush == null) {
+			return;
+		}
+		try {
+			pendingFlush.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("trace flush interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw new UncheckedIOException((IOException) e.getCause());
+			}
+			throw new IllegalStateException("trace flush failed", e.getCause());
+		} finally {
+			pendingFlush = null;
+		}
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,342 @@
+package com.example.algo.strategy.ai.trace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.example.algo.state.PackedState;
+
+/**
+ * Reads a file written by {@link SearchTraceRecorder} and prints the
+ * recorded search trees.
+ *
+ * Every iteration of every decision is one tree under a ROOT node; trees
+ * are numbered from 1 in the order they finished. A path picks nodes inside
+ * a tree: the number of a root move (as the moves were generated, from 1),
+ * then a stick, then the number of a move with that stick (in the order the
+ * search tried them), and so on. The
+ * path 3/2 is the subtree under root move 3 where the reply was thrown with
+ * stick 2, one node per reply. A move the search visited twice, such as a
+ * Star2 probe searched again with a wider window, shows up twice.
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.strategy.ai.trace.TraceViewer
+ * -Dexec.args="search.trace --path 3/2 --levels 2"
+ */
+public final class TraceViewer {
+	private static final int DEFAULT_LEVELS = 2;
+
+	private final int count;
+	private final int[] ids;
+	private final int[] parents;
+	private final int[] moves;
+	private final int[] values;
+	private final int[] iterations;
+	private final byte[] types;
+	private final byte[] depths;
+	private final byte[] sticks;
+	private final byte[] indices;
+	private final int[] roots;
+	// children as linked lists of record numbers
+	private final int[] firstChild;
+	private final int[] nextSibling;
+
+	private TraceViewer(ByteBuffer buffer) {
+		count = (buffer.limit() - SearchTraceRecorder.HEADER_BYTES) / SearchTraceRecorder.RECORD_BYTES;
+		ids = new int[count];
+		parents = new int[count];
+		moves = new int[count];
+		values = new int[count];
+		iterations = new int[count];
+		types = new byte[count];
+		depths = new byte[count];
+		sticks = new byte[count];
+		indices = new byte[count];
+
+		buffer.position(SearchTraceRecorder.HEADER_BYTES);
+		int maxId = SearchTraceRecorder.NONE;
+		int rootCount = 0;
+		for (int r = 0; r < count; r++) {
+			ids[r] = buffer.getInt();
+			parents[r] = buffer.getInt();
+			moves[r] = buffer.getInt();
+			values[r] = buffer.getInt();
+			iterations[r] = buffer.getInt();
+			types[r] = buffer.get();
+			depths[r] = buffer.get();
+			sticks[r] = buffer.get();
+			indices[r] = buffer.get();
+			maxId = Math.max(maxId, ids[r]);
+			if (types[r] == SearchTraceRecorder.ROOT) {
+				rootCount++;
+			}
+		}
+
+		// ids are dense, but aborted iterations leave some unrecorded
+		int[] recordOf = new int[maxId + 1];
+		Arrays.fill(recordOf, SearchTraceRecorder.NONE);
+		for (int r = 0; r < count; r++) {
+			recordOf[ids[r]] = r;
+		}
+		roots = new int[rootCount];
+		firstChild = new int[count];
+		nextSibling = new int[count];
+		Arrays.fill(firstChild, SearchTraceRecorder.NONE);
+		rootCount = 0;
+		// children come before their parent, so walking backwards keeps them in record order
+		for (int r = count - 1; r >= 0; r--) {
+			int parent = parents[r] == SearchTraceRecorder.NONE ? SearchTraceRecorder.NONE : recordOf[parents[r]];
+			if (parent != SearchTraceRecorder.NONE) {
+				nextSibling[r] = firstChild[parent];
+				firstChild[parent] = r;
+			}
+		}
+		for (int r = 0; r < count; r++) {
+			if (types[r] == SearchTraceRecorder.ROOT) {
+				roots[rootCount++] = r;
+			}
+		}
+	}
+
+	public static TraceViewer open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.limit() < SearchTraceRecorder.HEADER_BYTES || buffer.getInt(0) != SearchTraceRecorder.MAGIC
+					|| buffer.getInt(4) != SearchTraceRecorder.VERSION
+					|| buffer.getInt(8) != SearchTraceRecorder.RECORD_BYTES
+					|| (buffer.limit() - SearchTraceRecorder.HEADER_BYTES) % SearchTraceRecorder.RECORD_BYTES != 0) {
+				throw new IOException("not a search trace: " + file);
+			}
+			return new TraceViewer(buffer);
+		}
+	}
+
+	/**
+	 * Number of recorded nodes.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Number of recorded trees, one per completed search iteration.
+	 */
+	public int rootCount() {
+		return roots.length;
+	}
+
+	/**
+	 * @param tree number of the tree, from 1
+	 * @return the record of its ROOT node
+	 */
+	public int root(int tree) {
+		if (tree < 1 || tree > roots.length) {
+			throw new IllegalArgumentException("no search " + tree + " in a trace of " + roots.length);
+		}
+		return roots[tree - 1];
+	}
+
+	/**
+	 * Records of the node's children, by stick and then by move index.
+	 */
+	public List<Integer> children(int node) {
+		List<Integer> children = new ArrayList<>();
+		for (int child = firstChild[node]; child != SearchTraceRecorder.NONE; child = nextSibling[child]) {
+			children.add(child);
+		}
+		children.sort(Comparator.comparingInt((Integer child) -> sticks[child]).thenComparingInt(child -> indices[child]));
+		return children;
+	}
+
+	/**
+	 * The nodes a path leads to from a node: numbers of moves (from 1) and
+	 * sticks taking turns, starting with a move number under a ROOT node and
+	 * with a stick under any other.
+	 */
+	public List<Integer> select(int node, int[] path) {
+		List<Integer> selected = new ArrayList<>();
+		selected.add(node);
+		boolean stickNext = types[node] != SearchTraceRecorder.ROOT;
+		int stick = 0;
+		boolean stickPending = false;
+		for (int step : path) {
+			if (stickNext) {
+				stick = step;
+				stickPending = true;
+			} else {
+				List<Integer> next = new ArrayList<>();
+				for (int parent : selected) {
+					for (int child : children(parent)) {
+						if ((stick == 0 || sticks[child] == stick) && indices[child] == step - 1) {
+							next.add(child);
+						}
+					}
+				}
+				selected = next;
+				stickPending = false;
+			}
+			stickNext = !stickNext;
+		}
+		// a path ending in a stick stops at the replies thrown with it
+		if (stickPending) {
+			List<Integer> next = new ArrayList<>();
+			for (int parent : selected) {
+				for (int child : children(parent)) {
+					if (sticks[child] == stick) {
+						next.add(child);
+					}
+				}
+			}
+			selected = next;
+		}
+		return selected;
+	}
+
+	public int type(int node) {
+		return types[node];
+	}
+
+	public int value(int node) {
+		return values[node];
+	}
+
+	public int move(int node) {
+		return moves[node];
+	}
+
+	public int stick(int node) {
+		return sticks[node];
+	}
+
+	/**
+	 * Index of the node's move among the root moves as generated, or among
+	 * the moves of its stick in the order the search tried them.
+	 */
+	public int index(int node) {
+		return indices[node];
+	}
+
+	public int depth(int node) {
+		return depths[node];
+	}
+
+	/**
+	 * Depth the iteration that recorded the node searched to.
+	 */
+	public int iteration(int node) {
+		return iterations[node];
+	}
+
+	/**
+	 * Prints the node and its descendants down to the given number of
+	 * levels below it, only the nodes of the given type if it is not
+	 * SearchTraceRecorder.NONE.
+	 */
+	public void print(PrintStream out, int node, int levels, int type) {
+		print(out, node, levels, type, 0);
+	}
+
+	private void print(PrintStream out, int node, int levels, int type, int indent) {
+		if (type == SearchTraceRecorder.NONE || types[node] == type) {
+			StringBuilder line = new StringBuilder();
+			for (int i = 0; i < indent; i++) {
+				line.append("  ");
+			}
+			out.println(line.append(describe(node)));
+		}
+		if (levels > 0) {
+			for (int child : children(node)) {
+				print(out, child, levels - 1, type, indent + 1);
+			}
+		}
+	}
+
+	private String describe(int node) {
+		String type = SearchTraceRecorder.TYPE_NAMES[types[node]];
+		if (types[node] == SearchTraceRecorder.ROOT) {
+			return String.format("%s stick=%d depth=%d value=%d moves=%d", type, sticks[node], depths[node],
+					values[node], children(node).size());
+		}
+		String move = moves[node] == SearchTraceRecorder.NONE ? "pass"
+				: PackedState.moveFrom(moves[node]) + "->" + PackedState.moveTo(moves[node]);
+		return String.format("stick=%d #%d %s %s depth=%d value=%d", sticks[node], indices[node] + 1, move, type,
+				depths[node], values[node]);
+	}
+
+	private static int[] parsePath(String path) {
+		String[] steps = path.split("/");
+		int[] parsed = new int[steps.length];
+		for (int i = 0; i < steps.length; i++) {
+			parsed[i] = Integer.parseInt(steps[i]);
+		}
+		return parsed;
+	}
+
+	private static int parseType(String name) {
+		for (int type = 0; type < SearchTraceRecorder.TYPE_NAMES.length; type++) {
+			if (SearchTraceRecorder.TYPE_NAMES[type].equalsIgnoreCase(name)) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("unknown node type: " + name);
+	}
+
+	public static void main(String[] args) throws IOException {
+		String file = null;
+		Integer tree = null;
+		int[] path = new int[0];
+		int levels = DEFAULT_LEVELS;
+		int type = SearchTraceRecorder.NONE;
+		boolean list = false;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--search":
+					tree = Integer.parseInt(args[++i]);
+					break;
+				case "--path":
+					path = parsePath(args[++i]);
+					break;
+				case "--levels":
+					levels = Integer.parseInt(args[++i]);
+					break;
+				case "--type":
+					type = parseType(args[++i]);
+					break;
+				case "--list":
+					list = true;
+					break;
+				default:
+					file = args[i];
+					break;
+			}
+		}
+		if (file == null) {
+			System.out.println("usage: TraceViewer [--list] [--search N] [--path MOVE/STICK/MOVE...] [--levels N]"
+					+ " [--type ROOT|MAX|MIN|LEAF|TERMINAL|ENDGAME|CACHED] FILE");
+			return;
+		}
+
+		TraceViewer trace = open(Paths.get(file));
+		System.out.println(trace.size() + " nodes in " + trace.rootCount() + " searches");
+		if (list) {
+			for (int t = 1; t <= trace.rootCount(); t++) {
+				System.out.println(t + ": " + trace.describe(trace.root(t)));
+			}
+			return;
+		}
+		if (trace.rootCount() == 0) {
+			return;
+		}
+		int root = trace.root(tree == null ? trace.rootCount() : tree);
+		for (int node : trace.select(root, path)) {
+			trace.print(System.out, node, levels, type);
+		}
+	}
+}
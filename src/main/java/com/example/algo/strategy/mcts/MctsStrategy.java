@@ -0,0 +1,204 @@
+package com.example.algo.strategy.mcts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.strategy.MoveStrategy;
+import com.example.algo.util.RandomProvider;
+
+/**
+ * Monte Carlo tree search (UCT with sampled chance nodes for the stick
+ * throws), run on the packed state.
+ *
+ * With parallelism above one every thread grows its own tree from its own
+ * random stream (root parallelization) and the trees' root visit counts are
+ * added up. The move with the most visits is played. A search stops after
+ * the playout budget or the time budget, whichever runs out first; with a
+ * seed and no time budget every decision is reproducible.
+ */
+public class MctsStrategy implements MoveStrategy {
+	public static final int DEFAULT_PLAYOUTS = 4000;
+
+	private final RandomProvider random;
+	private int playouts = DEFAULT_PLAYOUTS;
+	private long timeBudgetMillis;
+	private int parallelism = 1;
+	private ForkJoinPool pool;
+
+	public MctsStrategy() {
+		this(new RandomProvider());
+	}
+
+	public MctsStrategy(long seed) {
+		this(new RandomProvider(seed));
+	}
+
+	/**
+	 * @param random the stream every search splits its trees' streams off;
+	 *               reseeding it replays the following decisions
+	 */
+	public MctsStrategy(RandomProvider random) {
+		this.random = random;
+	}
+
+	/**
+	 * Playouts per decision over all threads, 0 for no limit (a time budget
+	 * must be set then).
+	 */
+	public synchronized void setPlayouts(int playouts) {
+		if (playouts < 0) {
+			throw new IllegalArgumentException("playouts must not be negative: " + playouts);
+		}
+		this.playouts = playouts;
+	}
+
+	public synchronized int getPlayouts() {
+		return playouts;
+	}
+
+	/**
+	 * Wall-clock time per decision, 0 (the default) for no limit.
+	 */
+	public synchronized void setTimeBudget(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("time budget must not be negative: " + millis);
+		}
+		this.timeBudgetMillis = millis;
+	}
+
+	public synchronized long getTimeBudget() {
+		return timeBudgetMillis;
+	}
+
+	/**
+	 * Number of trees grown at the same time, one per thread.
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+		}
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+		this.parallelism = parallelism;
+		if (parallelism > 1) {
+			pool = new ForkJoinPool(parallelism);
+		}
+	}
+
+	public synchronized int getParallelism() {
+		return parallelism;
+	}
+
+	public synchronized MovePiece chooseMove(GameState state, Player player, int stick) {
+		List<MovePiece> moves = RuleEngine.legalMoves(state, player, stick);
+		if (moves.size() < 2) {
+			return moves.isEmpty() ? null : moves.get(0);
+		}
+		if (playouts == 0 && timeBudgetMillis == 0) {
+			throw new IllegalStateException("no playout or time budget set");
+		}
+
+		PackedState root = PackedState.fromGameState(state);
+		root.currentPlayerIndex = indexOf(state, player);
+		long deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1_000_000L : 0L;
+
+		List<SearchTree> trees = new ArrayList<>();
+		List<Callable<SearchTree>> tasks = new ArrayList<>();
+		for (int t = 0; t < parallelism; t++) {
+			SearchTree tree = new SearchTree(root.copy(), stick, random.split());
+			// the first trees take the playouts that do not divide evenly
+			int share = playouts == 0 ? 0 : playouts / parallelism + (t < playouts % parallelism ? 1 : 0);
+			trees.add(tree);
+			tasks.add(() -> grow(tree, share, deadline));
+		}
+		if (pool == null) {
+			grow(trees.get(0), playouts, deadline);
+		} else {
+			runAll(tasks);
+		}
+
+		int best = bestEdge(trees);
+		int move = trees.get(0).rootMove(best);
+		for (MovePiece candidate : moves) {
+			if (candidate.getPiece().getPosition() == PackedState.moveFrom(move)
+					&& candidate.getTargetIndex() == PackedState.moveTo(move)) {
+				return candidate;
+			}
+		}
+		throw new IllegalStateException("search picked a move that is not legal: " + move);
+	}
+
+	/**
+	 * @param playouts 0 for no limit
+	 * @param deadline System.nanoTime() to stop at, 0 for none
+	 */
+	private static SearchTree grow(SearchTree tree, int playouts, long deadline) {
+		for (int i = 0; playouts == 0 || i < playouts; i++) {
+			// checking the clock every few playouts is plenty
+			if (deadline != 0L && (i & 15) == 0 && System.nanoTime() - deadline >= 0) {
+				break;
+			}
+			tree.playout();
+		}
+		return tree;
+	}
+
+	private void runAll(List<Callable<SearchTree>> tasks) {
+		List<Future<SearchTree>> results = pool.invokeAll(tasks);
+		try {
+			for (Future<SearchTree> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("search interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("search failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Root edge with the most visits over all trees; the mean reward breaks
+	 * ties, then move order. All trees list the root moves in the same order.
+	 */
+	private static int bestEdge(List<SearchTree> trees) {
+		SearchTree first = trees.get(0);
+		int best = 0;
+		long bestVisits = -1;
+		double bestReward = 0;
+		for (int edge = 0; edge < first.rootMoveCount(); edge++) {
+			long visits = 0;
+			double reward = 0;
+			for (SearchTree tree : trees) {
+				visits += tree.rootVisits(edge);
+				reward += tree.rootReward(edge);
+			}
+			if (visits > bestVisits || (visits == bestVisits && visits > 0 && reward > bestReward)) {
+				best = edge;
+				bestVisits = visits;
+				bestReward = reward;
+			}
+		}
+		return best;
+	}
+
+	private static int indexOf(GameState state, Player player) {
+		for (int i = 0; i < state.players.length; i++) {
+			if (state.players[i].equals(player)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("player is not in this game: " + player.getName());
+	}
+}
@@ -0,0 +1,266 @@
+package com.example.algo.strategy.mcts;
+
+import java.util.Arrays;
+
+import com.example.algo.state.PackedState;
+import com.example.algo.util.RandomProvider;
+import com.example.algo.util.StickThrow;
+
+/**
+ * One UCT tree over the packed state, grown one playout at a time.
+ *
+ * Decision nodes belong to the side to move with a known stick and have one
+ * edge per legal move (a single pass edge when there is none). Each edge
+ * leads to a chance node for the opponent's throw, whose five outcomes are
+ * sampled with the stick probabilities and lead to the next decision nodes.
+ * Rewards are stored from the root player's side, 1 for a win and 0 for a
+ * loss. Pending effects are not resolved, as in the bot's search.
+ */
+class SearchTree {
+	private static final double EXPLORATION = 0.7;
+	// a playout stops here and the position is scored; real games run to
+	// hundreds of turns, so long random playouts mostly add noise
+	private static final int ROLLOUT_PLIES = 4;
+	private static final int STICK_COUNT = 5;
+	// progress of a borne off piece, well past the last cell
+	private static final int BORNE_OFF_PROGRESS = 60;
+	// progress lead that makes a win about 73% likely
+	private static final double LEAD_SCALE = 20.0;
+
+	private final PackedState root;
+	private final int me;
+	private final RandomProvider random;
+	private final Node rootNode;
+	private final int[] rolloutMoves = new int[PackedState.MAX_MOVES];
+	// edges taken by the current playout
+	private Node[] pathNodes = new Node[64];
+	private int[] pathEdges = new int[64];
+
+	/**
+	 * @param root   position with the root player to move
+	 * @param stick  the root player's throw
+	 * @param random this tree's own generator
+	 */
+	SearchTree(PackedState root, int stick, RandomProvider random) {
+		this.root = root;
+		this.me = root.currentPlayerIndex;
+		this.random = random;
+		this.rootNode = new Node(root, stick);
+	}
+
+	int rootMoveCount() {
+		return rootNode.moveCount;
+	}
+
+	int rootMove(int edge) {
+		return rootNode.moves[edge];
+	}
+
+	int rootVisits(int edge) {
+		return rootNode.visits[edge];
+	}
+
+	double rootReward(int edge) {
+		return rootNode.rewards[edge];
+	}
+
+	/**
+	 * Runs one playout: select down the tree, add one edge, play up to
+	 * ROLLOUT_PLIES on with the rollout policy, score the position reached
+	 * (by the winner, or by the progress lead squashed into a win chance) and
+	 * back the result up.
+	 */
+	void playout() {
+		PackedState state = root.copy();
+		Node node = rootNode;
+		int length = 0;
+		double reward;
+		while (true) {
+			if (isTerminal(state)) {
+				reward = terminalReward(state);
+				break;
+			}
+			boolean expanding = node.expanded < node.edgeCount();
+			int edge = expanding ? node.expanded++ : select(node);
+			if (node.moveCount > 0) {
+				int move = node.moves[edge];
+				state.makeMove(node.player, PackedState.moveFrom(move), PackedState.moveTo(move));
+			}
+			state.switchPlayer();
+			length = push(length, node, edge);
+			if (expanding) {
+				reward = rollout(state);
+				break;
+			}
+			int stick = throwSticks();
+			Node[] outcomes = node.next(edge);
+			Node child = outcomes[stick - 1];
+			if (child == null) {
+				child = new Node(state, stick);
+				outcomes[stick - 1] = child;
+			}
+			node = child;
+		}
+		for (int i = 0; i < length; i++) {
+			Node visited = pathNodes[i];
+			int edge = pathEdges[i];
+			visited.visits[edge]++;
+			visited.rewards[edge] += reward;
+			visited.total++;
+		}
+	}
+
+	private int push(int length, Node node, int edge) {
+		if (length == pathNodes.length) {
+			pathNodes = Arrays.copyOf(pathNodes, length * 2);
+			pathEdges = Arrays.copyOf(pathEdges, length * 2);
+		}
+		pathNodes[length] = node;
+		pathEdges[length] = edge;
+		return length + 1;
+	}
+
+	/**
+	 * UCB1 over the node's edges, with the mean reward seen from the side to
+	 * move. Ties go to the first edge.
+	 */
+	private int select(Node node) {
+		double logTotal = Math.log(node.total);
+		int best = 0;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int edge = 0; edge < node.edgeCount(); edge++) {
+			double mean = node.rewards[edge] / node.visits[edge];
+			if (node.player != me) {
+				mean = 1.0 - mean;
+			}
+			double score = mean + EXPLORATION * Math.sqrt(logTotal / node.visits[edge]);
+			if (score > bestScore) {
+				bestScore = score;
+				best = edge;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Plays on with a cheap policy: bear off when possible, otherwise a random
+	 * move that does not land on the House of Water if there is one. When the
+	 * game is not over after ROLLOUT_PLIES the position is scored by the
+	 * progress lead, squashed into a win chance.
+	 */
+	private double rollout(PackedState state) {
+		for (int ply = 0; ply < ROLLOUT_PLIES; ply++) {
+			if (isTerminal(state)) {
+				return terminalReward(state);
+			}
+			int player = state.currentPlayerIndex;
+			int count = state.generateMoves(player, throwSticks(), rolloutMoves, 0);
+			if (count > 0) {
+				int move = rolloutMove(count);
+				state.makeMove(player, PackedState.moveFrom(move), PackedState.moveTo(move));
+			}
+			state.switchPlayer();
+		}
+		if (isTerminal(state)) {
+			return terminalReward(state);
+		}
+		double lead = progress(state, me) - progress(state, 1 - me);
+		return 1.0 / (1.0 + Math.exp(-lead / LEAD_SCALE));
+	}
+
+	private int rolloutMove(int count) {
+		int safe = 0;
+		for (int m = 0; m < count; m++) {
+			int move = rolloutMoves[m];
+			int to = PackedState.moveTo(move);
+			if (to > PackedState.BOARD_SIZE) {
+				return move;
+			}
+			if (to != PackedState.WATER_CELL) {
+				rolloutMoves[safe++] = move;
+			}
+		}
+		if (safe == 0) {
+			return rolloutMoves[random.nextInt(count)];
+		}
+		return rolloutMoves[random.nextInt(safe)];
+	}
+
+	/**
+	 * Sum of the positions of the player's pieces, borne off ones counting as
+	 * BORNE_OFF_PROGRESS.
+	 */
+	private static int progress(PackedState state, int player) {
+		int progress = 0;
+		long bits = state.occupancy(player);
+		while (bits != 0) {
+			progress += Long.numberOfTrailingZeros(bits);
+			bits &= bits - 1;
+		}
+		progress += state.countAt(player, PackedState.BOARD_SIZE) * PackedState.BOARD_SIZE;
+		for (int position = PackedState.BOARD_SIZE + 1; position <= PackedState.MAX_POSITION; position++) {
+			progress += state.countAt(player, position) * BORNE_OFF_PROGRESS;
+		}
+		return progress;
+	}
+
+	/**
+	 * Same game end as the bot's search: a side with every piece borne off
+	 * (or none left).
+	 */
+	private static boolean isTerminal(PackedState state) {
+		return state.allBorneOff(0) || state.allBorneOff(1);
+	}
+
+	private double terminalReward(PackedState state) {
+		return state.allBorneOff(me) ? 1.0 : 0.0;
+	}
+
+	private int throwSticks() {
+		return StickThrow.throwSticks(random);
+	}
+
+	/**
+	 * A decision node. Edges are expanded in move order.
+	 */
+	private static final class Node {
+		final int player;
+		final int[] moves;
+		final int moveCount;
+		final int[] visits;
+		final double[] rewards;
+		private Node[][] next;
+		int expanded;
+		int total;
+
+		Node(PackedState state, int stick) {
+			this.player = state.currentPlayerIndex;
+			int[] buffer = new int[PackedState.MAX_MOVES];
+			this.moveCount = state.generateMoves(player, stick, buffer, 0);
+			this.moves = Arrays.copyOf(buffer, moveCount);
+			this.visits = new int[edgeCount()];
+			this.rewards = new double[edgeCount()];
+		}
+
+		/**
+		 * @return the moves, or a single pass edge when there is no move
+		 */
+		int edgeCount() {
+			return Math.max(1, moveCount);
+		}
+
+		/**
+		 * The chance node behind an edge: one child per stick, made when first
+		 * thrown.
+		 */
+		Node[] next(int edge) {
+			if (next == null) {
+				next = new Node[edgeCount()][];
+			}
+			if (next[edge] == null) {
+				next[edge] = new Node[STICK_COUNT];
+			}
+			return next[edge];
+		}
+	}
+}
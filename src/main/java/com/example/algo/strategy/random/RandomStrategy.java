@@ -0,0 +1,35 @@
+package com.example.algo.strategy.random;
+
+import java.util.List;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.state.GameState;
+import com.example.algo.strategy.MoveStrategy;
+import com.example.algo.util.RandomProvider;
+
+/**
+ * Plays a legal move picked uniformly at random: the weakest sensible
+ * opponent, and a cheap one for tournaments. Not thread-safe, like its
+ * random provider.
+ */
+public class RandomStrategy implements MoveStrategy {
+	private final RandomProvider random;
+
+	public RandomStrategy() {
+		this(new RandomProvider());
+	}
+
+	public RandomStrategy(RandomProvider random) {
+		this.random = random;
+	}
+
+	public MovePiece chooseMove(GameState state, Player player, int stick) {
+		List<MovePiece> moves = RuleEngine.legalMoves(state, player, stick);
+		if (moves.isEmpty()) {
+			return null;
+		}
+		return moves.get(random.nextInt(moves.size()));
+	}
+}
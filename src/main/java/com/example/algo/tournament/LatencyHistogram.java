@@ -0,0 +1,85 @@
+package com.example.algo.tournament;
+
+/**
+ * Counts of durations in log-linear buckets: 16 buckets per power of two, so
+ * every percentile is within about 6% of the true value whatever the scale.
+ * Not thread-safe; keep one per thread and merge.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long total;
+	private long sum;
+	private long max;
+
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts[bucket(value)]++;
+		total++;
+		sum += value;
+		max = Math.max(max, value);
+	}
+
+	public void merge(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] += other.counts[i];
+		}
+		total += other.total;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+
+	public long count() {
+		return total;
+	}
+
+	public double meanNanos() {
+		return total == 0 ? 0 : (double) sum / total;
+	}
+
+	public long maxNanos() {
+		return max;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the upper end of the bucket holding the percentile, never more
+	 *         than the largest value recorded
+	 */
+	public long percentileNanos(double percentile) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(max, upperBound(i));
+			}
+		}
+		return max;
+	}
+
+	private static int bucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BITS);
+		return ((SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+	}
+}
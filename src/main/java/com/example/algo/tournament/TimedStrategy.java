@@ -0,0 +1,35 @@
+package com.example.algo.tournament;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.strategy.MoveStrategy;
+
+/**
+ * Wraps a strategy and records how long each of its decisions takes.
+ */
+class TimedStrategy implements MoveStrategy {
+	private final MoveStrategy strategy;
+	private final LatencyHistogram latency;
+
+	TimedStrategy(MoveStrategy strategy, LatencyHistogram latency) {
+		this.strategy = strategy;
+		this.latency = latency;
+	}
+
+	public MovePiece chooseMove(GameState state, Player player, int stick) {
+		long start = System.nanoTime();
+		MovePiece move = strategy.chooseMove(state, player, stick);
+		latency.record(System.nanoTime() - start);
+		return move;
+	}
+
+	@Override
+	public boolean resolveEffect(GameState state, Player player, int stick, PendingEffect effect) {
+		long start = System.nanoTime();
+		boolean removed = strategy.resolveEffect(state, player, stick, effect);
+		latency.record(System.nanoTime() - start);
+		return removed;
+	}
+}
@@ -0,0 +1,340 @@
+package com.example.algo.tournament;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.example.algo.game.GameSession;
+import com.example.algo.journal.GameJournal;
+import com.example.algo.player.Player;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.strategy.MoveStrategy;
+import com.example.algo.strategy.ai.BotStrategy;
+import com.example.algo.strategy.ai.book.OpeningBook;
+import com.example.algo.strategy.ai.endgame.EndgameTablebase;
+import com.example.algo.strategy.ai.trace.SearchTraceRecorder;
+import com.example.algo.strategy.mcts.MctsStrategy;
+import com.example.algo.strategy.random.RandomStrategy;
+import com.example.algo.util.RandomProvider;
+import com.example.algo.util.StickThrow;
+
+/**
+ * Plays many headless games between two strategies on all cores.
+ *
+ * Every worker thread builds its own instance of each strategy and reuses
+ * it for all its games, so strategies need not be thread-safe. A and B take
+ * turns starting: A moves first in the even-numbered games.
+ *
+ * All randomness comes from the tournament seed. Game g throws its sticks
+ * from its own stream, and before it starts the random provider each
+ * strategy was built with is reseeded from another stream of the same
+ * game. A game therefore plays out the same whatever thread runs it, and a
+ * tournament of strategies that take no time budget can be replayed from
+ * its seed on any number of threads.
+ *
+ * mvn exec:java -Dexec.mainClass=com.example.algo.tournament.Tournament
+ * -Dexec.args="--games 1000 bot random"
+ */
+public class Tournament {
+	public static final int DEFAULT_MAX_TURNS = 2000;
+
+	private final String nameA;
+	private final Function<RandomProvider, MoveStrategy> strategyA;
+	private final String nameB;
+	private final Function<RandomProvider, MoveStrategy> strategyB;
+	private long seed = new RandomProvider().nextLong();
+	private int games = 100;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int maxTurns = DEFAULT_MAX_TURNS;
+	private GameJournal journal;
+
+	/**
+	 * @param strategyA builds strategy A around the random provider it has to
+	 *                  take all its random numbers from
+	 */
+	public Tournament(String nameA, Function<RandomProvider, MoveStrategy> strategyA, String nameB,
+			Function<RandomProvider, MoveStrategy> strategyB) {
+		this.nameA = nameA;
+		this.strategyA = strategyA;
+		this.nameB = nameB;
+		this.strategyB = strategyB;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setGames(int games) {
+		if (games < 1) {
+			throw new IllegalArgumentException("games must be at least 1: " + games);
+		}
+		this.games = games;
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1: " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Turns after which a game is stopped and counted as unfinished.
+	 */
+	public void setMaxTurns(int maxTurns) {
+		if (maxTurns < 1) {
+			throw new IllegalArgumentException("max turns must be at least 1: " + maxTurns);
+		}
+		this.maxTurns = maxTurns;
+	}
+
+	/**
+	 * Journal every game is written to, or null (the default) to keep no
+	 * record.
+	 */
+	public void setJournal(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	public TournamentReport run() {
+		AtomicInteger nextGame = new AtomicInteger();
+		int workers = Math.min(threads, games);
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		long start = System.nanoTime();
+		try {
+			List<Future<TournamentReport>> results = new ArrayList<>();
+			for (int i = 0; i < workers; i++) {
+				results.add(executor.submit(() -> playGames(nextGame)));
+			}
+			TournamentReport report = new TournamentReport(nameA, nameB, seed);
+			for (Future<TournamentReport> result : results) {
+				report.merge(result.get());
+			}
+			report.elapsedNanos = System.nanoTime() - start;
+			return report;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("tournament interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("tournament game failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private TournamentReport playGames(AtomicInteger nextGame) {
+		TournamentReport report = new TournamentReport(nameA, nameB, seed);
+		RandomProvider randomA = new RandomProvider();
+		RandomProvider randomB = new RandomProvider();
+		MoveStrategy a = new TimedStrategy(strategyA.apply(randomA), report.latencyA);
+		MoveStrategy b = new TimedStrategy(strategyB.apply(randomB), report.latencyB);
+		for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+			RandomProvider sticks = RandomProvider.stream(seed, 3L * game);
+			randomA.setSeed(RandomProvider.stream(seed, 3L * game + 1).nextLong());
+			randomB.setSeed(RandomProvider.stream(seed, 3L * game + 2).nextLong());
+			Player playerA = new Player(nameA, a);
+			Player playerB = new Player(nameB, b);
+			Player[] players = game % 2 == 0 ? new Player[] { playerA, playerB } : new Player[] { playerB, playerA };
+			GameState state = new GameInitializer().createNewGame(players);
+
+			GameSession session = new GameSession(state, () -> StickThrow.throwSticks(sticks),
+					GameJournal.listener(journal));
+			Player winner = session.play(maxTurns);
+
+			report.games++;
+			report.turns += session.getTurns();
+			if (winner == playerA) {
+				report.winsA++;
+			} else if (winner == playerB) {
+				report.winsB++;
+			}
+			if (winner != null && winner == players[0]) {
+				report.firstPlayerWins++;
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Strategy from its command line name: random, bot, bot:DEPTH (fixed
+	 * depth), bot:MILLISms (time budget per move), mcts, mcts:PLAYOUTS or
+	 * mcts:MILLISms.
+	 */
+	public static Function<RandomProvider, MoveStrategy> strategy(String spec) {
+		if (spec.equals("random")) {
+			return RandomStrategy::new;
+		}
+		if (spec.equals("bot")) {
+			return random -> new BotStrategy();
+		}
+		if (spec.startsWith("bot:")) {
+			String option = spec.substring(4);
+			if (option.endsWith("ms")) {
+				long millis = Long.parseLong(option.substring(0, option.length() - 2));
+				return random -> {
+					BotStrategy bot = new BotStrategy();
+					bot.setTimeBudget(millis);
+					return bot;
+				};
+			}
+			int depth = Integer.parseInt(option);
+			return random -> {
+				BotStrategy bot = new BotStrategy();
+				bot.setMaxDepth(depth);
+				return bot;
+			};
+		}
+		if (spec.equals("mcts")) {
+			return MctsStrategy::new;
+		}
+		if (spec.startsWith("mcts:")) {
+			String option = spec.substring(5);
+			if (option.endsWith("ms")) {
+				long millis = Long.parseLong(option.substring(0, option.length() - 2));
+				return random -> {
+					MctsStrategy mcts = new MctsStrategy(random);
+					mcts.setPlayouts(0);
+					mcts.setTimeBudget(millis);
+					return mcts;
+				};
+			}
+			int playouts = Integer.parseInt(option);
+			return random -> {
+				MctsStrategy mcts = new MctsStrategy(random);
+				mcts.setPlayouts(playouts);
+				return mcts;
+			};
+		}
+		throw new IllegalArgumentException("unknown strategy: " + spec);
+	}
+
+	/**
+	 * Like {@link #strategy(String)}, with bots playing from the opening book
+	 * and the endgame tablebase when they are given (either may be null).
+	 */
+	public static Function<RandomProvider, MoveStrategy> strategy(String spec, OpeningBook book,
+			EndgameTablebase tablebase) {
+		Function<RandomProvider, MoveStrategy> factory = strategy(spec);
+		if (book == null && tablebase == null) {
+			return factory;
+		}
+		return random -> {
+			MoveStrategy strategy = factory.apply(random);
+			if (strategy instanceof BotStrategy) {
+				((BotStrategy) strategy).setOpeningBook(book);
+				((BotStrategy) strategy).setTablebase(tablebase);
+			}
+			return strategy;
+		};
+	}
+
+	/**
+	 * The strategies built by the factory, with bots recording their searches.
+	 */
+	private static Function<RandomProvider, MoveStrategy> traced(Function<RandomProvider, MoveStrategy> factory,
+			SearchTraceRecorder trace) {
+		return random -> {
+			MoveStrategy strategy = factory.apply(random);
+			if (strategy instanceof BotStrategy) {
+				((BotStrategy) strategy).setTraceRecorder(trace);
+			}
+			return strategy;
+		};
+	}
+
+	public static void main(String[] args) throws IOException {
+		int games = 100;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int maxTurns = DEFAULT_MAX_TURNS;
+		Long seed = null;
+		OpeningBook book = null;
+		EndgameTablebase tablebase = null;
+		String traceFile = null;
+		String journalDirectory = null;
+		List<String> specs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--games":
+					games = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--max-turns":
+					maxTurns = Integer.parseInt(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--book":
+					book = OpeningBook.open(Paths.get(args[++i]));
+					break;
+				case "--tablebase":
+					tablebase = EndgameTablebase.open(Paths.get(args[++i]));
+					break;
+				case "--trace":
+					traceFile = args[++i];
+					break;
+				case "--journal":
+					journalDirectory = args[++i];
+					break;
+				default:
+					specs.add(args[i]);
+					break;
+			}
+		}
+		if (specs.size() != 2) {
+			System.out.println("usage: Tournament [--games N] [--threads N] [--max-turns N] [--seed N] [--book FILE]"
+					+ " [--tablebase FILE] [--trace FILE]"
+					+ " [--journal DIR]"
+					+ " STRATEGY_A STRATEGY_B");
+			System.out.println("strategies: random, bot, bot:DEPTH, bot:MILLISms, mcts, mcts:PLAYOUTS, mcts:MILLISms");
+			return;
+		}
+
+		Function<RandomProvider, MoveStrategy> strategyA = strategy(specs.get(0), book, tablebase);
+		Function<RandomProvider, MoveStrategy> strategyB = strategy(specs.get(1), book, tablebase);
+		SearchTraceRecorder trace = null;
+		if (traceFile != null) {
+			// one recorder takes one search at a time
+			trace = new SearchTraceRecorder(Paths.get(traceFile));
+			strategyA = traced(strategyA, trace);
+			strategyB = traced(strategyB, trace);
+			threads = 1;
+		}
+
+		Tournament tournament = new Tournament(specs.get(0), strategyA, specs.get(1), strategyB);
+		tournament.setGames(games);
+		tournament.setThreads(threads);
+		tournament.setMaxTurns(maxTurns);
+		if (seed != null) {
+			tournament.setSeed(seed);
+		}
+		GameJournal journal = journalDirectory == null ? null : GameJournal.open(Paths.get(journalDirectory));
+		tournament.setJournal(journal);
+		System.out.println("Playing " + games + " games of " + specs.get(0) + " vs " + specs.get(1) + " on "
+				+ Math.min(threads, games) + " threads");
+		try {
+			System.out.print(tournament.run());
+		} finally {
+			if (trace != null) {
+				trace.close();
+			}
+			if (journal != null) {
+				journal.close();
+			}
+		}
+	}
+}
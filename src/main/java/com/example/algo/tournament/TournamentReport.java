@@ -0,0 +1,116 @@
+package com.example.algo.tournament;
+
+import java.util.Locale;
+
+/**
+ * Results of a tournament between strategy A and strategy B. Workers fill
+ * one report each, which are then merged.
+ */
+public class TournamentReport {
+	private final String nameA;
+	private final String nameB;
+	private final long seed;
+	int games;
+	int winsA;
+	int winsB;
+	int firstPlayerWins;
+	long turns;
+	final LatencyHistogram latencyA = new LatencyHistogram();
+	final LatencyHistogram latencyB = new LatencyHistogram();
+	long elapsedNanos;
+
+	TournamentReport(String nameA, String nameB, long seed) {
+		this.nameA = nameA;
+		this.nameB = nameB;
+		this.seed = seed;
+	}
+
+	void merge(TournamentReport other) {
+		games += other.games;
+		winsA += other.winsA;
+		winsB += other.winsB;
+		firstPlayerWins += other.firstPlayerWins;
+		turns += other.turns;
+		latencyA.merge(other.latencyA);
+		latencyB.merge(other.latencyB);
+	}
+
+	/**
+	 * @return the seed that replays this tournament
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	public long getTurns() {
+		return turns;
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	public int getWinsA() {
+		return winsA;
+	}
+
+	public int getWinsB() {
+		return winsB;
+	}
+
+	/**
+	 * @return games stopped at the turn limit
+	 */
+	public int getUnfinished() {
+		return games - winsA - winsB;
+	}
+
+	public int getFirstPlayerWins() {
+		return firstPlayerWins;
+	}
+
+	public double getAverageTurns() {
+		return games == 0 ? 0 : (double) turns / games;
+	}
+
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+	}
+
+	public LatencyHistogram getLatencyA() {
+		return latencyA;
+	}
+
+	public LatencyHistogram getLatencyB() {
+		return latencyB;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		out.append(String.format(Locale.ROOT, "Games: %d in %.2f s (%.1f games/s), seed %d%n",
+				games, elapsedNanos / 1e9, getGamesPerSecond(), seed));
+		out.append(String.format(Locale.ROOT, "A %-20s wins %6d (%5.1f%%)%n", nameA, winsA, percent(winsA)));
+		out.append(String.format(Locale.ROOT, "B %-20s wins %6d (%5.1f%%)%n", nameB, winsB, percent(winsB)));
+		out.append(String.format(Locale.ROOT, "Unfinished (turn limit)  %6d (%5.1f%%)%n",
+				getUnfinished(), percent(getUnfinished())));
+		out.append(String.format(Locale.ROOT, "First player wins        %6d (%5.1f%%)%n",
+				firstPlayerWins, percent(firstPlayerWins)));
+		out.append(String.format(Locale.ROOT, "Average length: %.1f turns%n", getAverageTurns()));
+		out.append(latencyLine("A", latencyA));
+		out.append(latencyLine("B", latencyB));
+		return out.toString();
+	}
+
+	private double percent(int count) {
+		return games == 0 ? 0 : 100.0 * count / games;
+	}
+
+	private static String latencyLine(String seat, LatencyHistogram latency) {
+		return String.format(Locale.ROOT,
+				"%s move latency (us): mean %.1f  p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f  (%d moves)%n",
+				seat, latency.meanNanos() / 1e3, latency.percentileNanos(50) / 1e3,
+				latency.percentileNanos(90) / 1e3, latency.percentileNanos(99) / 1e3,
+				latency.percentileNanos(99.9) / 1e3, latency.maxNanos() / 1e3, latency.count());
+	}
+}
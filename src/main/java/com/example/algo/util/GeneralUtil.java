@@ -49,9 +49,7 @@ public class GeneralUtil {
 		for (int i = 0; i < state.board.length; i++) {
 			final int idx = i;
 			Cell cell = state.board[idx];
-			Piece piece = state.pieces.stream()
-					.filter(p -> p.getPosition() == idx).findFirst()
-					.orElse(null);
+			Piece piece = state.getPieceAtIndex(idx);
 
 			String content;
 			if (piece != null) {
@@ -92,9 +90,7 @@ public class GeneralUtil {
 			for (int col = (row == 1 ? cols - 1 : 0); (row == 1 ? col >= 0 : col < cols); col += (row == 1 ? -1 : 1)) {
 				int index = row * cols + col;
 				Cell cell = state.board[index];
-				Piece piece = state.pieces.stream()
-						.filter(p -> p.getPosition() == index).findFirst()
-						.orElse(null);
+				Piece piece = state.getPieceAtIndex(index);
 
 				String content;
 				String color = RESET;
@@ -148,7 +144,15 @@ public class GeneralUtil {
 
 	public static boolean checkGameOver(GameState state) {
 		for (Player player : state.players) {
-			if (state.getPiecesFor(player).isEmpty()) {
+			// borne off pieces (past cell 30) stay in the list but are out of play
+			boolean onBoard = false;
+			for (Piece piece : state.getPiecesFor(player)) {
+				if (piece.getPosition() <= 30) {
+					onBoard = true;
+					break;
+				}
+			}
+			if (!onBoard) {
 				System.out.println("Game over! " + player.getName() + " has no pieces left.");
 				return true;
 			}
@@ -167,10 +171,7 @@ public class GeneralUtil {
 		// Helper to get piece symbol at cell
 		java.util.function.Function<Integer, String> getCellContent = (cellNumber) -> {
 			int arrayIndex = cellNumber - 1;
-			Piece piece = state.pieces.stream()
-					.filter(p -> p.getPosition() == cellNumber)
-					.findFirst()
-					.orElse(null);
+			Piece piece = state.getPieceAtIndex(cellNumber);
 
 			if (piece != null) {
 				String name = piece.getOwner().getName();
@@ -253,10 +254,7 @@ public class GeneralUtil {
 		// Note: cellNumber 1-30 maps to array index 0-29
 		java.util.function.Function<Integer, Piece> getPieceAtCell = (cellNumber) -> {
 			int arrayIndex = cellNumber - 1;
-			return state.pieces.stream()
-					.filter(p -> p.getPosition() == cellNumber)
-					.findFirst()
-					.orElse(null);
+			return state.getPieceAtIndex(cellNumber);
 		};
 
 		// Helper to get special cell marker
@@ -455,14 +453,9 @@ public class GeneralUtil {
 
 	public static void sendToReBirth(Piece piece, GameState state) {
 		// System.out.println("sent to rebirth ::supposed to::");
-		Set<Integer> occupied = new HashSet<>();
-		for (Piece p : state.pieces) {
-			occupied.add(p.getPosition());
-		}
-
 		// 14 stands for the house of re-birth index
 		for (int pos = 14; pos >= 0; pos--) {
-			if (!occupied.contains(pos)) {
+			if (state.getPieceAtIndex(pos) == null) {
 				piece.moveTo(pos);
 				break;
 			}
@@ -1,22 +1,100 @@
 package com.example.algo.util;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /*
  * DEV_NOTES: I added this class , to take the random numbers via a class 
  * 			instead of a random variable inside each funcion and so on . 
- * NOTE2  : the returns are wrong , just naming functions .
+ */
+
+/**
+ * Seedable, splittable random numbers (the SplitMix64 generator that
+ * java.util.SplittableRandom uses). One provider is one stream and is not
+ * thread-safe: give every thread or game its own, either split off a parent
+ * or picked by index with {@link #stream(long, long)}. The same seed always
+ * gives the same numbers, so games played from a seed can be replayed.
  */
 public class RandomProvider {
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	// seeds for providers made without one
+	private static final AtomicLong SEEDER = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+	private long seed;
+
+	public RandomProvider() {
+		this(mix64(SEEDER.getAndAdd(GOLDEN_GAMMA)));
+	}
+
+	public RandomProvider(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * The index-th stream of a seed, e.g. one per game of a tournament. The
+	 * same seed and index always give the same stream, whichever thread asks
+	 * and in whatever order.
+	 */
+	public static RandomProvider stream(long seed, long index) {
+		return new RandomProvider(mix64(seed + (index + 1) * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Restarts this provider as if it had been made with the seed.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * A new, independent provider seeded from this one.
+	 */
+	public RandomProvider split() {
+		return new RandomProvider(mix64(nextLong()));
+	}
+
+	public long nextLong() {
+		return mix64(seed += GOLDEN_GAMMA);
+	}
+
+	/**
+	 * @return a value from 0 (inclusive) to bound (exclusive)
+	 */
 	public int nextInt(int bound) {
 		return this.nextInt(0, bound);
 	}
-	public int nextInt(int start , int end) {
-		// add the random code here not in the first function 
-		// the first function represent the default value for the function. 
-		// where it takes from 0 to the current value .
-		return 0; 
+
+	/**
+	 * @return a value from start (inclusive) to end (exclusive)
+	 */
+	public int nextInt(int start, int end) {
+		int bound = end - start;
+		if (bound <= 0) {
+			throw new IllegalArgumentException("empty range: " + start + ", " + end);
+		}
+		int r = (int) (nextLong() >>> 33);
+		if ((bound & (bound - 1)) == 0) {
+			return start + (int) ((bound * (long) r) >>> 31);
+		}
+		// rejection sampling keeps every value equally likely
+		for (int u = r; u - (r = u % bound) + (bound - 1) < 0; u = (int) (nextLong() >>> 33)) {
+		}
+		return start + r;
 	}
-	
+
 	public boolean nextBoolean() {
-		return false;
+		return nextLong() < 0;
+	}
+
+	/**
+	 * @return a value from 0.0 (inclusive) to 1.0 (exclusive)
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
 	}
 }
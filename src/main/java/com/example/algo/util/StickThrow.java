@@ -1,17 +1,44 @@
 package com.example.algo.util;
 
 import java.util.concurrent.ThreadLocalRandom;
-/*
- * DEV_NOTES: the returns in this class are wrong , just naming functions ,.
- */
+
 public class StickThrow {
+	/*
+	 * this is a mathmatical representation , the bits value will be between 0->15 ( all will be represented with 4 bits ) 
+	 * and then the sum will be the count of 1's in the binary format of the randomly generated number , 5 when it is 0 .
+	 * the table holds that sum for every 4 bit value: 1 => 4/16 , 2 => 6/16 , 3 => 4/16 , 4 => 1/16 , 5 => 1/16 .
+	 */
+	private static final int[] STICKS = new int[16];
+
+	static {
+		for (int bits = 0; bits < STICKS.length; bits++) {
+			int sum = Integer.bitCount(bits);
+			STICKS[bits] = sum == 0 ? 5 : sum;
+		}
+	}
+
+	/**
+	 * Chance of throwing the given sum, 1 to 5.
+	 */
+	public static double probability(int stick) {
+		int ways = 0;
+		for (int sum : STICKS) {
+			if (sum == stick) {
+				ways++;
+			}
+		}
+		return ways / (double) STICKS.length;
+	}
+
 	public static int throwSticks() {
-		/*
-		 * this is a mathmatical representation , the bits value will be between 0->15 ( all will be represented with 4 bits ) 
-		 * and then the sum variable will be the count of 1's in the binary format of the randomly generated number . 
-		 * 		 */
-		int bits = ThreadLocalRandom.current().nextInt(16); 
-	    int sum = Integer.bitCount(bits);
-	    return sum == 0 ? 5 : sum;
+		return STICKS[ThreadLocalRandom.current().nextInt(16)];
+	}
+
+	/**
+	 * Throws with the given provider, so the throws can be replayed from its
+	 * seed.
+	 */
+	public static int throwSticks(RandomProvider random) {
+		return STICKS[random.nextInt(16)];
 	}
-}
\ No newline at end of file
+}
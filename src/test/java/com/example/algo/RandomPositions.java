@@ -0,0 +1,67 @@
+package com.example.algo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.Piece;
+
+/**
+ * Builds reproducible positions for the tests by playing random legal moves
+ * from the standard opening.
+ */
+public class RandomPositions {
+	private final Random random;
+
+	public RandomPositions(long seed) {
+		this.random = new Random(seed);
+	}
+
+	public GameState newGame() {
+		Player[] players = { new Player("White", null), new Player("Black", null) };
+		return new GameInitializer().createNewGame(players);
+	}
+
+	/**
+	 * A fresh game advanced by the given number of random plies.
+	 */
+	public GameState after(int plies) {
+		GameState state = newGame();
+		for (int i = 0; i < plies; i++) {
+			playRandom(state, throwSticks());
+		}
+		return state;
+	}
+
+	public int throwSticks() {
+		int sum = Integer.bitCount(random.nextInt(16));
+		return sum == 0 ? 5 : sum;
+	}
+
+	public void playRandom(GameState state, int stick) {
+		List<MovePiece> moves = legalMoves(state, state.getCurrentPlayer(), stick);
+		if (!moves.isEmpty()) {
+			moves.get(random.nextInt(moves.size())).execute(state);
+		}
+		state.switchPlayer();
+	}
+
+	public static List<MovePiece> legalMoves(GameState state, Player player, int stick) {
+		List<MovePiece> moves = new ArrayList<>();
+		for (Piece piece : state.getPiecesFor(player)) {
+			if (piece.getPosition() > 30) {
+				continue;
+			}
+			MovePiece move = new MovePiece(piece, piece.getPosition() + stick);
+			if (RuleEngine.isLegal(move, state)) {
+				moves.add(move);
+			}
+		}
+		return moves;
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.algo.analysis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import com.example.algo.game.GameSession;
+import com.example.algo.journal.GameJournal;
+import com.example.algo.journal.GameJournalReader;
+import com.example.algo.player.Player;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.strategy.random.RandomStrategy;
+import com.example.algo.util.RandomProvider;
+import com.example.algo.util.StickThrow;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class BatchAnalyzerTest
+    extends TestCase
+{
+    private static final int GAMES = 6;
+
+    public BatchAnalyzerTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BatchAnalyzerTest.class );
+    }
+
+    public void testReportCoversEveryTurnWhateverTheThreads()
+        throws IOException
+    {
+        Path directory = Files.createTempDirectory( "analysis" );
+        try
+        {
+            long turns = 0;
+            int finished = 0;
+            try ( GameJournal journal = GameJournal.open( directory ) )
+            {
+                for ( int game = 0; game < GAMES; game++ )
+                {
+                    RandomProvider random = new RandomProvider( game );
+                    Player[] players = { new Player( "Player 1", new RandomStrategy( random.split() ) ),
+                        new Player( "Player 2", new RandomStrategy( random.split() ) ) };
+                    GameState state = new GameInitializer().createNewGame( players );
+                    GameSession session =
+                        new GameSession( state, () -> StickThrow.throwSticks( random ), journal.newGame() );
+                    if ( session.play( 2000 ) != null )
+                    {
+                        finished++;
+                    }
+                    turns += session.getTurns();
+                }
+            }
+
+            GameJournalReader reader = GameJournalReader.open( directory );
+            BatchAnalyzer single = new BatchAnalyzer( reader );
+            single.setThreads( 1 );
+            single.setBlunderLoss( 1 );
+            AnalysisReport report = single.run();
+
+            assertEquals( GAMES, report.getGames() );
+            assertEquals( finished, report.getFinished() );
+            assertEquals( turns, report.getTurns() );
+            long effects = 0;
+            for ( PendingEffect effect : PendingEffect.values() )
+            {
+                effects += report.getEffectsRemoved( effect ) + report.getEffectsReborn( effect );
+            }
+            assertTrue( effects > 0 );
+            assertTrue( report.getScoredMoves() > 0 );
+            assertTrue( report.getBlunders() > 0 );
+            assertEquals( BatchAnalyzer.DEFAULT_TOP, report.getWorst().size() );
+
+            // a fresh cache, so every value is searched again on the other threads
+            BatchAnalyzer parallel = new BatchAnalyzer( reader );
+            parallel.setThreads( 3 );
+            parallel.setBlunderLoss( 1 );
+            AnalysisReport split = parallel.run();
+            assertEquals( report.getTurns(), split.getTurns() );
+            assertEquals( report.getBlunders(), split.getBlunders() );
+            assertEquals( report.getWorst().toString(), split.getWorst().toString() );
+            assertEquals( report.lengthPercentile( 50 ), split.lengthPercentile( 50 ) );
+            assertEquals( report.getOccupancy( 1, 14 ), split.getOccupancy( 1, 14 ) );
+        }
+        finally
+        {
+            try ( Stream<Path> files = Files.walk( directory ) )
+            {
+                files.sorted( Comparator.reverseOrder() ).forEach( path -> path.toFile().delete() );
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.algo.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.algo.player.Player;
+import com.example.algo.setup.BoardFactory;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.Piece;
+import com.example.algo.strategy.ai.BotStrategy;
+import com.example.algo.strategy.random.RandomStrategy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class GameSessionTest
+    extends TestCase
+{
+    public GameSessionTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( GameSessionTest.class );
+    }
+
+    public void testRandomGamesEndWithAllPiecesOffTheBoard()
+    {
+        for ( int game = 0; game < 20; game++ )
+        {
+            Player[] players = { new Player( "White", new RandomStrategy() ), new Player( "Black", new RandomStrategy() ) };
+            GameState state = new GameInitializer().createNewGame( players );
+            GameSession session = new GameSession( state );
+
+            Player winner = session.play( 100000 );
+
+            assertNotNull( winner );
+            assertTrue( session.isOver() );
+            for ( Piece piece : state.getPiecesFor( winner ) )
+            {
+                assertTrue( piece.getPosition() > 30 );
+            }
+        }
+    }
+
+    public void testPendingEffectWithoutAMoveSendsPieceToRebirth()
+    {
+        Player white = new Player( "White", ( state, player, stick ) -> null );
+        Player black = new Player( "Black", new RandomStrategy() );
+        List<Piece> pieces = new ArrayList<>();
+        Piece marked = new Piece( white, 27 );
+        pieces.add( marked );
+        pieces.add( new Piece( black, 20 ) );
+        GameState state = new GameState( new BoardFactory().createBoard(), pieces, new Player[] { white, black } );
+        state.markThreeTruthsPiece( marked, 0 );
+
+        GameSession session = new GameSession( state, () -> 3, GameListener.NONE );
+        session.playTurn();
+
+        assertEquals( 14, marked.getPosition() );
+        assertNull( state.getPendingThreeTruthsPiece() );
+        assertFalse( session.isOver() );
+        assertEquals( 1, state.currentPlayerIndex );
+    }
+
+    public void testBotTakesMarkedPieceOutOnlyWithTheRightThrow()
+    {
+        for ( int stick = 1; stick <= 5; stick++ )
+        {
+            Player white = new Player( "White", new BotStrategy() );
+            Player black = new Player( "Black", new RandomStrategy() );
+            List<Piece> pieces = new ArrayList<>();
+            Piece marked = new Piece( white, 28 );
+            pieces.add( marked );
+            pieces.add( new Piece( white, 12 ) );
+            pieces.add( new Piece( black, 20 ) );
+            GameState state = new GameState( new BoardFactory().createBoard(), pieces, new Player[] { white, black } );
+            state.markAtoumPiece( marked, 0 );
+
+            int thrown = stick;
+            new GameSession( state, () -> thrown, GameListener.NONE ).playTurn();
+
+            assertNull( state.getPendingAtoumPiece() );
+            if ( stick == 2 )
+            {
+                assertFalse( state.pieces.contains( marked ) );
+            }
+            else
+            {
+                assertEquals( 14, marked.getPosition() );
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.algo.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.example.algo.game.GameListener;
+import com.example.algo.game.GameSession;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+import com.example.algo.strategy.random.RandomStrategy;
+import com.example.algo.util.RandomProvider;
+import com.example.algo.util.StickThrow;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class GameJournalTest
+    extends TestCase
+{
+    private static final int GAMES = 12;
+
+    public GameJournalTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( GameJournalTest.class );
+    }
+
+    public void testReplayMatchesEveryTurnAcrossSegmentsAndReopening()
+        throws IOException
+    {
+        Path directory = Files.createTempDirectory( "journal" );
+        try
+        {
+            List<List<String>> snapshots = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            // small segments, so the games spread over several
+            GameJournal journal = GameJournal.open( directory, 16 * 1024 );
+            for ( int game = 0; game < GAMES; game++ )
+            {
+                if ( game == GAMES / 2 )
+                {
+                    journal.close();
+                    journal = GameJournal.open( directory, 16 * 1024 );
+                }
+                List<String> positions = new ArrayList<>();
+                GameRecorder recorder = journal.newGame();
+                play( game, GameListener.both( recorder, snapshots( positions ) ) );
+                snapshots.add( positions );
+                ids.add( recorder.getGameId() );
+            }
+            journal.close();
+
+            GameJournalReader reader = GameJournalReader.open( directory );
+            assertEquals( GAMES, reader.getGameCount() );
+            assertTrue( GameJournalReader.segments( directory ).size() > 1 );
+            for ( int game = 0; game < GAMES; game++ )
+            {
+                long id = ids.get( game );
+                assertEquals( game, id );
+                assertEquals( id, reader.getGameId( game ) );
+                List<String> positions = snapshots.get( game );
+                assertEquals( positions.size() - 1, reader.getTurns( id ) );
+                for ( int turn = 0; turn < positions.size(); turn++ )
+                {
+                    assertEquals( positions.get( turn ), describe( reader.replay( id, turn ) ) );
+                }
+            }
+        }
+        finally
+        {
+            try ( Stream<Path> files = Files.walk( directory ) )
+            {
+                files.sorted( Comparator.reverseOrder() ).forEach( path -> path.toFile().delete() );
+            }
+        }
+    }
+
+    private static void play( int game, GameListener listener )
+    {
+        RandomProvider random = new RandomProvider( game );
+        Player[] players = { new Player( "Player 1", new RandomStrategy( random.split() ) ),
+            new Player( "Player 2", new RandomStrategy( random.split() ) ) };
+        GameState state = new GameInitializer().createNewGame( players );
+        new GameSession( state, () -> StickThrow.throwSticks( random ), listener ).play( 2000 );
+    }
+
+    /**
+     * Records the position before the first turn and after every turn.
+     */
+    private static GameListener snapshots( List<String> positions )
+    {
+        return new GameListener()
+        {
+            private boolean started;
+
+            @Override
+            public void turnStarted( GameState state, Player player, int stick, PendingEffect effect )
+            {
+                if ( !started )
+                {
+                    started = true;
+                    positions.add( describe( state ) );
+                }
+            }
+
+            @Override
+            public void effectResolved( GameState state, PendingEffect effect, Piece piece, boolean removed )
+            {
+                positions.add( describe( state, 1 - state.currentPlayerIndex ) );
+            }
+
+            @Override
+            public void moved( GameState state, MovePiece move, int from, boolean swapped )
+            {
+                positions.add( describe( state, 1 - state.currentPlayerIndex ) );
+            }
+
+            @Override
+            public void noMove( GameState state, Player player )
+            {
+                positions.add( describe( state, 1 - state.currentPlayerIndex ) );
+            }
+        };
+    }
+
+    private static String describe( GameState state )
+    {
+        return describe( state, state.currentPlayerIndex );
+    }
+
+    private static String describe( GameState state, int nextPlayer )
+    {
+        StringBuilder out = new StringBuilder().append( nextPlayer ).append( ':' );
+        for ( Piece piece : state.pieces )
+        {
+            out.append( piece.getOwner().getName().charAt( 7 ) ).append( piece.getPosition() ).append( ' ' );
+        }
+        return out.append( state.getPendingThreeTruthsPiece() != null )
+            .append( state.getPendingAtoumPiece() != null )
+            .append( state.getPendingHorusPiece() != null ).toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.algo.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.algo.player.Player;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.strategy.MoveStrategy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class GameServerTest
+    extends TestCase
+{
+    public GameServerTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( GameServerTest.class );
+    }
+
+    public void testConcurrentClientsPlayTheirGames()
+        throws IOException, InterruptedException
+    {
+        try ( GameServer server = new GameServer( 0, 1 ) )
+        {
+            server.start();
+            LoadGenerator generator = new LoadGenerator( "localhost", server.getPort() );
+            generator.setClients( 20 );
+            generator.setGames( 2 );
+            generator.setOpponent( "bot:1" );
+            generator.setSeed( 5 );
+            LoadReport report = generator.run();
+
+            assertEquals( 0, report.getFailedClients() );
+            assertEquals( 40, report.getGames() );
+            assertEquals( 40, server.getGamesPlayed() );
+            assertTrue( report.getMoves() > 0 );
+        }
+    }
+
+    public void testShutdownReleasesSessionsWaitingForAMove()
+        throws InterruptedException
+    {
+        ComputePool pool = new ComputePool( 1 );
+        MoveStrategy bot = pool.strategy( "bot" );
+        Player[] players = { new Player( "Player 1", bot ), new Player( "Player 2", bot ) };
+        GameState state = new GameInitializer().createNewGame( players );
+        // more sessions than compute threads, so some decisions are still queued
+        List<Thread> sessions = new ArrayList<>();
+        for ( int s = 0; s < 4; s++ )
+        {
+            Thread session = new Thread( () -> {
+                try
+                {
+                    bot.chooseMove( state, players[0], 2 );
+                }
+                catch ( IllegalStateException e )
+                {
+                    // cancelled while queued, or refused after the shutdown
+                }
+            } );
+            session.start();
+            sessions.add( session );
+        }
+        pool.shutdown();
+        for ( Thread session : sessions )
+        {
+            session.join( 10000 );
+            assertFalse( "a session waits forever", session.isAlive() );
+        }
+
+        // once shut down, a move fails at once
+        try
+        {
+            bot.chooseMove( state, players[0], 2 );
+            fail( "the pool is shut down" );
+        }
+        catch ( IllegalStateException expected )
+        {
+            // no compute thread left
+        }
+    }
+
+    public void testIllegalMovesAreRejected()
+        throws IOException, InterruptedException
+    {
+        try ( GameServer server = new GameServer( 0, 1 );
+              Socket socket = new Socket( "localhost", server.getPort() ) )
+        {
+            server.start();
+            BufferedReader in = new BufferedReader(
+                new InputStreamReader( socket.getInputStream(), StandardCharsets.US_ASCII ) );
+            Writer out = new OutputStreamWriter( socket.getOutputStream(), StandardCharsets.US_ASCII );
+            assertEquals( "HELLO senet " + GameServer.PROTOCOL_VERSION, in.readLine() );
+
+            out.write( "NEW nobody\n" );
+            out.flush();
+            assertTrue( in.readLine().startsWith( "ERR" ) );
+
+            out.write( "NEW random 3\n" );
+            out.flush();
+            assertEquals( "GAME random", in.readLine() );
+            String line;
+            while ( !( line = in.readLine() ).startsWith( "MOVE " ) )
+            {
+                assertFalse( line.startsWith( "OVER" ) );
+            }
+            String prompt = line;
+            out.write( "MOVE 29\n" );
+            out.flush();
+            assertEquals( "ERR no legal move from 29", in.readLine() );
+            assertEquals( prompt, in.readLine() );
+
+            out.write( "MOVE " + prompt.split( " " )[2] + "\n" );
+            out.flush();
+            assertTrue( in.readLine().startsWith( "MOVED client " + prompt.split( " " )[2] + " " ) );
+        }
+    }
+}
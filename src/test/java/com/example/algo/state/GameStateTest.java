@@ -0,0 +1,128 @@
+package com.example.algo.state;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.algo.game.GameListener;
+import com.example.algo.game.GameSession;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.strategy.random.RandomStrategy;
+import com.example.algo.util.RandomProvider;
+import com.example.algo.util.StickThrow;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class GameStateTest
+    extends TestCase
+{
+    public GameStateTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( GameStateTest.class );
+    }
+
+    public void testOccupancyFollowsMovesSwapsAndEffects()
+    {
+        GameListener check = new GameListener()
+        {
+            @Override
+            public void moved( GameState state, MovePiece move, int from, boolean swapped )
+            {
+                assertIndexMatchesPieces( state );
+                assertIndexMatchesPieces( state.clone() );
+            }
+
+            @Override
+            public void effectResolved( GameState state, PendingEffect effect, Piece piece, boolean removed )
+            {
+                assertIndexMatchesPieces( state );
+            }
+        };
+        for ( int game = 0; game < 20; game++ )
+        {
+            RandomProvider random = new RandomProvider( game );
+            Player[] players = { new Player( "White", new RandomStrategy( random.split() ) ),
+                new Player( "Black", new RandomStrategy( random.split() ) ) };
+            GameState state = new GameInitializer().createNewGame( players );
+            assertIndexMatchesPieces( state );
+
+            new GameSession( state, () -> StickThrow.throwSticks( random ), check ).play( 100000 );
+        }
+    }
+
+    public void testPiecesOfAnotherStateAreRejected()
+    {
+        Player[] players = { new Player( "White", null ), new Player( "Black", null ) };
+        GameState state = new GameInitializer().createNewGame( players );
+        try
+        {
+            new GameState( state.board, state.pieces, players );
+            fail( "a second state would leave the first one's index stale" );
+        }
+        catch ( IllegalArgumentException expected )
+        {
+            // the first state keeps its pieces
+        }
+        assertIndexMatchesPieces( state );
+
+        // a rejected list leaves its free pieces free
+        Piece fresh = new Piece( players[0], 20 );
+        List<Piece> mixed = new ArrayList<>();
+        mixed.add( fresh );
+        mixed.add( state.pieces.get( 1 ) );
+        try
+        {
+            new GameState( state.board, mixed, players );
+            fail( "the second piece belongs to the first state" );
+        }
+        catch ( IllegalArgumentException expected )
+        {
+            // nothing was taken
+        }
+        mixed.remove( 1 );
+        assertSame( fresh, new GameState( state.board, mixed, players ).getPieceAtIndex( 20 ) );
+
+        // a removed piece is free again
+        Piece removed = state.pieces.get( 0 );
+        state.removePiece( removed );
+        List<Piece> pieces = new ArrayList<>();
+        pieces.add( removed );
+        assertSame( removed, new GameState( state.board, pieces, players ).getPieceAtIndex( removed.getPosition() ) );
+    }
+
+    private static void assertIndexMatchesPieces( GameState state )
+    {
+        for ( int index = 0; index < state.board.length; index++ )
+        {
+            Piece expected = null;
+            for ( Piece piece : state.pieces )
+            {
+                if ( piece.getPosition() == index )
+                {
+                    expected = piece;
+                }
+            }
+            assertSame( expected, state.getPieceAtIndex( index ) );
+        }
+        for ( Player player : state.players )
+        {
+            List<Piece> expected = new ArrayList<>();
+            for ( Piece piece : state.pieces )
+            {
+                if ( piece.getOwner().equals( player ) )
+                {
+                    expected.add( piece );
+                }
+            }
+            assertEquals( expected, state.getPiecesFor( player ) );
+        }
+    }
+}
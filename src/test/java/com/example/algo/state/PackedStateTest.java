@@ -0,0 +1,116 @@
+package com.example.algo.state;
+
+import com.example.algo.RandomPositions;
+import com.example.algo.move.MovePiece;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that the packed state is a faithful copy of {@link GameState}.
+ */
+public class PackedStateTest
+    extends TestCase
+{
+    // a different value on every position
+    private static final int[] SCORES = new int[PackedState.MAX_POSITION + 1];
+
+    static
+    {
+        for ( int position = 0; position < SCORES.length; position++ )
+        {
+            SCORES[position] = position * position + 7;
+        }
+    }
+
+    public PackedStateTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( PackedStateTest.class );
+    }
+
+    public void testRoundTripKeepsEveryPiece()
+    {
+        RandomPositions positions = new RandomPositions( 1L );
+        for ( int plies = 0; plies < 200; plies += 3 )
+        {
+            GameState state = positions.after( plies );
+            PackedState packed = PackedState.fromGameState( state );
+            GameState rebuilt = packed.toGameState( state.board, state.players );
+
+            assertEquals( packed, PackedState.fromGameState( rebuilt ) );
+            assertEquals( state.currentPlayerIndex, rebuilt.currentPlayerIndex );
+            for ( int player = 0; player < 2; player++ )
+            {
+                assertEquals( state.getPiecesFor( state.players[player] ).size(), packed.pieceCount( player ) );
+            }
+            for ( int cell = 0; cell < 30; cell++ )
+            {
+                Piece piece = state.getPieceAtIndex( cell );
+                int owner = piece == null ? PackedState.NONE : ( piece.getOwner() == state.players[0] ? 0 : 1 );
+                assertEquals( owner, packed.ownerAt( cell ) );
+            }
+        }
+    }
+
+    public void testMakeMoveMatchesExecuteAndUnmakes()
+    {
+        RandomPositions positions = new RandomPositions( 2L );
+        GameState game = positions.newGame();
+        for ( int plies = 0; plies < 240; plies += 2 )
+        {
+            PackedState packed = PackedState.fromGameState( positions.after( plies ) );
+            packed.setPieceSquareTable( SCORES );
+            GameState template = packed.toGameState( game.board, game.players );
+            int player = packed.currentPlayerIndex;
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                for ( MovePiece move : RandomPositions.legalMoves( template, game.players[player], stick ) )
+                {
+                    int from = move.getPiece().getPosition();
+                    GameState expected = packed.toGameState( game.board, game.players );
+                    new MovePiece( firstPieceAt( expected, game.players[player], from ), move.getTargetIndex() )
+                            .execute( expected );
+
+                    PackedState actual = packed.copy();
+                    assertTrue( actual.isLegal( player, from, move.getTargetIndex() ) );
+                    long undo = actual.makeMove( player, from, move.getTargetIndex() );
+                    assertEquals( PackedState.fromGameState( expected ), actual );
+                    assertEquals( PackedState.fromGameState( expected ).hash(), actual.hash() );
+                    assertSameScores( PackedState.fromGameState( expected ), actual );
+
+                    actual.unmakeMove( undo );
+                    assertEquals( packed, actual );
+                    assertEquals( packed.hash(), actual.hash() );
+                    assertSameScores( packed, actual );
+                }
+            }
+        }
+    }
+
+    private static void assertSameScores( PackedState expected, PackedState actual )
+    {
+        expected.setPieceSquareTable( SCORES );
+        for ( int player = 0; player < 2; player++ )
+        {
+            assertEquals( expected.score( player ), actual.score( player ) );
+        }
+    }
+
+    private static Piece firstPieceAt( GameState state, Object owner, int position )
+    {
+        for ( Piece piece : state.pieces )
+        {
+            if ( piece.getOwner() == owner && piece.getPosition() == position )
+            {
+                return piece;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.algo.strategy.ai;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import com.example.algo.RandomPositions;
+import com.example.algo.game.GameListener;
+import com.example.algo.game.GameSession;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.setup.GameInitializer;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PendingEffect;
+import com.example.algo.state.Piece;
+import com.example.algo.strategy.MoveStrategy;
+import com.example.algo.strategy.random.RandomStrategy;
+import com.example.algo.util.RandomProvider;
+import com.example.algo.util.StickThrow;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * The bot has to pick exactly the move the original expectiminimax picks.
+ */
+public class BotStrategyTest
+    extends TestCase
+{
+    public BotStrategyTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BotStrategyTest.class );
+    }
+
+    public void testSameMoveAsReferenceSearch()
+    {
+        RandomPositions positions = new RandomPositions( 3L );
+        BotStrategy bot = new BotStrategy();
+        ReferenceSearch reference = new ReferenceSearch( 3 );
+        for ( int plies = 0; plies < 160; plies += 8 )
+        {
+            GameState state = positions.after( plies );
+            Player player = state.getCurrentPlayer();
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                assertSameMove( reference.chooseMove( state, player, stick ), bot.chooseMove( state, player, stick ) );
+            }
+        }
+    }
+
+    public void testParallelRootSearchPicksSameMove()
+    {
+        RandomPositions positions = new RandomPositions( 5L );
+        BotStrategy sequential = new BotStrategy();
+        BotStrategy parallel = new BotStrategy();
+        parallel.setParallelism( 4 );
+        for ( int plies = 0; plies < 160; plies += 8 )
+        {
+            GameState state = positions.after( plies );
+            Player player = state.getCurrentPlayer();
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                assertSameMove( sequential.chooseMove( state, player, stick ), parallel.chooseMove( state, player, stick ) );
+            }
+        }
+    }
+
+    public void testSameValuesAsReferenceSearch()
+    {
+        RandomPositions positions = new RandomPositions( 4L );
+        BotStrategy bot = new BotStrategy();
+        ReferenceSearch reference = new ReferenceSearch( 3 );
+        for ( int plies = 0; plies < 200; plies += 10 )
+        {
+            GameState state = positions.after( plies );
+            Player player = state.getCurrentPlayer();
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                for ( MovePiece move : RandomPositions.legalMoves( state, player, stick ) )
+                {
+                    assertEquals( reference.rootValue( state, player, move ), bot.evaluateMove( state, player, move ) );
+                }
+            }
+        }
+    }
+
+    public void testBudgetedSearchPlaysMoveOfLastCompletedDepth()
+    {
+        RandomPositions positions = new RandomPositions( 6L );
+        BotStrategy budgeted = new BotStrategy();
+        budgeted.setNodeBudget( 20000 );
+        BotStrategy fixed = new BotStrategy();
+        for ( int plies = 0; plies < 120; plies += 12 )
+        {
+            GameState state = positions.after( plies );
+            Player player = state.getCurrentPlayer();
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                if ( RandomPositions.legalMoves( state, player, stick ).size() < 2 )
+                {
+                    continue;
+                }
+                MovePiece move = budgeted.chooseMove( state, player, stick );
+                assertTrue( budgeted.getLastSearchDepth() >= 1 );
+                fixed.setMaxDepth( budgeted.getLastSearchDepth() );
+                assertSameMove( fixed.chooseMove( state, player, stick ), move );
+            }
+        }
+    }
+
+    public void testTimeBudgetBoundsLatency()
+    {
+        RandomPositions positions = new RandomPositions( 7L );
+        BotStrategy bot = new BotStrategy();
+        bot.setTimeBudget( 50 );
+        GameState state = positions.after( 40 );
+        Player player = state.getCurrentPlayer();
+        for ( int stick = 1; stick <= 5; stick++ )
+        {
+            long start = System.nanoTime();
+            bot.chooseMove( state, player, stick );
+            long millis = ( System.nanoTime() - start ) / 1000000L;
+            assertTrue( "took " + millis + " ms", millis < 500 );
+        }
+    }
+
+    public void testMetricsCountSearchesAndAreVisibleOverJmx()
+        throws Exception
+    {
+        RandomPositions positions = new RandomPositions( 11L );
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.register( "test" );
+        ObjectName name = new ObjectName( SearchMetrics.DOMAIN + ":type=SearchMetrics,name=" + ObjectName.quote( "test" ) );
+        try
+        {
+            BotStrategy bot = new BotStrategy();
+            bot.setMetrics( metrics );
+            GameState state = positions.after( 30 );
+            Player player = state.getCurrentPlayer();
+
+            int searched = 0;
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                bot.chooseMove( state, player, stick );
+                if ( RandomPositions.legalMoves( state, player, stick ).size() > 1 )
+                {
+                    searched++;
+                }
+            }
+
+            assertEquals( 5, metrics.getDecisions() );
+            assertEquals( searched, metrics.getSearchedMoves() );
+            assertTrue( searched > 0 );
+            assertEquals( 3, metrics.getLastDepth() );
+            assertTrue( metrics.getChanceNodes() > 0 );
+            assertTrue( metrics.getLeafNodes() > 0 );
+            assertTrue( metrics.getMaxNodes() + metrics.getMinNodes() > 0 );
+            assertTrue( metrics.getNodes() >= metrics.getChanceNodes() + metrics.getLeafNodes() );
+
+            assertEquals( 5L, ManagementFactory.getPlatformMBeanServer().getAttribute( name, "Decisions" ) );
+        }
+        finally
+        {
+            // a later registration under the same name gets its own bean
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean( name );
+        }
+    }
+
+    public void testSplitChanceNodesPickSameMove()
+    {
+        RandomPositions positions = new RandomPositions( 6L );
+        BotStrategy sequential = new BotStrategy();
+        BotStrategy split = new BotStrategy();
+        split.setParallelism( 3 );
+        // every chance node splits, down to the last ply
+        split.setSplitDepth( 1 );
+        try
+        {
+            for ( int plies = 0; plies < 160; plies += 8 )
+            {
+                GameState state = positions.after( plies );
+                Player player = state.getCurrentPlayer();
+                for ( int stick = 1; stick <= 5; stick++ )
+                {
+                    assertSameMove( sequential.chooseMove( state, player, stick ), split.chooseMove( state, player, stick ) );
+                }
+            }
+        }
+        finally
+        {
+            split.setParallelism( 1 );
+        }
+    }
+
+    public void testOneInstanceDecidesForManyThreadsAtOnce()
+        throws Exception
+    {
+        RandomPositions positions = new RandomPositions( 8L );
+        List<GameState> states = new ArrayList<>();
+        List<MovePiece> expected = new ArrayList<>();
+        BotStrategy own = new BotStrategy();
+        for ( int plies = 0; plies < 120; plies += 6 )
+        {
+            GameState state = positions.after( plies );
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                states.add( state );
+                expected.add( own.chooseMove( state, state.getCurrentPlayer(), stick ) );
+            }
+        }
+
+        BotStrategy shared = new BotStrategy();
+        ExecutorService threads = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<?>> games = new ArrayList<>();
+            for ( int thread = 0; thread < 4; thread++ )
+            {
+                int first = thread;
+                games.add( threads.submit( () -> {
+                    // every thread starts at a different position, so the searches overlap
+                    for ( int k = 0; k < states.size(); k++ )
+                    {
+                        int i = ( first * 7 + k ) % states.size();
+                        GameState state = states.get( i );
+                        assertSameMove( expected.get( i ), shared.chooseMove( state, state.getCurrentPlayer(), i % 5 + 1 ) );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> game : games )
+            {
+                game.get();
+            }
+        }
+        finally
+        {
+            threads.shutdown();
+        }
+    }
+
+    public void testAsyncDecisionReportsEveryDepthAndEndsOnTheSyncMove()
+        throws Exception
+    {
+        GameState state = new RandomPositions( 9L ).after( 30 );
+        Player player = state.getCurrentPlayer();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            BotStrategy bot = new BotStrategy();
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                if ( RandomPositions.legalMoves( state, player, stick ).size() < 2 )
+                {
+                    continue;
+                }
+                List<MovePiece> reported = new ArrayList<>();
+                MovePiece move = bot.chooseMoveAsync( state, player, stick, executor, 0, reported::add ).get();
+                assertSameMove( bot.chooseMove( state, player, stick ), move );
+                assertEquals( bot.getMaxDepth(), reported.size() );
+                assertSameMove( move, reported.get( reported.size() - 1 ) );
+            }
+
+            // a deadline lets the search deepen past the bot's depth until time is up
+            int stick = 2;
+            MovePiece timed = bot.chooseMoveAsync( state, player, stick, executor, 50, null ).get( 10, TimeUnit.SECONDS );
+            assertNotNull( timed );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testCancellingStopsTheSearch()
+        throws Exception
+    {
+        GameState state = new RandomPositions( 9L ).after( 30 );
+        Player player = state.getCurrentPlayer();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            BotStrategy bot = new BotStrategy();
+            // far too deep to finish
+            bot.setMaxDepth( 30 );
+            CountDownLatch firstIteration = new CountDownLatch( 1 );
+            CompletableFuture<MovePiece> move =
+                bot.chooseMoveAsync( state, player, 2, executor, 0, best -> firstIteration.countDown() );
+            assertTrue( firstIteration.await( 10, TimeUnit.SECONDS ) );
+            assertTrue( move.cancel( true ) );
+
+            // the executor's only thread is free again
+            assertEquals( "free", executor.submit( () -> "free" ).get( 10, TimeUnit.SECONDS ) );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testPonderingPlaysTheSameGame()
+    {
+        BotStrategy bot = new BotStrategy();
+        List<String> expected = play( bot, null );
+        try ( PonderingStrategy ponder = new PonderingStrategy( bot, 2 ) )
+        {
+            assertEquals( expected, play( ponder, ponder ) );
+            // every bot decision right after a random move or pass was searched
+            // while the random player moved
+            int pondered = 0;
+            for ( int turn = 1; turn < expected.size(); turn++ )
+            {
+                if ( expected.get( turn ).startsWith( "Bot " ) && !expected.get( turn ).endsWith( "effect" )
+                    && expected.get( turn - 1 ).startsWith( "Random " )
+                    && !expected.get( turn - 1 ).endsWith( "effect" ) )
+                {
+                    pondered++;
+                }
+            }
+            assertTrue( pondered > 0 );
+            assertEquals( pondered, ponder.getHits() );
+        }
+    }
+
+    static void assertSameMove( MovePiece expected, MovePiece actual )
+    {
+        if ( expected == null )
+        {
+            assertNull( actual );
+            return;
+        }
+        assertNotNull( actual );
+        assertEquals( expected.getPiece().getOwner(), actual.getPiece().getOwner() );
+        assertEquals( expected.getPiece().getPosition(), actual.getPiece().getPosition() );
+        assertEquals( expected.getTargetIndex(), actual.getTargetIndex() );
+    }
+
+    /**
+     * The turns of a game between a random player and the bot.
+     */
+    private static List<String> play( MoveStrategy bot, GameListener ponder )
+    {
+        RandomProvider random = new RandomProvider( 17L );
+        Player[] players = { new Player( "Random", new RandomStrategy( random.split() ) ), new Player( "Bot", bot ) };
+        GameState state = new GameInitializer().createNewGame( players );
+        List<String> moves = new ArrayList<>();
+        GameListener record = new GameListener()
+        {
+            @Override
+            public void moved( GameState state, MovePiece move, int from, boolean swapped )
+            {
+                moves.add( move.getPiece().getOwner().getName() + " " + from + " " + move.getTargetIndex() );
+            }
+
+            @Override
+            public void noMove( GameState state, Player player )
+            {
+                moves.add( player.getName() + " pass" );
+            }
+
+            @Override
+            public void effectResolved( GameState state, PendingEffect effect, Piece piece, boolean removed )
+            {
+                moves.add( state.getCurrentPlayer().getName() + " effect" );
+            }
+        };
+        new GameSession( state, () -> StickThrow.throwSticks( random ),
+            ponder == null ? record : GameListener.both( record, ponder ) ).play( 80 );
+        return moves;
+    }
+}
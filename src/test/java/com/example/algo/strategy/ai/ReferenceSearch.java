@@ -0,0 +1,133 @@
+package com.example.algo.strategy.ai;
+
+import java.util.List;
+
+import com.example.algo.RandomPositions;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+import com.example.algo.state.Piece;
+
+/**
+ * The original clone-per-node expectiminimax over {@link GameState}, kept as
+ * the reference the optimised search has to agree with.
+ */
+public class ReferenceSearch {
+	private static final double[] PROBABILITIES = { 0.25, 0.375, 0.25, 0.0625, 0.0625 };
+
+	private final int maxDepth;
+
+	public ReferenceSearch(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	public MovePiece chooseMove(GameState state, Player player, int stick) {
+		List<MovePiece> moves = RandomPositions.legalMoves(state, player, stick);
+		if (moves.isEmpty()) {
+			return null;
+		}
+		if (moves.size() == 1) {
+			return moves.get(0);
+		}
+		MovePiece bestMove = null;
+		int bestValue = Integer.MIN_VALUE;
+		for (MovePiece move : moves) {
+			int value = rootValue(state, player, move);
+			if (value > bestValue) {
+				bestValue = value;
+				bestMove = move;
+			}
+		}
+		return bestMove;
+	}
+
+	public int rootValue(GameState state, Player player, MovePiece move) {
+		GameState next = state.clone();
+		apply(next, move);
+		return expectiminimax(next, maxDepth - 1, player, false);
+	}
+
+	private int expectiminimax(GameState state, int depth, Player me, boolean isMaxNode) {
+		if (depth == 0 || isTerminal(state)) {
+			return evaluate(state, me);
+		}
+		double expectedValue = 0.0;
+		for (int stick = 1; stick <= 5; stick++) {
+			Player current = isMaxNode ? me : opponent(state, me);
+			List<MovePiece> moves = RandomPositions.legalMoves(state, current, stick);
+			if (moves.isEmpty()) {
+				GameState next = state.clone();
+				next.switchPlayer();
+				expectedValue += PROBABILITIES[stick - 1] * expectiminimax(next, depth - 1, me, !isMaxNode);
+				continue;
+			}
+			int best = isMaxNode ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+			for (MovePiece move : moves) {
+				GameState next = state.clone();
+				apply(next, move);
+				int value = expectiminimax(next, depth - 1, me, !isMaxNode);
+				best = isMaxNode ? Math.max(best, value) : Math.min(best, value);
+			}
+			expectedValue += PROBABILITIES[stick - 1] * best;
+		}
+		return (int) expectedValue;
+	}
+
+	private static void apply(GameState clone, MovePiece move) {
+		for (Piece p : clone.pieces) {
+			if (p.getOwner().equals(move.getPiece().getOwner())
+					&& p.getPosition() == move.getPiece().getPosition()) {
+				new MovePiece(p, move.getTargetIndex()).execute(clone);
+				break;
+			}
+		}
+		clone.switchPlayer();
+	}
+
+	private static boolean isTerminal(GameState state) {
+		for (Player player : state.players) {
+			boolean allRemoved = true;
+			for (Piece piece : state.getPiecesFor(player)) {
+				if (piece.getPosition() <= 30) {
+					allRemoved = false;
+				}
+			}
+			if (allRemoved) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Player opponent(GameState state, Player player) {
+		return state.players[0].equals(player) ? state.players[1] : state.players[0];
+	}
+
+	private static int evaluate(GameState state, Player me) {
+		Player opponent = opponent(state, me);
+		int score = 0;
+		for (Piece piece : state.pieces) {
+			int sign = piece.getOwner().equals(me) ? 1 : -1;
+			int position = piece.getPosition();
+			if (position > 30) {
+				score += sign * 10000;
+			} else {
+				int multiplier = position >= 20 ? 2 : 1;
+				score += sign * position * 10 * multiplier;
+			}
+			if (position >= 26 && position <= 30) {
+				score += sign * (20 + (position - 25) * 15);
+			}
+			if (position < 10) {
+				score -= sign * (position <= 3 ? 30 : (position <= 6 ? 20 : 10));
+			}
+		}
+		for (int cell : new int[] { 15, 26 }) {
+			Piece piece = state.getPieceAtIndex(cell);
+			if (piece != null) {
+				score += piece.getOwner().equals(me) ? 50 : (piece.getOwner().equals(opponent) ? -50 : 0);
+			}
+		}
+		return score;
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.algo.strategy.ai.book;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.example.algo.RandomPositions;
+import com.example.algo.move.MovePiece;
+import com.example.algo.rules.RuleEngine;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.strategy.ai.BotStrategy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class OpeningBookTest
+    extends TestCase
+{
+    public OpeningBookTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( OpeningBookTest.class );
+    }
+
+    public void testBookMovesAreTheSearchedMoves()
+        throws IOException
+    {
+        Path file = Files.createTempFile( "opening", ".book" );
+        try
+        {
+            OpeningBookBuilder builder = new OpeningBookBuilder();
+            builder.setTurns( 1 );
+            builder.setDepth( 2 );
+            builder.setThreads( 2 );
+            int entries = builder.build( file );
+            OpeningBook book = OpeningBook.open( file );
+            assertEquals( entries, book.size() );
+            assertEquals( 2, book.getDepth() );
+
+            BotStrategy searching = new BotStrategy();
+            searching.setMaxDepth( 2 );
+            BotStrategy booked = new BotStrategy();
+            booked.setMaxDepth( 2 );
+            booked.setOpeningBook( book );
+            RandomPositions positions = new RandomPositions( 15 );
+            for ( int plies = 0; plies <= 1; plies++ )
+            {
+                GameState state = positions.after( plies );
+                long hash = PackedState.fromGameState( state ).hash();
+                for ( int stick = 1; stick <= 5; stick++ )
+                {
+                    if ( RuleEngine.legalMoves( state, state.getCurrentPlayer(), stick ).size() < 2 )
+                    {
+                        // nothing to choose, nothing to store
+                        assertEquals( PackedState.NONE, book.probe( hash, stick ) );
+                        continue;
+                    }
+                    MovePiece searched = searching.chooseMove( state, state.getCurrentPlayer(), stick );
+                    int move = PackedState.move( searched.getPiece().getPosition(), searched.getTargetIndex() );
+                    assertEquals( move, book.probe( hash, stick ) );
+
+                    MovePiece played = booked.chooseMove( state, state.getCurrentPlayer(), stick );
+                    assertSame( searched.getPiece(), played.getPiece() );
+                    assertEquals( searched.getTargetIndex(), played.getTargetIndex() );
+                    assertEquals( 0, booked.getLastSearchDepth() );
+                }
+            }
+
+            GameState later = positions.after( 3 );
+            assertEquals( PackedState.NONE, book.probe( PackedState.fromGameState( later ).hash(), 2 ) );
+        }
+        finally
+        {
+            Files.delete( file );
+        }
+    }
+}
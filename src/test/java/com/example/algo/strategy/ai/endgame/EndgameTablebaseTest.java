@@ -0,0 +1,113 @@
+package com.example.algo.strategy.ai.endgame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.setup.BoardFactory;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.state.Piece;
+import com.example.algo.strategy.ai.BotStrategy;
+import com.example.algo.strategy.ai.SearchMetrics;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class EndgameTablebaseTest
+    extends TestCase
+{
+    private static EndgameTablebase tablebase;
+
+    public EndgameTablebaseTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( EndgameTablebaseTest.class );
+    }
+
+    @Override
+    protected void setUp()
+        throws IOException
+    {
+        if ( tablebase == null )
+        {
+            Path file = Files.createTempFile( "endgame", ".tb" );
+            file.toFile().deleteOnExit();
+            EndgameGenerator.write( EndgameGenerator.generate(), file );
+            tablebase = EndgameTablebase.open( file );
+        }
+    }
+
+    public void testRacesOfRestingPiecesHaveTheirExactValues()
+    {
+        PackedState state = new PackedState();
+        state.addPiece( 0, 30 );
+        state.addPiece( 1, 30 );
+        assertTrue( EndgameTablebase.covers( state ) );
+
+        // a piece on 30 bears off whatever is thrown, so the mover finishes first
+        int entry = tablebase.probe( state, 0 );
+        assertEquals( EndgameTablebase.PROBABILITY_SCALE, EndgameTablebase.winChance( entry ) );
+        assertEquals( 30, EndgameTablebase.bestFrom( entry, 5 ) );
+
+        state.addPiece( 0, 30 );
+        assertEquals( 0, EndgameTablebase.winChance( tablebase.probe( state, 0 ) ) );
+        assertEquals( EndgameTablebase.PROBABILITY_SCALE, EndgameTablebase.winChance( tablebase.probe( state, 1 ) ) );
+    }
+
+    public void testPositionsAMarkCanReachAreNotCovered()
+    {
+        PackedState state = new PackedState();
+        state.addPiece( 0, 26 );
+        state.addPiece( 1, 30 );
+        // a 1, 2 or 3 moves the piece onto a marked cell
+        assertFalse( EndgameTablebase.covers( state ) );
+
+        state = new PackedState();
+        state.addPiece( 0, 29 );
+        state.addPiece( 1, 30 );
+        assertFalse( EndgameTablebase.covers( state ) );
+
+        state = new PackedState();
+        state.addPiece( 0, 30 );
+        state.addPiece( 1, 30 );
+        state.markPending( PackedState.HORUS, 30, 0 );
+        assertFalse( EndgameTablebase.covers( state ) );
+
+        state = new PackedState();
+        state.addPiece( 0, 30 );
+        state.addPiece( 1, 12 );
+        assertFalse( EndgameTablebase.covers( state ) );
+    }
+
+    public void testSearchValuesCoveredPositionsFromTheTable()
+    {
+        Player white = new Player( "White", null );
+        Player black = new Player( "Black", null );
+        List<Piece> pieces = new ArrayList<>();
+        pieces.add( new Piece( white, 25 ) );
+        pieces.add( new Piece( white, 30 ) );
+        pieces.add( new Piece( black, 30 ) );
+        pieces.add( new Piece( black, 30 ) );
+        GameState state = new GameState( new BoardFactory().createBoard(), pieces, new Player[] { white, black } );
+        BotStrategy bot = new BotStrategy();
+        bot.setTablebase( tablebase );
+        SearchMetrics metrics = new SearchMetrics();
+        bot.setMetrics( metrics );
+
+        // 25 to 30 leaves every piece resting on 30, bearing off from 30 does not
+        MovePiece move = bot.chooseMove( state, white, 5 );
+        assertNotNull( move );
+        assertTrue( bot.getLastSearchDepth() > 0 );
+        assertTrue( metrics.getEndgameNodes() > 0 );
+    }
+}
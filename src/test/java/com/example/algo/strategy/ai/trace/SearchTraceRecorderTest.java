@@ -0,0 +1,92 @@
+package com.example.algo.strategy.ai.trace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.example.algo.RandomPositions;
+import com.example.algo.move.MovePiece;
+import com.example.algo.state.GameState;
+import com.example.algo.state.PackedState;
+import com.example.algo.strategy.ai.BotStrategy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class SearchTraceRecorderTest
+    extends TestCase
+{
+    public SearchTraceRecorderTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( SearchTraceRecorderTest.class );
+    }
+
+    public void testRecordedTreeMatchesTheSearch()
+        throws IOException
+    {
+        Path file = Files.createTempFile( "search", ".trace" );
+        try
+        {
+            GameState state = new RandomPositions( 7 ).after( 6 );
+            int stick = 3;
+            List<MovePiece> legal = RandomPositions.legalMoves( state, state.getCurrentPlayer(), stick );
+            assertTrue( legal.size() > 1 );
+
+            BotStrategy plain = new BotStrategy();
+            MovePiece expected = plain.chooseMove( state, state.getCurrentPlayer(), stick );
+
+            BotStrategy recording = new BotStrategy();
+            recording.setParallelism( 2 );
+            // a few records per buffer, so the search waits on the flusher
+            try ( SearchTraceRecorder trace = new SearchTraceRecorder( file, 16 * SearchTraceRecorder.RECORD_BYTES ) )
+            {
+                recording.setTraceRecorder( trace );
+                MovePiece played = recording.chooseMove( state, state.getCurrentPlayer(), stick );
+                assertSame( expected.getPiece(), played.getPiece() );
+                assertEquals( expected.getTargetIndex(), played.getTargetIndex() );
+            }
+            finally
+            {
+                recording.setParallelism( 1 );
+            }
+
+            TraceViewer viewer = TraceViewer.open( file );
+            assertEquals( 1, viewer.rootCount() );
+            int root = viewer.root( 1 );
+            assertEquals( SearchTraceRecorder.ROOT, viewer.type( root ) );
+            assertEquals( stick, viewer.stick( root ) );
+
+            List<Integer> rootMoves = viewer.children( root );
+            assertEquals( legal.size(), rootMoves.size() );
+            int best = Integer.MIN_VALUE;
+            for ( int node : rootMoves )
+            {
+                best = Math.max( best, viewer.value( node ) );
+                assertEquals( stick, viewer.stick( node ) );
+            }
+            assertEquals( best, viewer.value( root ) );
+            MovePiece first = legal.get( viewer.index( rootMoves.get( 0 ) ) );
+            assertEquals( PackedState.move( first.getPiece().getPosition(), first.getTargetIndex() ),
+                viewer.move( rootMoves.get( 0 ) ) );
+
+            List<Integer> replies = viewer.select( root, new int[] { 1, 2 } );
+            assertFalse( replies.isEmpty() );
+            for ( int node : replies )
+            {
+                assertEquals( 2, viewer.stick( node ) );
+                assertEquals( viewer.depth( rootMoves.get( 0 ) ) - 1, viewer.depth( node ) );
+            }
+        }
+        finally
+        {
+            Files.delete( file );
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.algo.strategy.mcts;
+
+import java.util.List;
+
+import com.example.algo.RandomPositions;
+import com.example.algo.move.MovePiece;
+import com.example.algo.player.Player;
+import com.example.algo.state.GameState;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class MctsStrategyTest
+    extends TestCase
+{
+    public MctsStrategyTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( MctsStrategyTest.class );
+    }
+
+    public void testPicksLegalMovesReproduciblyFromASeed()
+    {
+        RandomPositions positions = new RandomPositions( 8L );
+        MctsStrategy first = new MctsStrategy( 42L );
+        MctsStrategy second = new MctsStrategy( 42L );
+        first.setPlayouts( 300 );
+        second.setPlayouts( 300 );
+        for ( int plies = 0; plies < 160; plies += 16 )
+        {
+            GameState state = positions.after( plies );
+            Player player = state.getCurrentPlayer();
+            for ( int stick = 1; stick <= 5; stick++ )
+            {
+                MovePiece move = first.chooseMove( state, player, stick );
+                assertLegal( RandomPositions.legalMoves( state, player, stick ), move );
+                assertSameMove( move, second.chooseMove( state, player, stick ) );
+            }
+        }
+    }
+
+    public void testParallelTreesPickLegalMovesReproducibly()
+    {
+        RandomPositions positions = new RandomPositions( 9L );
+        MctsStrategy first = new MctsStrategy( 7L );
+        MctsStrategy second = new MctsStrategy( 7L );
+        first.setParallelism( 3 );
+        second.setParallelism( 3 );
+        for ( int plies = 0; plies < 120; plies += 20 )
+        {
+            GameState state = positions.after( plies );
+            Player player = state.getCurrentPlayer();
+            MovePiece move = first.chooseMove( state, player, 2 );
+            assertLegal( RandomPositions.legalMoves( state, player, 2 ), move );
+            assertSameMove( move, second.chooseMove( state, player, 2 ) );
+        }
+    }
+
+    private static void assertSameMove( MovePiece expected, MovePiece actual )
+    {
+        if ( expected == null )
+        {
+            assertNull( actual );
+            return;
+        }
+        assertSame( expected.getPiece(), actual.getPiece() );
+        assertEquals( expected.getTargetIndex(), actual.getTargetIndex() );
+    }
+
+    private static void assertLegal( List<MovePiece> legal, MovePiece move )
+    {
+        if ( legal.isEmpty() )
+        {
+            assertNull( move );
+            return;
+        }
+        for ( MovePiece candidate : legal )
+        {
+            if ( candidate.getPiece() == move.getPiece() && candidate.getTargetIndex() == move.getTargetIndex() )
+            {
+                return;
+            }
+        }
+        fail( "not a legal move: " + move.getPiece().getPosition() + " -> " + move.getTargetIndex() );
+    }
+}
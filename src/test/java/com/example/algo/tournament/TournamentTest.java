@@ -0,0 +1,42 @@
+package com.example.algo.tournament;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class TournamentTest
+    extends TestCase
+{
+    public TournamentTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( TournamentTest.class );
+    }
+
+    public void testSeedReplaysTournamentOnAnyThreadCount()
+    {
+        TournamentReport single = play( 1 );
+        TournamentReport several = play( 3 );
+
+        assertEquals( 30, single.getGames() );
+        assertEquals( single.getWinsA(), several.getWinsA() );
+        assertEquals( single.getWinsB(), several.getWinsB() );
+        assertEquals( single.getFirstPlayerWins(), several.getFirstPlayerWins() );
+        assertEquals( single.getTurns(), several.getTurns() );
+        assertEquals( single.getLatencyA().count(), several.getLatencyA().count() );
+    }
+
+    private static TournamentReport play( int threads )
+    {
+        Tournament tournament = new Tournament( "random", Tournament.strategy( "random" ),
+                                                "mcts", Tournament.strategy( "mcts:20" ) );
+        tournament.setSeed( 99L );
+        tournament.setGames( 30 );
+        tournament.setThreads( threads );
+        return tournament.run();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.algo.util;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class RandomProviderTest
+    extends TestCase
+{
+    public RandomProviderTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( RandomProviderTest.class );
+    }
+
+    public void testSameSeedGivesSameNumbers()
+    {
+        RandomProvider first = new RandomProvider( 11L );
+        RandomProvider second = new RandomProvider( 3L );
+        second.setSeed( 11L );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            assertEquals( first.nextInt( 1, 7 ), second.nextInt( 1, 7 ) );
+        }
+        assertEquals( RandomProvider.stream( 5L, 9L ).nextLong(), RandomProvider.stream( 5L, 9L ).nextLong() );
+        assertFalse( RandomProvider.stream( 5L, 9L ).nextLong() == RandomProvider.stream( 5L, 10L ).nextLong() );
+    }
+
+    public void testNextIntStaysInRange()
+    {
+        RandomProvider random = new RandomProvider( 12L );
+        for ( int i = 0; i < 10000; i++ )
+        {
+            int value = random.nextInt( -3, 4 );
+            assertTrue( value >= -3 && value < 4 );
+            int bits = random.nextInt( 16 );
+            assertTrue( bits >= 0 && bits < 16 );
+        }
+    }
+
+    public void testStickThrowsFollowTheStickDistribution()
+    {
+        RandomProvider random = new RandomProvider( 13L );
+        int throwsCount = 160000;
+        int[] counts = new int[6];
+        for ( int i = 0; i < throwsCount; i++ )
+        {
+            counts[StickThrow.throwSticks( random )]++;
+        }
+        int[] sixteenths = { 0, 4, 6, 4, 1, 1 };
+        for ( int stick = 1; stick <= 5; stick++ )
+        {
+            double expected = throwsCount * sixteenths[stick] / 16.0;
+            assertEquals( expected, counts[stick], expected * 0.05 );
+        }
+    }
+}